@@ -8,22 +8,20 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
 import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.role.RoleRegistry;
 import com.api.spring_security_demo7.role.RoleRepository;
-import com.api.spring_security_demo7.security.KeyGeneratorUtil;
 
 @SpringBootApplication
 public class SpringSecurityDemo7Application {
 
 	public static void main(String[] args) throws Exception {
 
-		// Gera as chaves apenas se não existirem
-		KeyGeneratorUtil.generateKeysIfNotExists();
-
+		// As chaves de assinatura são carregadas (ou geradas, se não existirem) em segundo plano pelo KeyRing
 		SpringApplication.run(SpringSecurityDemo7Application.class, args);
 	}
 
 	@Bean
-	public CommandLineRunner run(final RoleRepository roleRepository) {
+	public CommandLineRunner run(final RoleRepository roleRepository, final RoleRegistry roleRegistry) {
 		return args -> {
 
 			final Optional<Role> userRole = roleRepository.findByName("ROLE_USER");
@@ -48,6 +46,9 @@ public class SpringSecurityDemo7Application {
 			} else {
 				System.out.println("Role ROLE_ADMIN already exists.");
 			}
+
+			// Carrega as roles em memória: registro e autorização não consultam mais o banco para obter roles
+			roleRegistry.reload();
 		};
 	}
 
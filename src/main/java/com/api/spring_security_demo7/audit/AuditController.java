@@ -0,0 +1,55 @@
+package com.api.spring_security_demo7.audit;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.api.spring_security_demo7.audit.response.AuditEventPage;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("api/v1/audit")
+@RequiredArgsConstructor
+@Tag(name = "Audit", description = "Security Audit Log API")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    /**
+     * Endpoint responsável por listar os eventos de segurança, do mais recente para o mais antigo, com paginação por keyset.
+     * Restrito a usuários com a role {@code ROLE_ADMIN}.
+     *
+     * @param cursor Cursor da página ({@code nextCursor} da resposta anterior); ausente na primeira página.
+     * @param limit  Quantidade de eventos por página (máximo 500).
+     * @return {@link ResponseEntity} com {@link AuditEventPage} contendo os eventos e o cursor da próxima página.
+     *
+     * @see AuditService#findEvents(String, int)
+     */
+    @Operation(summary = "List Audit Events", description = "Page through security audit events, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Audit events returned"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Caller is not an administrator")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/events")
+    public ResponseEntity<AuditEventPage> findEvents(@RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "50") final int limit) {
+        return ResponseEntity.ok(this.auditService.findEvents(cursor, limit));
+    }
+
+}
+
+/**
+ * Atenção!!!
+ * Controlador da consulta do log de auditoria. Os eventos são gravados pelo {@link AuditLog}; a consulta e o cursor ficam
+ * em {@link AuditService}.
+ */
@@ -0,0 +1,63 @@
+package com.api.spring_security_demo7.audit;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+import com.api.spring_security_demo7.common.UuidBinaryType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Immutable
+@Table(name = "AUDIT_EVENTS", indexes = @Index(name = "IDX_AUDIT_EVENTS_OCCURRED_AT", columnList = "OCCURRED_AT, ID"))
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AuditEvent {
+
+    @Id
+    @Type(UuidBinaryType.class)
+    @Column(name = "ID", columnDefinition = "BINARY(16)")
+    private String id;  // UUIDv7 gerado pelo AuditLog na gravação (ordem de inserção)
+
+    @Column(name = "OCCURRED_AT", nullable = false)
+    private LocalDateTime occurredAt;  // instante em que o evento foi registrado pela requisição
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "EVENT_TYPE", nullable = false, columnDefinition = "VARCHAR(32)")  // Não ENUM: novos tipos não exigem ALTER TABLE
+    private AuditEventType type;
+
+    @Type(UuidBinaryType.class)
+    @Column(name = "USER_ID", columnDefinition = "BINARY(16)")
+    private String userId;  // null quando a conta não é conhecida (ex: falha de login)
+
+    @Column(name = "EMAIL")
+    private String email;  // email normalizado (UserKeys) informado ou da conta
+
+    @Column(name = "CLIENT_IP", length = 45)
+    private String clientIp;  // IPv4 ou IPv6, quando disponível
+
+}
+
+/**
+ * Atenção!
+ * Evento de segurança (login, falha de login, tentativa limitada ou recusada, refresh, logout, troca de senha, desativação/reativação e bloqueio de conta).
+ * A tabela {@code AUDIT_EVENTS} é somente de inserção: as linhas são gravadas em lote via JDBC pelo {@link AuditLog} e
+ * nunca alteradas ({@code @Immutable}); o JPA é usado apenas para o schema e para a consulta dos administradores.
+ *
+ * . O índice {@code (OCCURRED_AT, ID)} atende à paginação por keyset do {@link AuditEventRepository}, do evento mais
+ *   recente para o mais antigo, sem OFFSET.
+*/
@@ -0,0 +1,38 @@
+package com.api.spring_security_demo7.audit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, String> {
+
+    @Transactional(readOnly = true)
+    @Query("SELECT e FROM AuditEvent e ORDER BY e.occurredAt DESC, e.id DESC")
+    List<AuditEvent> findLatest(Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT e FROM AuditEvent e
+            WHERE e.occurredAt < :occurredAt OR (e.occurredAt = :occurredAt AND e.id < :id)
+            ORDER BY e.occurredAt DESC, e.id DESC
+            """)
+    List<AuditEvent> findBefore(@Param("occurredAt") LocalDateTime occurredAt, @Param("id") String id, Limit limit);
+
+}
+
+/** JpaRepository
+ * Consultas dos eventos de auditoria, do mais recente para o mais antigo, por keyset (sem OFFSET):
+ * - findLatest: Primeira página.
+ * - findBefore: Página seguinte, com os eventos anteriores ao último evento da página anterior
+ *   (OCCURRED_AT < ? OR (OCCURRED_AT = ? AND ID < ?), a forma expandida de (OCCURRED_AT, ID) < (?, ?)).
+ *   O custo é o mesmo em qualquer página, pois a consulta começa no índice (OCCURRED_AT, ID) a partir do cursor.
+ *
+ * OBS. As inserções não passam pelo JPA: são feitas em lote via JDBC pelo AuditLog.
+*/
@@ -0,0 +1,25 @@
+package com.api.spring_security_demo7.audit;
+
+public enum AuditEventType {
+
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    TOKEN_REFRESHED,
+    LOGOUT,
+    PASSWORD_CHANGED,
+    ACCOUNT_DEACTIVATED,
+    ACCOUNT_REACTIVATED,
+    ACCOUNT_LOCKED,
+    ACCOUNT_UNLOCKED,
+    LOGIN_THROTTLED,          // Tentativa recusada pelo LoginThrottle, antes da autenticação
+    LOGIN_ACCOUNT_LOCKED,     // Login recusado: conta bloqueada
+    LOGIN_ACCOUNT_DISABLED,   // Login recusado: conta desativada
+    ;
+
+}
+
+/**
+ * Atenção!
+ * Tipos de eventos de segurança gravados pelo {@link AuditLog} em {@code AUDIT_EVENTS.EVENT_TYPE} (pelo nome).
+ * Novos tipos devem ser adicionados ao final; os nomes existentes não devem ser renomeados, pois já estão gravados.
+*/
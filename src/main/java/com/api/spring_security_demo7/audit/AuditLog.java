@@ -0,0 +1,240 @@
+package com.api.spring_security_demo7.audit;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.common.UuidV7;
+import com.api.spring_security_demo7.user.UserKeys;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class AuditLog {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO AUDIT_EVENTS (ID, OCCURRED_AT, EVENT_TYPE, USER_ID, EMAIL, CLIENT_IP) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int EMAIL_MAX_LENGTH = 255;      // AUDIT_EVENTS.EMAIL
+    private static final int CLIENT_IP_MAX_LENGTH = 45;   // AUDIT_EVENTS.CLIENT_IP
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer buffer;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final boolean blockWhenFull;
+    private final List<Object[]> batch;       // Reutilizado a cada lote (apenas a thread do writer acessa)
+    private final Thread writer;
+    private volatile boolean running = true;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+
+    /**
+     * Construtor que pré-aloca o buffer e inicia a thread de gravação.
+     *
+     * @param jdbcTemplate   Template JDBC usado nas inserções em lote.
+     * @param meterRegistry  Registro de métricas.
+     * @param capacity       Quantidade de eventos no buffer, arredondada para potência de 2 ({@code app.audit.capacity}).
+     * @param batchSize      Quantidade máxima de eventos por INSERT em lote ({@code app.audit.batch-size}).
+     * @param idleWaitMillis Espera do writer quando o buffer está vazio, em ms ({@code app.audit.idle-wait}).
+     * @param overflowPolicy Comportamento com o buffer cheio: {@code drop} ou {@code block} ({@code app.audit.overflow-policy}).
+     */
+    public AuditLog(final JdbcTemplate jdbcTemplate, final MeterRegistry meterRegistry,
+            @Value("${app.audit.capacity:65536}") final int capacity,
+            @Value("${app.audit.batch-size:500}") final int batchSize,
+            @Value("${app.audit.idle-wait:50}") final long idleWaitMillis,
+            @Value("${app.audit.overflow-policy:drop}") final String overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new AuditRingBuffer(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleWaitMillis));
+        this.blockWhenFull = switch (overflowPolicy.trim().toLowerCase(Locale.ROOT)) {
+            case "drop" -> false;
+            case "block" -> true;
+            default -> throw new IllegalArgumentException("Invalid app.audit.overflow-policy: " + overflowPolicy);
+        };
+        this.batch = new ArrayList<>(this.batchSize);
+
+        Gauge.builder("audit.events.pending", this.buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events discarded because the buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.events.written")
+                .description("Audit events written to AUDIT_EVENTS")
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.events.failed")
+                .description("Audit events lost because their insert failed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.events.flush")
+                .description("Time spent writing a batch of audit events")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        log.info("Audit log started: capacity={}, batchSize={}, overflowPolicy={}", this.buffer.capacity(),
+                this.batchSize, this.blockWhenFull ? "block" : "drop");
+    }
+
+
+    /**
+     * Registra um evento de segurança sem acessar o banco: o evento é publicado no buffer e gravado pela thread do writer.
+     * O email e o IP são truncados ao tamanho das colunas, de modo que um valor informado pelo cliente nunca faça o
+     * INSERT falhar.
+     *
+     * @param type     Tipo do evento.
+     * @param userId   ID do usuário, ou {@code null} se a conta não for conhecida.
+     * @param email    Email informado ou da conta.
+     * @param clientIp Endereço IP do cliente, ou {@code null}.
+     */
+    public void record(final AuditEventType type, final String userId, final String email, final String clientIp) {
+        final long occurredAt = System.currentTimeMillis();
+        final String normalizedEmail = truncate(UserKeys.email(email), EMAIL_MAX_LENGTH);
+        final String ip = truncate(clientIp, CLIENT_IP_MAX_LENGTH);
+        if (this.buffer.offer(occurredAt, type, userId, normalizedEmail, ip)) {
+            return;
+        }
+        if (this.blockWhenFull) {
+            int spins = 0;
+            while (this.running) {
+                if (spins++ < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.unpark(this.writer);  // O writer pode estar na espera de buffer vazio
+                    LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                }
+                if (this.buffer.offer(occurredAt, type, userId, normalizedEmail, ip)) {
+                    return;
+                }
+            }
+        }
+        this.dropped.increment();
+    }
+
+
+    /**
+     * Grava os eventos pendentes e encerra a thread do writer antes do encerramento da aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.running = false;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    private void writeLoop() {
+        while (this.running) {
+            if (flush() == 0) {
+                LockSupport.parkNanos(this.idleWaitNanos);
+            }
+        }
+        while (flush() > 0) {
+            // Eventos publicados até o encerramento
+        }
+    }
+
+
+    /**
+     * Lê até {@code batchSize} eventos do buffer e grava-os com um único {@code JdbcTemplate.batchUpdate}.
+     * Se o lote falhar, os eventos são gravados um a um: uma linha inválida não descarta os demais eventos do lote.
+     */
+    private int flush() {
+        final int drained = this.buffer.drain(this::addToBatch, this.batchSize);
+        if (drained == 0) {
+            return 0;
+        }
+        this.flushTimer.record(() -> {
+            try {
+                this.jdbcTemplate.batchUpdate(INSERT_SQL, this.batch);
+                this.written.increment(drained);
+            } catch (final RuntimeException e) {
+                log.warn("Batch insert of {} audit events failed, retrying row by row", drained, e);
+                insertEach();
+            }
+        });
+        this.batch.clear();
+        return drained;
+    }
+
+
+    /**
+     * Grava individualmente os eventos do lote que falhou; apenas as linhas rejeitadas pelo banco são perdidas.
+     * Dependendo do driver, parte do lote pode ter sido gravada antes da falha: essas linhas são reconhecidas pela chave duplicada.
+     */
+    private void insertEach() {
+        for (final Object[] row : this.batch) {
+            try {
+                this.jdbcTemplate.update(INSERT_SQL, row);
+                this.written.increment();
+            } catch (final DuplicateKeyException e) {
+                this.written.increment();  // Já gravado antes da falha do lote (o ID é gerado por evento)
+            } catch (final RuntimeException e) {
+                // Auditoria em segundo plano: a perda de um evento não afeta as requisições
+                this.failed.increment();
+                log.error("Failed to write audit event {} for {}", row[2], row[4], e);
+            }
+        }
+    }
+
+
+    private static String truncate(final String value, final int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+
+    private void addToBatch(final long occurredAt, final AuditEventType type, final String userId, final String email,
+            final String clientIp) {
+        this.batch.add(new Object[] {
+                UuidV7.toBytes(UuidV7.randomUuid()),  // Gerado aqui, na ordem de gravação: desempate do keyset
+                new Timestamp(occurredAt),
+                type.name(),
+                userId != null ? UuidV7.toBytes(userId) : null,
+                email,
+                clientIp });
+    }
+
+}
+
+/**
+ * Atenção!
+ * Log de auditoria dos eventos de segurança ({@link AuditEventType}), gravado de forma assíncrona em {@code AUDIT_EVENTS}.
+ * As requisições (login, refresh, logout, troca de senha, desativação e bloqueio de conta) apenas publicam o evento no
+ * {@link AuditRingBuffer}, pré-alocado e sem locks; uma única thread ({@code audit-writer}) lê os eventos e os grava em
+ * lote via JDBC, sem INSERT síncrono por evento.
+ *
+ * . Buffer cheio: {@code app.audit.overflow-policy=drop} descarta o evento e incrementa {@code audit.events.dropped}
+ *   (a requisição nunca espera); {@code block} faz a requisição aguardar uma posição livre (espera ativa breve e depois
+ *   park), trocando latência por completude do log.
+ * . Uma linha rejeitada pelo banco não descarta o lote: após a falha do INSERT em lote, os eventos são gravados um a um
+ *   e apenas a linha inválida é perdida ({@code audit.events.failed}).
+ * . Métricas: {@code audit.events.pending}, {@code audit.events.written}, {@code audit.events.dropped},
+ *   {@code audit.events.failed} e {@code audit.events.flush} (latência do lote).
+ *
+ * OBS. Uma queda abrupta da aplicação perde os eventos ainda no buffer (no máximo {@code idle-wait} ms em uso normal);
+ * no encerramento normal o buffer é esvaziado antes da parada.
+*/
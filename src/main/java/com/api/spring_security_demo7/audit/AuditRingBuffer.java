@@ -0,0 +1,140 @@
+package com.api.spring_security_demo7.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class AuditRingBuffer {
+
+    private final int mask;
+    private final Slot[] slots;              // Pré-alocados: publicar um evento não cria objetos
+    private final AtomicLongArray sequences; // Sequência de cada posição: indica se ela está livre ou publicada
+    private final AtomicLong tail = new AtomicLong();  // Próxima posição a ser reservada pelos produtores
+    private final AtomicLong head = new AtomicLong();   // Próxima posição a ser lida (escrita apenas pelo consumidor)
+
+
+    /**
+     * Construtor que pré-aloca o buffer.
+     *
+     * @param capacity Quantidade de eventos; arredondada para a próxima potência de 2.
+     */
+    AuditRingBuffer(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(1, capacity - 1) << 1);
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.slots[i] = new Slot();
+            this.sequences.set(i, i);
+        }
+    }
+
+
+    /**
+     * Publica um evento sem bloqueio (pode ser chamado por várias threads ao mesmo tempo).
+     *
+     * @return {@code false} se o buffer estiver cheio.
+     */
+    boolean offer(final long occurredAt, final AuditEventType type, final String userId, final String email,
+            final String clientIp) {
+        long position = this.tail.get();
+        while (true) {
+            final int index = (int) position & this.mask;
+            final long difference = this.sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    final Slot slot = this.slots[index];
+                    slot.occurredAt = occurredAt;
+                    slot.type = type;
+                    slot.userId = userId;
+                    slot.email = email;
+                    slot.clientIp = clientIp;
+                    this.sequences.setRelease(index, position + 1);  // Publica a posição para o consumidor
+                    return true;
+                }
+                position = this.tail.get();  // Outro produtor reservou a posição
+            } else if (difference < 0) {
+                return false;  // A posição ainda não foi lida na volta anterior: buffer cheio
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+
+    /**
+     * Entrega ao handler até {@code max} eventos publicados, na ordem de reserva. Apenas uma thread pode consumir.
+     *
+     * @return Quantidade de eventos entregues.
+     */
+    int drain(final Handler handler, final int max) {
+        long position = this.head.get();
+        int drained = 0;
+        while (drained < max) {
+            final int index = (int) position & this.mask;
+            if (this.sequences.getAcquire(index) != position + 1) {
+                break;  // Vazio, ou o produtor ainda está escrevendo o evento
+            }
+            final Slot slot = this.slots[index];
+            handler.accept(slot.occurredAt, slot.type, slot.userId, slot.email, slot.clientIp);
+            slot.clear();
+            this.sequences.setRelease(index, position + this.slots.length);  // Libera a posição para a próxima volta
+            position++;
+            drained++;
+        }
+        this.head.lazySet(position);
+        return drained;
+    }
+
+
+    /**
+     * Quantidade aproximada de eventos reservados e ainda não lidos.
+     */
+    int size() {
+        return (int) Math.max(0, this.tail.get() - this.head.get());
+    }
+
+
+    int capacity() {
+        return this.slots.length;
+    }
+
+
+    @FunctionalInterface
+    interface Handler {
+        void accept(long occurredAt, AuditEventType type, String userId, String email, String clientIp);
+    }
+
+
+    /**
+     * Posição do buffer. Os campos são publicados pela sequência da posição (setRelease/getAcquire).
+     */
+    private static final class Slot {
+
+        private long occurredAt;
+        private AuditEventType type;
+        private String userId;
+        private String email;
+        private String clientIp;
+
+        private void clear() {
+            this.type = null;
+            this.userId = null;
+            this.email = null;
+            this.clientIp = null;
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Fila circular limitada, sem locks, com vários produtores e um único consumidor (algoritmo de D. Vyukov).
+ * Cada posição tem um número de sequência:
+ *
+ * . {@code sequence == position}: livre; o produtor que reservar {@code position} (CAS no tail) pode escrever.
+ * . {@code sequence == position + 1}: publicada; o consumidor pode ler.
+ * . {@code sequence == position + capacity}: lida; livre para a próxima volta.
+ *
+ * Os produtores disputam apenas o CAS do tail; o consumidor não usa CAS. As posições e seus objetos são criados uma única
+ * vez, no construtor, e reutilizados. Usado apenas pelo {@link AuditLog}.
+*/
@@ -0,0 +1,8 @@
+package com.api.spring_security_demo7.audit;
+
+import com.api.spring_security_demo7.audit.response.AuditEventPage;
+
+public interface AuditService {
+
+    AuditEventPage findEvents(String cursor, int limit);
+}
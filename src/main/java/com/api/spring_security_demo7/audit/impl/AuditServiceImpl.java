@@ -0,0 +1,111 @@
+package com.api.spring_security_demo7.audit.impl;
+
+import static com.api.spring_security_demo7.exception.ErrorCode.INVALID_AUDIT_CURSOR;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.api.spring_security_demo7.audit.AuditEvent;
+import com.api.spring_security_demo7.audit.AuditEventRepository;
+import com.api.spring_security_demo7.audit.AuditService;
+import com.api.spring_security_demo7.audit.response.AuditEventPage;
+import com.api.spring_security_demo7.audit.response.AuditEventResponse;
+import com.api.spring_security_demo7.common.UuidV7;
+import com.api.spring_security_demo7.exception.BusinessException;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class AuditServiceImpl implements AuditService {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    private final AuditEventRepository auditEventRepository;
+
+
+    /**
+     * Retorna uma página de eventos de auditoria, do mais recente para o mais antigo.
+     *
+     * @param cursor Cursor devolvido na página anterior ({@code nextCursor}), ou {@code null} para a primeira página.
+     * @param limit  Quantidade de eventos por página (1 a {@value #MAX_LIMIT}; 0 ou negativo usa {@value #DEFAULT_LIMIT}).
+     * @return A página com os eventos e o cursor da próxima página.
+     * @throws BusinessException Se o cursor for inválido (INVALID_AUDIT_CURSOR).
+     */
+    @Override
+    public AuditEventPage findEvents(final String cursor, final int limit) {
+        final int size = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        final Limit fetch = Limit.of(size + 1);  // Um evento a mais indica que existe a próxima página
+
+        final List<AuditEvent> events;
+        if (cursor == null || cursor.isBlank()) {
+            events = this.auditEventRepository.findLatest(fetch);
+        } else {
+            final Cursor position = decode(cursor);
+            events = this.auditEventRepository.findBefore(position.occurredAt(), position.id(), fetch);
+        }
+
+        final boolean hasNext = events.size() > size;
+        final List<AuditEvent> page = hasNext ? events.subList(0, size) : events;
+        return AuditEventPage.builder()
+                .events(page.stream().map(AuditServiceImpl::toResponse).toList())
+                .nextCursor(hasNext ? encode(page.get(size - 1)) : null)
+                .build();
+    }
+
+
+    private static AuditEventResponse toResponse(final AuditEvent event) {
+        return AuditEventResponse.builder()
+                .id(event.getId())
+                .occurredAt(event.getOccurredAt())
+                .type(event.getType())
+                .userId(event.getUserId())
+                .email(event.getEmail())
+                .clientIp(event.getClientIp())
+                .build();
+    }
+
+
+    /**
+     * Cursor opaco (Base64 URL-safe) com a posição do último evento da página: {@code occurredAt|id}.
+     */
+    private static String encode(final AuditEvent last) {
+        final String position = last.getOccurredAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static Cursor decode(final String cursor) {
+        try {
+            final String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = position.indexOf('|');
+            final String id = position.substring(separator + 1);
+            UuidV7.toBytes(id);  // Valida o formato do ID
+            return new Cursor(LocalDateTime.parse(position.substring(0, separator)), id);
+        } catch (final IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException(INVALID_AUDIT_CURSOR);
+        }
+    }
+
+
+    private record Cursor(LocalDateTime occurredAt, String id) {
+    }
+
+}
+
+/**
+ * Atenção!
+ * Consulta dos eventos de auditoria por keyset: em vez de {@code OFFSET}, que lê e descarta todas as linhas das páginas
+ * anteriores, cada página começa após o último evento da página anterior, pelo índice {@code (OCCURRED_AT, ID)}. O custo
+ * de cada página é o mesmo, mesmo com milhões de eventos, e eventos novos não deslocam as páginas seguintes.
+ *
+ * . O ID (UUIDv7, gerado na ordem de gravação) desempata eventos registrados no mesmo instante.
+ * . O cursor é opaco para o cliente: deve ser devolvido exatamente como recebido.
+*/
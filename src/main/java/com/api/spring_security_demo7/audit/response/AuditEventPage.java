@@ -0,0 +1,20 @@
+package com.api.spring_security_demo7.audit.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AuditEventPage {
+
+    private List<AuditEventResponse> events;  // Do mais recente para o mais antigo
+    private String nextCursor;                // Enviado no parâmetro cursor da próxima página; null na última página
+}
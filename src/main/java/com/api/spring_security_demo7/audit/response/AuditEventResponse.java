@@ -0,0 +1,26 @@
+package com.api.spring_security_demo7.audit.response;
+
+import java.time.LocalDateTime;
+
+import com.api.spring_security_demo7.audit.AuditEventType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AuditEventResponse {
+
+    private String id;
+    private LocalDateTime occurredAt;
+    private AuditEventType type;
+    private String userId;
+    private String email;
+    private String clientIp;
+}
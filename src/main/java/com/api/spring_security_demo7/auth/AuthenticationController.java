@@ -1,9 +1,11 @@
 package com.api.spring_security_demo7.auth;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -16,6 +18,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -33,21 +36,24 @@ public class AuthenticationController {
      * Endpoint responsável por autenticar um usuário com base em suas credenciais
      * (email e senha) e retornar os tokens JWT.
      *
-     * @param request Objeto {@link AuthenticationRequest} contendo as credenciais
-     *                do usuário.
+     * @param request     Objeto {@link AuthenticationRequest} contendo as credenciais
+     *                    do usuário.
+     * @param httpRequest Requisição HTTP, usada para obter o IP do cliente (throttling do login e log de auditoria).
      * @return {@link ResponseEntity} com {@link AuthenticationResponse} contendo
      *         o Access Token, Refresh Token e tipo do token.
      *
-     * @see AuthenticationService#login(AuthenticationRequest)
+     * @see AuthenticationService#login(AuthenticationRequest, String)
      */
     @Operation(summary = "User Login", description = "Authenticate user and return JWT TOKEN")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful login"),
-            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid credentials")
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid credentials or locked account"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests - Login attempts throttled")
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponse> login(@Valid @RequestBody final AuthenticationRequest request) {
-        return ResponseEntity.ok(this.authenticationService.login(request));
+    public ResponseEntity<AuthenticationResponse> login(@Valid @RequestBody final AuthenticationRequest request,
+            final HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(this.authenticationService.login(request, httpRequest.getRemoteAddr()));
     }
 
     /**
@@ -76,12 +82,14 @@ public class AuthenticationController {
 
     /**
      * Endpoint responsável por gerar um novo Access Token a partir de um Refresh Token válido.
+     * O Refresh Token é rotacionado: a resposta traz um novo Refresh Token e o anterior deixa de ser aceito.
      *
-     * @param request Objeto {@link RefreshRequest} contendo o refresh token.
+     * @param request     Objeto {@link RefreshRequest} contendo o refresh token.
+     * @param httpRequest Requisição HTTP, usada para obter o IP do cliente (log de auditoria).
      * @return {@link ResponseEntity} com {@link AuthenticationResponse} contendo o
-     *         novo Access Token.
+     *         novo Access Token e o novo Refresh Token.
      *
-     * @see AuthenticationService#refreshToken(RefreshRequest)
+     * @see AuthenticationService#refreshToken(RefreshRequest, String)
      */
     @Operation(summary = "Refresh JWT Token", description = "Refresh the JWT token using a refresh token")
     @ApiResponses(value = {
@@ -89,8 +97,34 @@ public class AuthenticationController {
             @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid refresh token")
     })
     @PostMapping("/refresh")
-    public ResponseEntity<AuthenticationResponse> refresh(@RequestBody final RefreshRequest request) {
-        return ResponseEntity.ok(this.authenticationService.refreshToken(request));
+    public ResponseEntity<AuthenticationResponse> refresh(@RequestBody final RefreshRequest request,
+            final HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(this.authenticationService.refreshToken(request, httpRequest.getRemoteAddr()));
+    }
+
+    /**
+     * Endpoint responsável por encerrar a sessão revogando o Access Token enviado no header "Authorization"
+     * e, opcionalmente, o Refresh Token enviado no corpo. Os tokens revogados deixam de ser aceitos imediatamente.
+     *
+     * @param authorization Header "Authorization" no formato "Bearer &lt;token&gt;".
+     * @param request       Objeto {@link RefreshRequest} com o Refresh Token a ser revogado (opcional).
+     * @param httpRequest   Requisição HTTP, usada para obter o IP do cliente (log de auditoria).
+     * @return {@link ResponseEntity} com status {@code 204 NO CONTENT} em caso de sucesso.
+     *
+     * @see AuthenticationService#logout(String, RefreshRequest, String)
+     */
+    @Operation(summary = "User Logout", description = "Revoke the access token and, optionally, the refresh token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tokens successfully revoked"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid token")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) final String authorization,
+            @RequestBody(required = false) final RefreshRequest request,
+            final HttpServletRequest httpRequest) {
+        this.authenticationService.logout(authorization, request, httpRequest.getRemoteAddr());
+        return ResponseEntity.noContent().build();
     }
 
 }
@@ -99,7 +133,7 @@ public class AuthenticationController {
  * Atenção!!!
  * Controlador responsável por gerenciar as operações de autenticação da aplicação.
  * 
- * Este controller expõe endpoints para login, registro e atualização de tokens JWT,
+ * Este controller expõe endpoints para login, registro, atualização e revogação (logout) de tokens JWT,
  * delegando a lógica principal para {@link AuthenticationService}.
  * 
  * Anotações Swagger/OpenAPI são utilizadas para documentação automática dos endpoints.
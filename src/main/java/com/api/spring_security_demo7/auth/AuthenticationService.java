@@ -7,9 +7,11 @@ import com.api.spring_security_demo7.auth.response.AuthenticationResponse;
 
 public interface AuthenticationService {
 
-    AuthenticationResponse login(AuthenticationRequest request);
+    AuthenticationResponse login(AuthenticationRequest request, String clientIp);
 
     void register(RegistrationRequest request);
 
-    AuthenticationResponse refreshToken(RefreshRequest req);
+    AuthenticationResponse refreshToken(RefreshRequest req, String clientIp);
+
+    void logout(String authorizationHeader, RefreshRequest req, String clientIp);
 }
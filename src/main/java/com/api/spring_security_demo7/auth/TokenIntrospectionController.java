@@ -0,0 +1,56 @@
+package com.api.spring_security_demo7.auth;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.api.spring_security_demo7.auth.request.IntrospectionRequest;
+import com.api.spring_security_demo7.auth.response.IntrospectionResponse;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("api/v1/tokens")
+@RequiredArgsConstructor
+@Tag(name = "Token Introspection", description = "Token Introspection API")
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    /**
+     * Endpoint responsável por validar um lote de tokens em uma única chamada.
+     * Para cada token retorna se ele está ativo e, nesse caso, o subject, o tipo, a expiração e as authorities.
+     * Restrito a usuários com a role {@code ROLE_ADMIN} (ex: a conta de serviço do gateway).
+     *
+     * @param request Objeto {@link IntrospectionRequest} com os tokens.
+     * @return {@link ResponseEntity} com {@link IntrospectionResponse} contendo um resultado por token, na mesma ordem.
+     *
+     * @see TokenIntrospectionService#introspect(IntrospectionRequest)
+     */
+    @Operation(summary = "Bulk Token Introspection", description = "Validate a batch of JWTs in a single call")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens introspected"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Empty batch or batch size limit exceeded"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Caller is not an administrator")
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponse> introspect(@Valid @RequestBody final IntrospectionRequest request) {
+        return ResponseEntity.ok(this.tokenIntrospectionService.introspect(request));
+    }
+
+}
+
+/**
+ * Atenção!!!
+ * Controlador da introspecção de tokens em lote. Gateways e sidecars enviam N tokens e recebem N resultados em uma única
+ * resposta, em vez de uma chamada HTTP por token. A lógica fica em {@link TokenIntrospectionService}.
+ */
@@ -0,0 +1,9 @@
+package com.api.spring_security_demo7.auth;
+
+import com.api.spring_security_demo7.auth.request.IntrospectionRequest;
+import com.api.spring_security_demo7.auth.response.IntrospectionResponse;
+
+public interface TokenIntrospectionService {
+
+    IntrospectionResponse introspect(IntrospectionRequest request);
+}
@@ -1,32 +1,56 @@
 package com.api.spring_security_demo7.auth.impl;
 
 import static com.api.spring_security_demo7.exception.ErrorCode.EMAIL_ALREADY_EXISTS;
+import static com.api.spring_security_demo7.exception.ErrorCode.INVALID_REFRESH_TOKEN;
+import static com.api.spring_security_demo7.exception.ErrorCode.INVALID_TOKEN;
 import static com.api.spring_security_demo7.exception.ErrorCode.PASSWORD_MISMATCH;
 import static com.api.spring_security_demo7.exception.ErrorCode.PHONE_ALREADY_EXISTS;
+import static com.api.spring_security_demo7.exception.ErrorCode.TOKEN_REVOKED;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.api.spring_security_demo7.audit.AuditEventType;
+import com.api.spring_security_demo7.audit.AuditLog;
 import com.api.spring_security_demo7.auth.AuthenticationService;
 import com.api.spring_security_demo7.auth.request.AuthenticationRequest;
 import com.api.spring_security_demo7.auth.request.RefreshRequest;
 import com.api.spring_security_demo7.auth.request.RegistrationRequest;
 import com.api.spring_security_demo7.auth.response.AuthenticationResponse;
 import com.api.spring_security_demo7.exception.BusinessException;
+import com.api.spring_security_demo7.exception.ServiceOverloadedException;
 import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.role.RoleRegistry;
 import com.api.spring_security_demo7.role.RoleRepository;
 import com.api.spring_security_demo7.security.JwtService;
+import com.api.spring_security_demo7.security.LoginThrottle;
+import com.api.spring_security_demo7.security.ValidatedToken;
+import com.api.spring_security_demo7.security.VerifiedTokenCache;
+import com.api.spring_security_demo7.token.RefreshTokenFamilyStore;
+import com.api.spring_security_demo7.token.TokenRevocationList;
+import com.api.spring_security_demo7.user.LoginActivityRecorder;
+import com.api.spring_security_demo7.user.PasswordUpgrader;
 import com.api.spring_security_demo7.user.User;
+import com.api.spring_security_demo7.user.UserKeys;
 import com.api.spring_security_demo7.user.UserMapper;
 import com.api.spring_security_demo7.user.UserRepository;
+import com.api.spring_security_demo7.user.UserService;
 
-import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,24 +63,67 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final UserMapper userMapper;
+    private final UserService userService;
+    private final TokenRevocationList tokenRevocationList;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RefreshTokenFamilyStore refreshTokenFamilyStore;
+    private final PasswordUpgrader passwordUpgrader;
+    private final LoginThrottle loginThrottle;
+    private final LoginActivityRecorder loginActivityRecorder;
+    private final AuditLog auditLog;
 
 
     /**
      * Realiza o login do usuário, autentica suas credenciais e retorna tokens JWT válidos.
+     * Antes da autenticação, as tentativas são limitadas por conta e por IP ({@link LoginThrottle}), sem cálculo de hash;
+     * após falhas consecutivas a conta é bloqueada. O resultado (falhas e data do último login) é gravado em lote
+     * pelo {@link LoginActivityRecorder}, e o login (ou a falha, a tentativa limitada e a conta bloqueada ou desativada)
+     * é registrado no {@link AuditLog}.
+     * Se o hash da senha estiver desatualizado, ele é regerado em segundo plano ({@link PasswordUpgrader}).
      *
-     * @param request Objeto {@link AuthenticationRequest} contendo email e senha do usuário.
+     * @param request  Objeto {@link AuthenticationRequest} contendo email e senha do usuário.
+     * @param clientIp Endereço IP do cliente.
      * @return {@link AuthenticationResponse} contendo Access Token, Refresh Token e tipo do token.
      */
     @Override
-    public AuthenticationResponse login(final AuthenticationRequest request) {
+    public AuthenticationResponse login(final AuthenticationRequest request, final String clientIp) {
 
-        final Authentication auth = this.authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        try {
+            this.loginThrottle.acquire(request.getEmail(), clientIp);
+        } catch (final ServiceOverloadedException e) {
+            this.auditLog.record(AuditEventType.LOGIN_THROTTLED, null, request.getEmail(), clientIp);
+            throw e;
+        }
+
+        final Authentication auth;
+        try {
+            auth = this.authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        } catch (final LockedException e) {
+            this.auditLog.record(AuditEventType.LOGIN_ACCOUNT_LOCKED, null, request.getEmail(), clientIp);
+            throw e;
+        } catch (final DisabledException e) {
+            this.auditLog.record(AuditEventType.LOGIN_ACCOUNT_DISABLED, null, request.getEmail(), clientIp);
+            throw e;
+        } catch (final BadCredentialsException e) {
+            this.loginActivityRecorder.recordFailure(request.getEmail());
+            this.auditLog.record(AuditEventType.LOGIN_FAILED, null, request.getEmail(), clientIp);
+            if (this.loginThrottle.recordFailure(request.getEmail())) {
+                log.warn("Locking account {} after too many failed login attempts", request.getEmail());
+                this.userService.lockAccount(request.getEmail(), this.loginThrottle.lockedUntil());
+            }
+            throw e;
+        }
+        this.loginThrottle.recordSuccess(request.getEmail());
 
         final User user = (User) auth.getPrincipal();
-        final String token = this.jwtService.generateAccessToken(user.getUsername());
-        final String refreshToken = this.jwtService.generateRefreshToken(user.getUsername());
+        this.loginActivityRecorder.recordSuccess(user.getId(), user.getEmail());
+        this.auditLog.record(AuditEventType.LOGIN_SUCCEEDED, user.getId(), user.getEmail(), clientIp);
+        this.passwordUpgrader.upgradeIfNeeded(user, request.getPassword());
+        final String token = this.jwtService.generateAccessToken(user);
+        final String refreshToken = issueRefreshToken(user.getUsername(), UUID.randomUUID().toString(), null);
         final String tokenType = "Bearer";
 
         return AuthenticationResponse.builder()
@@ -69,8 +136,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     /**
      * Realiza o registro de um novo usuário no sistema.
-     * Valida se o email e telefone já existem, verifica se as senhas batem,
-     * associa a role {@code ROLE_USER} e persiste o usuário no banco.
+     * Verifica se as senhas batem, associa a role {@code ROLE_USER} e persiste o usuário no banco.
+     * A unicidade do email e do telefone é garantida pelas constraints de {@code USERS} (sem consultas prévias):
+     * uma violação é convertida no erro de negócio correspondente. Apenas as linhas de {@code USERS} e {@code USERS_ROLES}
+     * são inseridas; o lado inverso {@code Role.users} nunca é carregado.
      *
      * @param request Objeto {@link RegistrationRequest} contendo os dados do novo usuário.
      * @throws BusinessException Caso o email ou telefone já existam ou as senhas não coincidam.
@@ -79,86 +148,216 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Transactional
     public void register(final RegistrationRequest request) {
 
-        checkUserEmail(request.getEmail());
-        checkUserPhoneNumber(request.getPhoneNumber());
         checkPasswords(request.getPassword(), request.getConfirmPassword());
 
-        final Role userRole = this.roleRepository.findByName("ROLE_USER")
-                .orElseThrow(() -> new EntityNotFoundException("Role user does not exist"));
         final List<Role> roles = new ArrayList<>();
-        roles.add(userRole);
+        roles.add(userRoleReference());
 
         final User user = this.userMapper.toUser(request);
         user.setRoles(roles);
         log.debug("Saving user {}", user);
-        this.userRepository.save(user);
+        try {
+            this.userRepository.saveAndFlush(user);  // Flush imediato: a violação de constraint ocorre aqui, e não no commit
+        } catch (final DataIntegrityViolationException e) {
+            throw toDuplicateUserException(e, user);
+        }
+    }
 
-        final List<User> users = new ArrayList<>();
-        users.add(user);
-        userRole.setUsers(users);
 
-        this.roleRepository.save(userRole);
+    /**
+     * Retorna uma referência (proxy não inicializado) para a role {@code ROLE_USER}, sem SELECT.
+     * O id da role vem do {@link RoleRegistry}, carregado em memória na inicialização.
+     *
+     * @return Referência gerenciada para a role {@code ROLE_USER}.
+     */
+    private Role userRoleReference() {
+        return this.roleRepository.getReferenceById(this.roleRegistry.require("ROLE_USER").id());
     }
 
 
     /**
-     * Gera um novo Access Token baseado em um Refresh Token válido.
+     * Converte a violação de uma constraint única de {@code USERS} no erro de negócio correspondente.
+     * Índices únicos não reconhecidos (ex: os antigos, com nome gerado pelo Hibernate, em bancos ainda não migrados) são
+     * identificados pelo valor duplicado na mensagem do banco; sem ele, a violação é tratada como email duplicado, pois
+     * email e telefone são as únicas chaves únicas de {@code USERS} além do ID.
      *
-     * @param req Objeto {@link RefreshRequest} contendo o refresh token.
-     * @return {@link AuthenticationResponse} com o novo Access Token, refresh token e tipo.
+     * @param e    Exceção lançada pelo INSERT do usuário.
+     * @param user Usuário que seria inserido.
+     * @return {@link BusinessException} com {@code EMAIL_ALREADY_EXISTS} ou {@code PHONE_ALREADY_EXISTS}.
+     * @throws DataIntegrityViolationException Caso a violação não seja de uma constraint única.
+     */
+    private BusinessException toDuplicateUserException(final DataIntegrityViolationException e, final User user) {
+        final String constraint = e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : String.valueOf(e.getMostSpecificCause().getMessage());
+        final String normalized = constraint.toUpperCase(Locale.ROOT);
+        if (normalized.contains(User.PHONE_NUMBER_CONSTRAINT)) {
+            return new BusinessException(PHONE_ALREADY_EXISTS);
+        }
+        if (normalized.contains(User.EMAIL_CONSTRAINT)) {
+            return new BusinessException(EMAIL_ALREADY_EXISTS);
+        }
+        if (!(e.getCause() instanceof ConstraintViolationException violation)
+                || violation.getKind() != ConstraintViolationException.ConstraintKind.UNIQUE) {
+            throw e;  // NOT NULL, chave estrangeira, etc.: não é um usuário duplicado
+        }
+        final String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (message.contains("'" + user.getPhoneNumber() + "'") || message.contains("'" + user.getPhoneNormalized() + "'")) {
+            return new BusinessException(PHONE_ALREADY_EXISTS);
+        }
+        return new BusinessException(EMAIL_ALREADY_EXISTS);
+    }
+
+
+    /**
+     * Gera um novo Access Token e um novo Refresh Token a partir de um Refresh Token válido (rotação).
+     * O Refresh Token recebido é invalidado; se um token já rotacionado for reapresentado, a família inteira é revogada.
+     * Refresh Tokens sem família (emitidos antes da rotação) são recusados: sem família não há como invalidá-los.
+     * O usuário é recarregado para que o novo Access Token reflita as authorities e o status atual da conta.
+     *
+     * @param req      Objeto {@link RefreshRequest} contendo o refresh token.
+     * @param clientIp Endereço IP do cliente (log de auditoria).
+     * @return {@link AuthenticationResponse} com o novo Access Token, o novo refresh token e tipo.
+     * @throws BusinessException Caso o Refresh Token seja inválido, revogado ou já tenha sido usado.
      */
     @Override
-    public AuthenticationResponse refreshToken(final RefreshRequest req) {
+    public AuthenticationResponse refreshToken(final RefreshRequest req, final String clientIp) {
 
-        final String newAccessToken = this.jwtService.refreshAccessToken(req.getRefreshToken());
+        final ValidatedToken refreshToken = validateRefreshToken(req.getRefreshToken());
+        final String familyId = refreshToken.getFamilyId();
+        if (familyId == null) {
+            throw new BusinessException(INVALID_REFRESH_TOKEN);  // Token legado: poderia ser reapresentado indefinidamente
+        }
+        if (this.tokenRevocationList.isRevoked(refreshToken)) {
+            throw new BusinessException(TOKEN_REVOKED);
+        }
+        final UserDetails user = this.userService.loadUserByUsername(refreshToken.getSubject());
+
+        final String newRefreshToken = issueRefreshToken(user.getUsername(), familyId, refreshToken.getTokenId());
+        final String newAccessToken = this.jwtService.generateAccessToken(user);
         final String tokenType = "Bearer";
+        this.auditLog.record(AuditEventType.TOKEN_REFRESHED, user instanceof User u ? u.getId() : null,
+                user.getUsername(), clientIp);
         
         return AuthenticationResponse.builder()
                 .accessToken(newAccessToken)
-                .refreshToken(req.getRefreshToken())
+                .refreshToken(newRefreshToken)
                 .tokenType(tokenType)
                 .build();
     }
 
 
     /**
-     * Verifica se o email informado já existe no banco.
+     * Emite um Refresh Token da família informada. Sem token anterior, a família é criada (login);
+     * caso contrário, o token anterior é substituído atomicamente pelo novo no {@link RefreshTokenFamilyStore}.
      *
-     * @param email Email a ser verificado.
-     * @throws BusinessException Caso o email já exista.
+     * @param username         Username dono da família.
+     * @param familyId         Identificador da família.
+     * @param presentedTokenId {@code jti} do Refresh Token sendo rotacionado, ou {@code null} para uma nova família.
+     * @return Novo Refresh Token assinado.
+     * @throws BusinessException Caso a rotação seja recusada (token reutilizado, família revogada ou inexistente).
      */
-    private void checkUserEmail(final String email) {
-        final boolean emailExists = this.userRepository.existsByEmailIgnoreCase(email);
-        if (emailExists) {
-            throw new BusinessException(EMAIL_ALREADY_EXISTS);
+    private String issueRefreshToken(final String username, final String familyId, final String presentedTokenId) {
+        final String tokenId = UUID.randomUUID().toString();
+        final Instant expiresAt = Instant.now().plusMillis(this.jwtService.getRefreshTokenExpiration());
+
+        if (presentedTokenId == null) {
+            this.refreshTokenFamilyStore.create(familyId, username, tokenId, expiresAt);
+        } else if (this.refreshTokenFamilyStore.rotate(familyId, presentedTokenId, tokenId, expiresAt)
+                != RefreshTokenFamilyStore.Rotation.ROTATED) {
+            throw new BusinessException(INVALID_REFRESH_TOKEN);
         }
+        return this.jwtService.generateRefreshToken(username, familyId, tokenId);
     }
 
 
     /**
-     * Verifica se a senha e a confirmação de senha coincidem. 
+     * Valida o Refresh Token recebido no refresh.
      *
-     * @param password        Senha informada pelo usuário.
-     * @param confirmPassword Confirmação da senha.
-     * @throws BusinessException Caso as senhas não coincidam ou sejam nulas.
+     * @param token Refresh Token a ser validado.
+     * @return {@link ValidatedToken} correspondente.
+     * @throws BusinessException Caso o token seja inválido, esteja expirado ou não seja um Refresh Token.
      */
-    private void checkPasswords(final String password, final String confirmPassword) {
-        if (password == null || !password.equals(confirmPassword)) {
-            throw new BusinessException(PASSWORD_MISMATCH);
+    private ValidatedToken validateRefreshToken(final String token) {
+        try {
+            return this.jwtService.validateRefreshToken(token);
+        } catch (final RuntimeException e) {
+            throw new BusinessException(INVALID_REFRESH_TOKEN);
         }
     }
 
 
     /**
-     * Verifica se o número de telefone informado já existe no banco.
+     * Realiza o logout revogando o Access Token do header "Authorization" e, se informado, o Refresh Token.
+     * Os tokens revogados deixam de autenticar imediatamente, mesmo antes da expiração.
      *
-     * @param phoneNumber Número de telefone a ser verificado.
-     * @throws BusinessException Caso o número de telefone já exista.
+     * @param authorizationHeader Header "Authorization" no formato "Bearer &lt;token&gt;" (opcional se houver Refresh Token).
+     * @param req                 Objeto {@link RefreshRequest} com o Refresh Token a ser revogado (opcional).
+     * @param clientIp            Endereço IP do cliente (log de auditoria).
+     * @throws BusinessException Caso nenhum token seja informado, algum token seja inválido ou os tokens pertençam a usuários diferentes.
      */
-    private void checkUserPhoneNumber(final String phoneNumber) {
-        final boolean phoneNumberExists = this.userRepository.existsByPhoneNumber(phoneNumber);
-        if (phoneNumberExists) {
-            throw new BusinessException(PHONE_ALREADY_EXISTS);
+    @Override
+    public void logout(final String authorizationHeader, final RefreshRequest req, final String clientIp) {
+
+        final String accessToken = authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                ? authorizationHeader.substring(7)
+                : null;
+        final String refreshToken = req != null ? req.getRefreshToken() : null;
+        if (accessToken == null && refreshToken == null) {
+            throw new BusinessException(INVALID_TOKEN);
+        }
+
+        final ValidatedToken access = accessToken != null ? validate(accessToken) : null;
+        final ValidatedToken refresh = refreshToken != null ? validate(refreshToken) : null;
+        if (access != null && refresh != null && !access.getSubject().equals(refresh.getSubject())) {
+            throw new BusinessException(INVALID_TOKEN);
+        }
+
+        if (access != null) {
+            this.tokenRevocationList.revoke(access);
+            this.verifiedTokenCache.evict(accessToken);
+        }
+        if (refresh != null) {
+            this.tokenRevocationList.revoke(refresh);
+            if (refresh.getFamilyId() != null) {
+                this.refreshTokenFamilyStore.revoke(refresh.getFamilyId());
+            }
+        }
+        final String subject = (access != null ? access : refresh).getSubject();
+        final String userId = access != null && access.getUserId() != null
+                ? access.getUserId()
+                : this.userRepository.findIdByEmailNormalized(UserKeys.email(subject)).orElse(null);  // Refresh Token não tem a claim uid
+        this.auditLog.record(AuditEventType.LOGOUT, userId, subject, clientIp);
+    }
+
+
+    /**
+     * Valida a assinatura e a expiração de um token recebido no logout.
+     *
+     * @param token JWT a ser validado.
+     * @return {@link ValidatedToken} correspondente.
+     * @throws BusinessException Caso o token seja inválido ou esteja expirado.
+     */
+    private ValidatedToken validate(final String token) {
+        try {
+            return this.jwtService.validateToken(token);
+        } catch (final RuntimeException e) {
+            throw new BusinessException(INVALID_TOKEN);
+        }
+    }
+
+
+    /**
+     * Verifica se a senha e a confirmação de senha coincidem. 
+     *
+     * @param password        Senha informada pelo usuário.
+     * @param confirmPassword Confirmação da senha.
+     * @throws BusinessException Caso as senhas não coincidam ou sejam nulas.
+     */
+    private void checkPasswords(final String password, final String confirmPassword) {
+        if (password == null || !password.equals(confirmPassword)) {
+            throw new BusinessException(PASSWORD_MISMATCH);
         }
     }
 
@@ -168,9 +367,14 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 /** ATENÇÃO!
  * Implementação do serviço de autenticação responsável por:
  * 
- *   Login de usuários, gerando Access Token e Refresh Token via {@link JwtService}.
- *   Registro de novos usuários, validando email, telefone e senha.
- *   Refresh de Access Token usando um Refresh Token válido.
+ *   Login de usuários, gerando Access Token e Refresh Token via {@link JwtService}, com throttling por conta e por IP
+ *   e bloqueio da conta após falhas consecutivas ({@link LoginThrottle}).
+ *   Registro de novos usuários, validando a senha e usando as constraints únicas de email e telefone (um INSERT em USERS
+ *   e outro em USERS_ROLES por registro).
+ *   Refresh de Access Token usando um Refresh Token válido e não revogado, com rotação do Refresh Token
+ *   ({@link RefreshTokenFamilyStore}).
+ *   Logout, revogando o Access Token e o Refresh Token via {@link TokenRevocationList}.
+ *   Login, falha de login, refresh e logout são publicados no {@link AuditLog} (gravação assíncrona em lote).
  * 
  * Esta classe integra Spring Security, JWT e persistência de usuários e roles no banco.
  */
@@ -0,0 +1,165 @@
+package com.api.spring_security_demo7.auth.impl;
+
+import static com.api.spring_security_demo7.exception.ErrorCode.INTROSPECTION_BATCH_TOO_LARGE;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.api.spring_security_demo7.auth.TokenIntrospectionService;
+import com.api.spring_security_demo7.auth.request.IntrospectionRequest;
+import com.api.spring_security_demo7.auth.response.IntrospectionResponse;
+import com.api.spring_security_demo7.auth.response.TokenIntrospection;
+import com.api.spring_security_demo7.exception.BusinessException;
+import com.api.spring_security_demo7.security.ValidatedToken;
+import com.api.spring_security_demo7.security.VerifiedTokenCache;
+import com.api.spring_security_demo7.token.RefreshTokenFamilyStore;
+import com.api.spring_security_demo7.token.TokenRevocationList;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class TokenIntrospectionServiceImpl implements TokenIntrospectionService {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenFamilyStore refreshTokenFamilyStore;
+    private final int maxBatchSize;
+    private final int parallelism;
+    private final ExecutorService executor;  // Pool dedicado: a verificação em lote não ocupa as threads do Tomcat nem o ForkJoinPool comum
+
+
+    /**
+     * Construtor que cria o pool de verificação, com uma thread por núcleo.
+     *
+     * @param verifiedTokenCache  Verificação dos tokens (com reaproveitamento de verificações anteriores).
+     * @param tokenRevocationList Lista de tokens revogados.
+     * @param refreshTokenFamilyStore Famílias de Refresh Tokens (rotação e revogação).
+     * @param maxBatchSize        Quantidade máxima de tokens por requisição ({@code app.security.jwt.introspection.max-batch-size}).
+     */
+    public TokenIntrospectionServiceImpl(final VerifiedTokenCache verifiedTokenCache,
+            final TokenRevocationList tokenRevocationList,
+            final RefreshTokenFamilyStore refreshTokenFamilyStore,
+            @Value("${app.security.jwt.introspection.max-batch-size:100}") final int maxBatchSize) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.refreshTokenFamilyStore = refreshTokenFamilyStore;
+        this.maxBatchSize = maxBatchSize;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "jwt-introspection-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * Verifica um lote de tokens em paralelo. O lote é dividido em blocos contíguos, um por núcleo, e cada bloco
+     * é verificado em uma thread do pool; a thread da requisição verifica o primeiro bloco e aguarda os demais.
+     *
+     * @param request Objeto {@link IntrospectionRequest} com os tokens.
+     * @return {@link IntrospectionResponse} com um resultado por token, na mesma ordem da requisição.
+     * @throws BusinessException Caso o lote exceda o tamanho máximo configurado.
+     */
+    @Override
+    public IntrospectionResponse introspect(final IntrospectionRequest request) {
+        final List<String> tokens = request.getTokens();
+        if (tokens.size() > this.maxBatchSize) {
+            throw new BusinessException(INTROSPECTION_BATCH_TOO_LARGE, this.maxBatchSize);
+        }
+
+        final TokenIntrospection[] results = new TokenIntrospection[tokens.size()];
+        final int chunks = Math.min(this.parallelism, tokens.size());
+        final int chunkSize = (tokens.size() + chunks - 1) / chunks;
+
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[Math.max(0, chunks - 1)];
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            final int from = chunk * chunkSize;
+            final int to = Math.min(tokens.size(), from + chunkSize);
+            futures[chunk - 1] = CompletableFuture.runAsync(() -> introspectRange(tokens, results, from, to), this.executor);
+        }
+        introspectRange(tokens, results, 0, Math.min(tokens.size(), chunkSize));
+        CompletableFuture.allOf(futures).join();
+
+        return IntrospectionResponse.builder()
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+
+    private void introspectRange(final List<String> tokens, final TokenIntrospection[] results, final int from,
+            final int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = introspect(tokens.get(i));
+        }
+    }
+
+
+    /**
+     * Verifica um único token: assinatura, expiração e revogação. Um Refresh Token só está ativo se ainda for o atual
+     * da sua família: tokens já rotacionados, de famílias revogadas ou sem família (legados) são inativos, como no refresh.
+     *
+     * @param token JWT a ser verificado.
+     * @return Resultado ativo com subject, tipo, expiração e authorities, ou inativo.
+     */
+    private TokenIntrospection introspect(final String token) {
+        if (token == null || token.isBlank()) {
+            return TokenIntrospection.inactive();
+        }
+        final ValidatedToken validated;
+        try {
+            validated = this.verifiedTokenCache.validate(token);
+        } catch (final RuntimeException e) {
+            return TokenIntrospection.inactive();
+        }
+        if (validated.isExpired(new Date()) || this.tokenRevocationList.isRevoked(validated)) {
+            return TokenIntrospection.inactive();
+        }
+        if (validated.isRefreshToken() && !isCurrentRefreshToken(validated)) {
+            return TokenIntrospection.inactive();
+        }
+        return TokenIntrospection.builder()
+                .active(true)
+                .subject(validated.getSubject())
+                .tokenType(validated.getTokenType())
+                .expiresAt(validated.getExpiration())
+                .authorities(validated.getAuthorities())
+                .build();
+    }
+
+
+    private boolean isCurrentRefreshToken(final ValidatedToken validated) {
+        return validated.getFamilyId() != null && validated.getTokenId() != null
+                && this.refreshTokenFamilyStore.isCurrent(validated.getFamilyId(), validated.getTokenId());
+    }
+
+}
+
+/**
+ * Atenção!
+ * Implementação da introspecção de tokens em lote, usada por gateways e sidecars para validar vários tokens em uma única
+ * chamada HTTP.
+ *
+ * . A verificação usa o {@link VerifiedTokenCache}: tokens já vistos não repetem a verificação criptográfica.
+ * . Os tokens são verificados em paralelo em um pool dedicado com uma thread por núcleo.
+ * . O tamanho do lote é limitado por {@code app.security.jwt.introspection.max-batch-size}.
+ * . As authorities retornadas são as claims do Access Token; Refresh Tokens não possuem authorities.
+ * . Refresh Tokens são conferidos na tabela de famílias ({@link RefreshTokenFamilyStore}), uma consulta por token.
+*/
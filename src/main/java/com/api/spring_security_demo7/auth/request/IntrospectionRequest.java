@@ -0,0 +1,23 @@
+package com.api.spring_security_demo7.auth.request;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IntrospectionRequest {
+
+    @NotEmpty(message = "VALIDATION.INTROSPECTION.TOKENS.NOT_EMPTY")
+    @Schema(description = "JWTs to be introspected; results are returned in the same order")
+    private List<String> tokens;
+}
@@ -0,0 +1,19 @@
+package com.api.spring_security_demo7.auth.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IntrospectionResponse {
+
+    private List<TokenIntrospection> results;  // Mesma ordem dos tokens da requisição
+}
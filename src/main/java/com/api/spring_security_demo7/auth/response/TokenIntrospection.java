@@ -0,0 +1,48 @@
+package com.api.spring_security_demo7.auth.response;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+
+    private boolean active;
+
+    private String subject;
+
+    @JsonProperty("token_type")
+    private String tokenType;
+
+    @JsonProperty("expires_at")
+    private Date expiresAt;
+
+    private List<String> authorities;
+
+
+    /**
+     * Resultado de um token inválido, expirado ou revogado. Nenhuma informação adicional é exposta.
+     * @return Resultado inativo.
+     */
+    public static TokenIntrospection inactive() {
+        return TokenIntrospection.builder().active(false).build();
+    }
+}
+
+/**
+ * Atenção!
+ * Resultado da introspecção de um token. Tokens inativos retornam apenas {@code "active": false}.
+*/
@@ -1,9 +1,9 @@
 package com.api.spring_security_demo7.common;
 
-import static jakarta.persistence.GenerationType.UUID;
-
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Type;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -12,9 +12,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -31,8 +31,10 @@ import lombok.experimental.SuperBuilder;
 public class BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = UUID)
-    private String id;
+    @UuidV7Id
+    @Type(UuidBinaryType.class)
+    @Column(name = "ID", columnDefinition = "BINARY(16)")
+    private String id;  // UUIDv7 (ordenado pelo tempo), gravado em 16 bytes
 
     @CreatedDate
     @Column(name = "CREATED_DATE", updatable = false, nullable = false)
@@ -50,6 +52,13 @@ public class BaseEntity {
     @Column(name = "LAST_MODIFIED_BY", insertable = false)
     private String lastModifiedBy;
 
+    // Controle de concorrência otimista: o UPDATE da entidade inclui "WHERE VERSION = ?" e incrementa a versão.
+    // O DEFAULT 0 preenche as linhas já existentes quando a coluna é criada pelo ddl-auto.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
 }
 
 /**
@@ -62,4 +71,7 @@ public class BaseEntity {
  * As anotações @CreatedDate, @LastModifiedDate, @CreatedBy e @LastModifiedBy são usadas para auditoria automática dos campos correspondentes. 
  * 
  * A anotação @EntityListeners(AuditingEntityListener.class) habilita o suporte à auditoria para esta entidade base.
+ *
+ * O campo version (@Version) faz com que duas gravações concorrentes da mesma entidade não se sobrescrevam: a segunda falha com
+ * ObjectOptimisticLockingFailureException (409 CONCURRENT_MODIFICATION) em vez de apagar a primeira.
 */
@@ -0,0 +1,118 @@
+package com.api.spring_security_demo7.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter retries;
+    private final Counter exhausted;
+
+
+    /**
+     * Construtor da política de novas tentativas para conflitos de versão.
+     *
+     * @param maxAttempts   Tentativas por operação, incluindo a primeira ({@code app.persistence.optimistic-retry.max-attempts});
+     *                      1 desabilita as novas tentativas.
+     * @param backoffMillis Espera base entre as tentativas, em ms, com variação aleatória
+     *                      ({@code app.persistence.optimistic-retry.backoff}).
+     * @param meterRegistry Registro de métricas.
+     */
+    public OptimisticRetry(@Value("${app.persistence.optimistic-retry.max-attempts:3}") final int maxAttempts,
+            @Value("${app.persistence.optimistic-retry.backoff:10}") final long backoffMillis,
+            final MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+        this.retries = Counter.builder("persistence.optimistic.retries")
+                .description("Operations retried after an optimistic locking conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("persistence.optimistic.conflicts")
+                .description("Optimistic locking conflicts returned to the caller after the last attempt")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Executa a operação e, em caso de conflito de versão, executa-a novamente (lendo de novo a entidade) até
+     * {@code maxAttempts} vezes. Dentro de uma transação já existente não há nova tentativa: o contexto de persistência
+     * ainda teria a versão antiga e a transação já está marcada para rollback.
+     *
+     * @param operation Operação idempotente: lê a entidade, altera e grava, cada tentativa em sua própria transação.
+     * @return O resultado da operação.
+     * @throws OptimisticLockingFailureException Se todas as tentativas encontrarem conflito.
+     */
+    public <T> T execute(final Supplier<T> operation) {
+        final int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : this.maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (final OptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    this.exhausted.increment();
+                    throw e;
+                }
+                this.retries.increment();
+                log.debug("Optimistic locking conflict, retrying (attempt {} of {}): {}", attempt + 1, attempts, e.getMessage());
+                backoff(attempt, e);
+            }
+        }
+    }
+
+
+    /**
+     * Igual a {@link #execute(Supplier)}, para operações sem retorno.
+     *
+     * @param operation Operação idempotente.
+     */
+    public void run(final Runnable operation) {
+        execute(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+
+    /**
+     * Espera crescente com variação aleatória, para que as requisições em conflito não tentem novamente ao mesmo tempo.
+     */
+    private void backoff(final int attempt, final OptimisticLockingFailureException conflict) {
+        if (this.backoffMillis == 0) {
+            return;
+        }
+        final long delay = this.backoffMillis * attempt + ThreadLocalRandom.current().nextLong(this.backoffMillis + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Novas tentativas limitadas para gravações que falham por controle de concorrência otimista ({@code @Version} em
+ * {@link BaseEntity} e {@code User}). Em vez de travar a linha (lock pessimista) durante a leitura, a gravação confere a
+ * versão; em caso de conflito a operação é refeita a partir de uma nova leitura.
+ *
+ * . Apenas para merges idempotentes, cujo resultado não depende de quantas vezes a operação é executada
+ *   (ex: bloquear a conta, atribuir o ROLE_BIT das roles).
+ * . Alterações enviadas pelo cliente com a versão lida (If-Match) não passam por aqui: o conflito é devolvido como 409
+ *   para que o cliente decida.
+ * . Esgotadas as tentativas, a exceção segue para o ApplicationExceptionHandler (409 CONCURRENT_MODIFICATION).
+ * . Métricas: {@code persistence.optimistic.retries} e {@code persistence.optimistic.conflicts}.
+*/
@@ -0,0 +1,91 @@
+package com.api.spring_security_demo7.common;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+public class UuidBinaryType implements UserType<String> {
+
+    @Override
+    public int getSqlType() {
+        return Types.BINARY;
+    }
+
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+
+    @Override
+    public String nullSafeGet(final ResultSet rs, final int position, final SharedSessionContractImplementor session,
+            final Object owner) throws SQLException {
+        return UuidV7.fromBytes(rs.getBytes(position));
+    }
+
+
+    @Override
+    public void nullSafeSet(final PreparedStatement st, final String value, final int index,
+            final SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BINARY);
+        } else {
+            st.setBytes(index, UuidV7.toBytes(value));
+        }
+    }
+
+
+    @Override
+    public boolean equals(final String x, final String y) {
+        return Objects.equals(x, y);
+    }
+
+
+    @Override
+    public int hashCode(final String x) {
+        return Objects.hashCode(x);
+    }
+
+
+    @Override
+    public String deepCopy(final String value) {
+        return value;  // String é imutável
+    }
+
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+
+    @Override
+    public Serializable disassemble(final String value) {
+        return value;
+    }
+
+
+    @Override
+    public String assemble(final Serializable cached, final Object owner) {
+        return (String) cached;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Mapeia o ID canônico (String) para a coluna {@code BINARY(16)} e vice-versa, inclusive nas chaves estrangeiras
+ * (USERS_ROLES) e nos parâmetros das consultas JPQL sobre o ID.
+ *
+ * . É um {@code UserType} do Hibernate e não um {@code AttributeConverter} do JPA: a especificação não aplica conversores
+ *   a atributos {@code @Id}, e o Hibernate os ignora nas chaves primárias (o UUID seria gravado como texto).
+ *
+ * OBS. Consultas SQL nativas / JDBC devem converter o parâmetro com {@link UuidV7#toBytes(String)}.
+*/
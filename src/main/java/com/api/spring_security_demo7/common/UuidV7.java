@@ -0,0 +1,96 @@
+package com.api.spring_security_demo7.common;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class UuidV7 {
+
+    public static final int BYTES = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final HexFormat HEX = HexFormat.of();
+
+    // Último (timestamp em ms << 12 | contador) emitido: garante ordem crescente mesmo com vários IDs no mesmo milissegundo
+    private static final AtomicLong LAST_TICK = new AtomicLong();
+
+
+    private UuidV7() {
+    }
+
+
+    /**
+     * Gera um UUID versão 7 (RFC 9562): 48 bits de timestamp Unix em milissegundos, 12 bits de contador monotônico
+     * e 62 bits aleatórios.
+     *
+     * @return UUID na forma canônica (36 caracteres, minúsculo).
+     */
+    public static String randomUuid() {
+        final long now = System.currentTimeMillis() << 12;
+        final long tick = LAST_TICK.updateAndGet(last -> now > last ? now : last + 1);  // Contador esgotado: avança para o próximo ms
+
+        final long msb = (tick >>> 12) << 16 | 0x7000L | (tick & 0x0FFFL);
+        final long lsb = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+
+    /**
+     * Converte um UUID canônico para os 16 bytes gravados em {@code BINARY(16)} (mesma ordem do {@code UUID_TO_BIN} do MySQL).
+     *
+     * @param uuid UUID na forma canônica.
+     * @return 16 bytes do UUID, ou {@code null}.
+     */
+    public static byte[] toBytes(final String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        if (uuid.length() != 36) {
+            throw new IllegalArgumentException("Invalid UUID: " + uuid);
+        }
+        final byte[] bytes = new byte[BYTES];
+        int position = 0;
+        for (int i = 0; i < uuid.length(); i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;  // Hífens
+            }
+            bytes[position++] = (byte) (HexFormat.fromHexDigit(uuid.charAt(i)) << 4 | HexFormat.fromHexDigit(uuid.charAt(++i)));
+        }
+        return bytes;
+    }
+
+
+    /**
+     * Converte os 16 bytes de {@code BINARY(16)} para o UUID canônico.
+     *
+     * @param bytes 16 bytes do UUID.
+     * @return UUID na forma canônica, ou {@code null}.
+     */
+    public static String fromBytes(final byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != BYTES) {
+            throw new IllegalArgumentException("Invalid UUID length: " + bytes.length);
+        }
+        final String hex = HEX.formatHex(bytes);
+        return hex.substring(0, 8) + '-' + hex.substring(8, 12) + '-' + hex.substring(12, 16) + '-'
+                + hex.substring(16, 20) + '-' + hex.substring(20);
+    }
+
+}
+
+/**
+ * Atenção!
+ * Identificadores ordenados pelo tempo para as chaves primárias de USERS e ROLES. No InnoDB a chave primária é o índice
+ * clusterizado: com UUIDs aleatórios (v4) cada INSERT cai em uma página qualquer da árvore (page splits, páginas meio vazias e
+ * pouca localidade no buffer pool); com UUIDv7 os novos IDs são sempre crescentes e os INSERTs se concentram no fim do índice.
+ *
+ * . Na aplicação o ID continua sendo a {@code String} canônica (claims do JWT, eventos, JDBC); no banco ele é gravado em
+ *   {@code BINARY(16)} pelo {@link UuidBinaryType} (16 bytes em vez de 36 caracteres, também em USERS_ROLES e índices).
+ * . IDs v4 já existentes continuam válidos: a conversão para binário não depende da versão do UUID.
+ *
+ * OBS. Bancos criados com as colunas VARCHAR devem ser migrados com {@code db/uuid-binary-ids.sql} antes da atualização
+ * (o {@code ddl-auto=update} não altera o tipo de colunas existentes).
+*/
@@ -0,0 +1,30 @@
+package com.api.spring_security_demo7.common;
+
+import java.util.EnumSet;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(final SharedSessionContractImplementor session, final Object owner,
+            final Object currentValue, final EventType eventType) {
+        return UuidV7.randomUuid();
+    }
+
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Gerador do Hibernate para as chaves primárias anotadas com {@link UuidV7Id}: gera o ID em memória antes do INSERT,
+ * como o {@code GenerationType.UUID}, mas com {@link UuidV7} (ordenado pelo tempo) em vez de um UUID aleatório.
+*/
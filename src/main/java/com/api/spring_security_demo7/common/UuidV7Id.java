@@ -0,0 +1,21 @@
+package com.api.spring_security_demo7.common;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7Id {
+}
+
+/**
+ * Atenção!
+ * Marca a chave primária que deve ser gerada pelo {@link UuidV7Generator} (substitui {@code @GeneratedValue(strategy = UUID)}).
+*/
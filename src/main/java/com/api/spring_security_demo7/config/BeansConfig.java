@@ -1,23 +1,45 @@
 package com.api.spring_security_demo7.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.api.spring_security_demo7.security.BoundedPasswordEncoder;
+import com.api.spring_security_demo7.security.PasswordEncoderCalibrator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class BeansConfig {
 
     /**
-     * Bean para codificação de senhas usando BCryptPasswordEncoder.
+     * Bean para codificação de senhas usando BCrypt, com o custo calibrado na inicialização para a latência alvo
+     * ({@link PasswordEncoderCalibrator}) e o id do algoritmo gravado em cada hash ({@code {bcrypt}}).
+     * O hashing é executado em um pool dedicado com fila limitada ({@link BoundedPasswordEncoder}),
+     * fora das threads do Tomcat.
+     * @param meterRegistry     registro de métricas do pool.
+     * @param targetLatency     latência alvo de um hash em milissegundos.
+     * @param minCost           custo mínimo do BCrypt.
+     * @param maxCost           custo máximo do BCrypt.
+     * @param threads           quantidade de threads do pool ({@code 0} = quantidade de núcleos).
+     * @param queueCapacity     tamanho máximo da fila de espera.
+     * @param retryAfterSeconds valor do header "Retry-After" quando a fila está cheia.
      * @return uma instância de PasswordEncoder.
     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(final MeterRegistry meterRegistry,
+            @Value("${app.security.password-hashing.threads:0}") final int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") final int queueCapacity,
+            @Value("${app.security.password-hashing.retry-after:1}") final long retryAfterSeconds,
+            @Value("${app.security.password-hashing.target-latency:250}") final long targetLatency,
+            @Value("${app.security.password-hashing.bcrypt.min-cost:10}") final int minCost,
+            @Value("${app.security.password-hashing.bcrypt.max-cost:16}") final int maxCost) {
+        final PasswordEncoder encoder = PasswordEncoderCalibrator.create(targetLatency, minCost, maxCost);
+        return new BoundedPasswordEncoder(encoder, meterRegistry, threads, queueCapacity, retryAfterSeconds);
     }
 
 
@@ -46,7 +68,7 @@ public class BeansConfig {
 
 /**
  * BeansConfig é uma classe de configuração do Spring que define vários beans utilizados na aplicação.
- * Ela inclui beans para codificação de senhas, gerenciamento de autenticação e auditoria (usuário autenticado).
+ * Ela inclui beans para codificação de senhas (executada em um pool dedicado e limitado), gerenciamento de autenticação e auditoria (usuário autenticado).
  * 
  * OBS. Esses beans são essenciais para a segurança e auditoria da aplicação.
 */
@@ -0,0 +1,157 @@
+package com.api.spring_security_demo7.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /**
+     * Pool do primário, configurado por {@code spring.datasource.*} e {@code spring.datasource.hikari.*}.
+     * @param properties propriedades do DataSource do Spring Boot.
+     * @return o pool do primário.
+    */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        final HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+
+    /**
+     * Pools das réplicas (mesmas credenciais e driver do primário) atrás do roteamento por saúde/atraso.
+     * @param properties    propriedades do DataSource do Spring Boot.
+     * @param primary       pool do primário (fallback).
+     * @param meterRegistry registro de métricas.
+     * @param urls          URLs JDBC das réplicas.
+     * @param poolSize      conexões por réplica.
+     * @param maxLag        atraso máximo de replicação em segundos.
+     * @param lagProbe      forma de medir o atraso: mysql ou none (apenas valida a conexão).
+     * @return o DataSource das transações somente leitura.
+    */
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(final DataSourceProperties properties,
+            @Qualifier("primaryDataSource") final DataSource primary, final MeterRegistry meterRegistry,
+            @Value("${app.datasource.replicas.urls:}") final List<String> urls,
+            @Value("${app.datasource.replicas.pool-size:10}") final int poolSize,
+            @Value("${app.datasource.replicas.max-lag:5}") final long maxLag,
+            @Value("${app.datasource.replicas.lag-probe:mysql}") final String lagProbe) {
+        final List<DataSource> replicas = new ArrayList<>();
+        for (final String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            final HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setInitializationFailTimeout(-1);  // Réplica fora do ar não impede a inicialização
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas,
+                "none".equals(lagProbe) ? ReplicaRoutingDataSource.LagProbe.none() : ReplicaRoutingDataSource.LagProbe.mysql(),
+                maxLag, meterRegistry);
+    }
+
+
+    /**
+     * DataSource usado pelo JPA/JDBC. A conexão só é obtida na primeira instrução da transação, quando o flag read-only já
+     * foi aplicado: transações somente leitura vão para as réplicas e as demais para o primário.
+     * @param primary  pool do primário.
+     * @param replicas DataSource das réplicas.
+     * @return o DataSource da aplicação.
+    */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") final DataSource primary,
+            final ReplicaRoutingDataSource replicas) {
+        final LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicas);
+        return dataSource;
+    }
+
+
+    /**
+     * Devolve a conexão ao pool ao fim de cada transação. Sem isso, com o open-in-view, o EntityManager da requisição
+     * manteria a conexão da primeira transação (ex: a réplica do login) e a reutilizaria nas transações de escrita seguintes.
+     * Nesse modo o Spring não marca a conexão como somente leitura: quem faz isso é o {@link ReadOnlyRoutingJpaDialect}.
+     * @return o customizador das propriedades do Hibernate.
+    */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+
+    /**
+     * Adapter do Hibernate com o {@link ReadOnlyRoutingJpaDialect}, que leva o {@code readOnly} das transações JPA até a
+     * conexão (e assim às réplicas). Substitui o adapter do Spring Boot, com a mesma configuração de {@code spring.jpa.*}.
+     * @param properties propriedades {@code spring.jpa.*}.
+     * @return o adapter usado pela EntityManagerFactory e pelo JpaTransactionManager.
+    */
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(final JpaProperties properties) {
+        final HibernateJpaDialect dialect = new ReadOnlyRoutingJpaDialect();
+        final HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return dialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Roteamento de leitura/escrita, habilitado com {@code app.datasource.replicas.enabled=true}. Desabilitado, o Spring Boot
+ * cria o DataSource único de {@code spring.datasource.*} como antes.
+ *
+ * . A escolha é feita pelo {@code LazyConnectionDataSourceProxy}: as transações {@code @Transactional(readOnly = true)}
+ *   (ex: {@code UserRepository.findByEmailNormalized}) usam o {@link ReplicaRoutingDataSource}; as demais, o primário.
+ *   No JPA o flag read-only chega à conexão pelo {@link ReadOnlyRoutingJpaDialect}.
+ * . O DDL do Hibernate ({@code ddl-auto}) e as escritas sempre usam o primário.
+ *
+ * OBS. Leituras em réplica podem estar até {@code max-lag} segundos atrasadas: um dado gravado e lido logo em seguida em
+ * outra transação somente leitura pode ainda não estar na réplica. Leituras que precisam do dado recém-gravado devem
+ * ocorrer em uma transação de escrita.
+*/
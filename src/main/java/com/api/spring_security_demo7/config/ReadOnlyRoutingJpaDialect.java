@@ -0,0 +1,49 @@
+package com.api.spring_security_demo7.config;
+
+import java.sql.SQLException;
+
+import org.hibernate.ConnectionReleaseMode;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+public class ReadOnlyRoutingJpaDialect extends HibernateJpaDialect {
+
+    /**
+     * Inicia a transação e, se ela for somente leitura, marca a conexão JDBC da sessão como somente leitura.
+     *
+     * @param entityManager EntityManager da transação.
+     * @param definition    Definição da transação ({@code readOnly}, isolamento, timeout).
+     * @return Dados da transação usados pelo {@code JpaTransactionManager}.
+     */
+    @Override
+    public Object beginTransaction(final EntityManager entityManager, final TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        final Object transactionData = super.beginTransaction(entityManager, definition);
+        final SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        final ConnectionReleaseMode releaseMode = session.getJdbcCoordinator().getLogicalConnection()
+                .getConnectionHandlingMode().getReleaseMode();
+        if (definition.isReadOnly() && releaseMode != ConnectionReleaseMode.ON_CLOSE) {
+            // Em ON_CLOSE o HibernateJpaDialect já chama setReadOnly (e o desfaz no fim da transação)
+            session.doWork(connection -> connection.setReadOnly(true));
+        }
+        return transactionData;
+    }
+
+}
+
+/**
+ * Atenção!
+ * O {@code HibernateJpaDialect} só aplica o {@code readOnly} da transação na conexão JDBC quando o Hibernate mantém a
+ * conexão até o fechamento da sessão ({@code ON_CLOSE}). Com {@code DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION}
+ * (necessário com o open-in-view, ver {@link DataSourceConfig}) as transações {@code @Transactional(readOnly = true)} do
+ * JPA chegariam ao {@code LazyConnectionDataSourceProxy} sem o flag e iriam para o primário.
+ *
+ * . A conexão obtida no início da transação ainda é a conexão lazy do proxy (sem conexão real): o {@code setReadOnly(true)}
+ *   apenas escolhe o {@link ReplicaRoutingDataSource}, que é usado na primeira instrução.
+ * . Não é preciso desfazer o flag: a conexão é devolvida ao fim da transação e a próxima transação recebe outra.
+*/
@@ -0,0 +1,186 @@
+package com.api.spring_security_demo7.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final LagProbe lagProbe;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+    private volatile int[] healthy = new int[0];  // Índices das réplicas aptas; vazio até a primeira verificação (usa o primário)
+
+
+    /**
+     * Construtor do roteamento das leituras entre as réplicas.
+     *
+     * @param primary       Pool do primário, usado quando nenhuma réplica está apta.
+     * @param replicas      Pools das réplicas.
+     * @param lagProbe      Mede o atraso de replicação de uma réplica.
+     * @param maxLagSeconds Atraso máximo (segundos) para a réplica receber leituras.
+     * @param meterRegistry Registro de métricas.
+     */
+    public ReplicaRoutingDataSource(final DataSource primary, final List<DataSource> replicas, final LagProbe lagProbe,
+            final long maxLagSeconds, final MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagProbe = lagProbe;
+        this.maxLagSeconds = maxLagSeconds;
+
+        Gauge.builder("datasource.replicas.healthy", this, source -> source.healthy.length)
+                .description("Read replicas currently receiving read-only transactions")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("datasource.replicas.fallback")
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Retorna uma conexão de uma réplica apta (rodízio entre as réplicas) ou, se nenhuma estiver apta ou a réplica escolhida
+     * falhar, do primário. A réplica que falha é retirada do rodízio até a próxima verificação.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        final int[] current = this.healthy;
+        if (current.length == 0) {
+            this.fallbacks.increment();
+            return this.primary.getConnection();
+        }
+        final int replica = current[Math.floorMod(this.next.getAndIncrement(), current.length)];
+        try {
+            return this.replicas.get(replica).getConnection();
+        } catch (final SQLException e) {
+            markUnhealthy(replica, e);
+            this.fallbacks.increment();
+            return this.primary.getConnection();
+        }
+    }
+
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return getConnection();  // As credenciais são as dos pools
+    }
+
+
+    /**
+     * Verifica cada réplica: conexão válida e atraso de replicação até {@code maxLagSeconds}. Somente as réplicas aptas
+     * recebem as transações somente leitura.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval:5000}")
+    public void checkHealth() {
+        final int[] previous = this.healthy;
+        final int[] current = IntStream.range(0, this.replicas.size()).filter(this::isHealthy).toArray();
+        this.healthy = current;
+        if (current.length != previous.length) {
+            log.info("{} of {} read replicas healthy", current.length, this.replicas.size());
+        }
+    }
+
+
+    private boolean isHealthy(final int replica) {
+        try (Connection connection = this.replicas.get(replica).getConnection()) {
+            final long lag = this.lagProbe.lagSeconds(connection);
+            if (lag < 0 || lag > this.maxLagSeconds) {
+                log.warn("Read replica {} skipped: replication lag {}s (max {}s)", replica, lag < 0 ? "unknown" : lag,
+                        this.maxLagSeconds);
+                return false;
+            }
+            return true;
+        } catch (final SQLException | RuntimeException e) {
+            log.warn("Read replica {} skipped: {}", replica, e.getMessage());
+            return false;
+        }
+    }
+
+
+    private synchronized void markUnhealthy(final int replica, final SQLException cause) {
+        log.warn("Read replica {} failed, falling back to the primary: {}", replica, cause.getMessage());
+        this.healthy = IntStream.of(this.healthy).filter(index -> index != replica).toArray();
+    }
+
+
+    /**
+     * Fecha os pools das réplicas (o pool do primário pertence ao próprio bean).
+     */
+    @Override
+    public void close() throws Exception {
+        for (final DataSource replica : this.replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+
+    /**
+     * Mede o atraso de replicação de uma réplica.
+     */
+    @FunctionalInterface
+    public interface LagProbe {
+
+        /**
+         * @param connection Conexão com a réplica.
+         * @return Atraso em segundos, ou um valor negativo se a replicação não estiver ativa.
+         * @throws SQLException Se a consulta falhar.
+         */
+        long lagSeconds(Connection connection) throws SQLException;
+
+        /**
+         * Apenas valida a conexão, sem medir o atraso (ex: bancos locais/embarcados sem replicação).
+         */
+        static LagProbe none() {
+            return connection -> connection.isValid(1) ? 0 : -1;
+        }
+
+        /**
+         * Atraso informado pelo MySQL ({@code Seconds_Behind_Source} de {@code SHOW REPLICA STATUS}, MySQL 8.0.22+).
+         * Servidor sem replicação configurada, ou com a replicação parada (valor NULL), é considerado inapto.
+         */
+        static LagProbe mysql() {
+            return connection -> {
+                try (Statement statement = connection.createStatement();
+                        ResultSet result = statement.executeQuery("SHOW REPLICA STATUS")) {
+                    if (!result.next()) {
+                        return -1;
+                    }
+                    final long lag = result.getLong("Seconds_Behind_Source");
+                    return result.wasNull() ? -1 : lag;
+                }
+            };
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * DataSource das transações somente leitura ({@code @Transactional(readOnly = true)}), como a busca do usuário feita a cada
+ * login/requisição autenticada. É registrado como {@code readOnlyDataSource} do {@code LazyConnectionDataSourceProxy} em
+ * {@link DataSourceConfig}: as transações de escrita continuam no primário.
+ *
+ * . Rodízio entre as réplicas aptas; uma réplica é retirada do rodízio quando a verificação periódica falha, quando o atraso
+ *   de replicação passa de {@code app.datasource.replicas.max-lag} ou quando a obtenção de uma conexão falha.
+ * . Sem réplicas aptas (inclusive antes da primeira verificação) as leituras vão para o primário.
+ * . Métricas: {@code datasource.replicas.healthy} e {@code datasource.replicas.fallback}.
+*/
@@ -0,0 +1,15 @@
+package com.api.spring_security_demo7.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
+
+/**
+ * Essa classe habilita a execução de tarefas agendadas (@Scheduled), como a rotação das chaves de assinatura dos JWTs.
+ * O tamanho do pool de threads do agendador é definido em spring.task.scheduling.pool.size.
+*/
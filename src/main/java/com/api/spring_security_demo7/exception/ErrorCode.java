@@ -7,6 +7,8 @@ import lombok.Getter;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @Getter
@@ -19,7 +21,9 @@ public enum ErrorCode {
      * 403 FORBIDDEN
      * 404 NOT_FOUND
      * 409 CONFLICT
+     * 429 TOO_MANY_REQUESTS
      * 500 INTERNAL_SERVER_ERROR
+     * 503 SERVICE_UNAVAILABLE
     */
 
     /**
@@ -48,7 +52,24 @@ public enum ErrorCode {
                        "An internal exception occurred, please try again or contact the admin",
                        HttpStatus.INTERNAL_SERVER_ERROR),
     USERNAME_NOT_FOUND("USERNAME_NOT_FOUND", "Cannot find user with the provided username", NOT_FOUND),
+    TOKEN_REVOKED("TOKEN_REVOKED", "Token has been revoked", UNAUTHORIZED),
+    INVALID_REFRESH_TOKEN("INVALID_REFRESH_TOKEN", "Refresh token is invalid, expired or has already been used", UNAUTHORIZED),
+    INVALID_TOKEN("INVALID_TOKEN", "Token is invalid or expired", UNAUTHORIZED),
+    INTROSPECTION_BATCH_TOO_LARGE("INTROSPECTION_BATCH_TOO_LARGE", "Batch size exceeds the limit of %d tokens", BAD_REQUEST),
+    ACCOUNT_LOCKED("ACCOUNT_LOCKED",
+                   "User account is temporarily locked after too many failed login attempts, please try again later",
+                   UNAUTHORIZED),
+    TOO_MANY_LOGIN_ATTEMPTS("TOO_MANY_LOGIN_ATTEMPTS", "Too many login attempts, please try again later", TOO_MANY_REQUESTS),
+    PASSWORD_HASHING_OVERLOADED("PASSWORD_HASHING_OVERLOADED",
+                                "Too many authentication requests, please try again later",
+                                SERVICE_UNAVAILABLE),
+    SIGNING_KEY_UNAVAILABLE("SIGNING_KEY_UNAVAILABLE", "Signing keys are still loading, please try again shortly",
+                            SERVICE_UNAVAILABLE),
     CATEGORY_ALREADY_EXISTS_FOR_USER("CATEGORY_ALREADY_EXISTS_FOR_USER", "Category already exists for this user", CONFLICT),
+    CONCURRENT_MODIFICATION("CONCURRENT_MODIFICATION",
+                            "The resource was modified by another request, please reload it and try again",
+                            CONFLICT),
+    INVALID_AUDIT_CURSOR("INVALID_AUDIT_CURSOR", "The audit page cursor is invalid", BAD_REQUEST),
     ;
 
 
@@ -0,0 +1,27 @@
+package com.api.spring_security_demo7.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ServiceOverloadedException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Construtor da exceção de sobrecarga.
+     * @param errorCode         O código de erro associado a esta exceção.
+     * @param retryAfterSeconds Tempo sugerido ao cliente antes de tentar novamente (header "Retry-After").
+    */
+    public ServiceOverloadedException(final ErrorCode errorCode, final long retryAfterSeconds) {
+        super(errorCode);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Exceção lançada quando a aplicação recusa uma requisição por falta de capacidade (ex: fila de hashing de senhas cheia)
+ * ou por excesso de tentativas (ex: throttling do login).
+ * O {@code ApplicationExceptionHandler} responde com o status do {@link ErrorCode} e o header "Retry-After".
+*/
@@ -1,10 +1,14 @@
 package com.api.spring_security_demo7.handler;
 
+import static com.api.spring_security_demo7.exception.ErrorCode.ACCOUNT_LOCKED;
 import static com.api.spring_security_demo7.exception.ErrorCode.BAD_CREDENTIALS;
+import static com.api.spring_security_demo7.exception.ErrorCode.CONCURRENT_MODIFICATION;
 import static com.api.spring_security_demo7.exception.ErrorCode.ERR_USER_DISABLED;
 import static com.api.spring_security_demo7.exception.ErrorCode.INTERNAL_EXCEPTION;
 import static com.api.spring_security_demo7.exception.ErrorCode.USERNAME_NOT_FOUND;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
@@ -12,9 +16,12 @@ import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.FieldError;
@@ -23,6 +30,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.api.spring_security_demo7.exception.BusinessException;
+import com.api.spring_security_demo7.exception.ServiceOverloadedException;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -55,6 +63,29 @@ public class ApplicationExceptionHandler {
 
         }
 
+        /**
+         * Manipula exceções lançadas quando a aplicação recusa a requisição temporariamente,
+         * informando ao cliente quando tentar novamente através do header "Retry-After".
+         * O status HTTP vem do {@code ErrorCode} da exceção: 503 para falta de capacidade (ex: PASSWORD_HASHING_OVERLOADED)
+         * e 429 para excesso de tentativas de login (TOO_MANY_LOGIN_ATTEMPTS).
+         * 
+         * @param ex A exceção capturada.
+         * @return Uma resposta HTTP com o status do {@code ErrorCode}, os detalhes do erro e o header "Retry-After".
+         */
+        @ExceptionHandler(ServiceOverloadedException.class)
+        public ResponseEntity<ErrorResponse> handleOverloaded(final ServiceOverloadedException ex) {
+                final ErrorResponse body = ErrorResponse.builder()
+                                .code(ex.getErrorCode().getCode())
+                                .message(ex.getMessage())
+                                .build();
+
+                log.warn("ServiceOverloadedException: {}", body);
+                return ResponseEntity
+                                .status(ex.getErrorCode().getStatus())
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                                .body(body);
+        }
+
         /**
          * Manipula exceções lançadas quando uma conta de usuário está desativada.
          * 
@@ -70,6 +101,23 @@ public class ApplicationExceptionHandler {
                                 .body(body);
         }
 
+        /**
+         * Manipula exceções lançadas quando uma conta de usuário está bloqueada (ex: após falhas consecutivas de login).
+         * 
+         * @param exception A exceção capturada que indica que a conta está bloqueada.
+         * @return Uma resposta HTTP indicando que a conta está bloqueada.
+         */
+        @ExceptionHandler(LockedException.class)
+        public ResponseEntity<ErrorResponse> handleException(final LockedException exception) {
+                log.debug(exception.getMessage(), exception);
+                final ErrorResponse body = ErrorResponse.builder()
+                                .code(ACCOUNT_LOCKED.getCode())
+                                .message(ACCOUNT_LOCKED.getDefaultMessage())
+                                .build();
+                return ResponseEntity.status(UNAUTHORIZED)
+                                .body(body);
+        }
+
         /**
          * O método abaixo lida com exceções lançadas quando a validação dos argumentos do método falha.
          * 
@@ -113,6 +161,23 @@ public class ApplicationExceptionHandler {
                 return new ResponseEntity<>(response, UNAUTHORIZED);
         }
 
+        /**
+         * Manipula exceções lançadas quando a entidade foi gravada por outra requisição entre a leitura e a gravação
+         * (versão otimista desatualizada), inclusive depois de esgotadas as novas tentativas do {@code OptimisticRetry}.
+         * 
+         * @param exception A exceção capturada que indica o conflito de versão.
+         * @return Uma resposta HTTP 409 indicando que o cliente deve recarregar o recurso e tentar novamente.
+         */
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleException(final OptimisticLockingFailureException exception) {
+                log.debug(exception.getMessage(), exception);
+                final ErrorResponse response = ErrorResponse.builder()
+                                .code(CONCURRENT_MODIFICATION.getCode())
+                                .message(CONCURRENT_MODIFICATION.getDefaultMessage())
+                                .build();
+                return new ResponseEntity<>(response, CONFLICT);
+        }
+
         /**
          * Manipula exceções lançadas quando uma entidade não é encontrada no banco de dados.
          * 
@@ -149,6 +214,7 @@ public class ApplicationExceptionHandler {
 
         /**
          * Manipula exceções lançadas quando uma operação é negada devido a falta de autorização.
+         * O usuário está autenticado, mas não tem permissão (ex: {@code @PreAuthorize("hasRole('ADMIN')")}): 403, não 401.
          * 
          * @param exception A exceção capturada que indica que a operação foi negada.
          * @return Uma resposta HTTP indicando que a operação foi negada.
@@ -159,7 +225,7 @@ public class ApplicationExceptionHandler {
                 final ErrorResponse response = ErrorResponse.builder()
                                 .message("You are not authorized to perform this operation")
                                 .build();
-                return new ResponseEntity<>(response, UNAUTHORIZED);
+                return new ResponseEntity<>(response, FORBIDDEN);
         }
 
 
@@ -191,9 +257,12 @@ public class ApplicationExceptionHandler {
  * Isso ajuda a padronizar o tratamento de erros e a fornecer feedback claro aos clientes da API.
  * As exceções tratadas incluem:
  * - BusinessException: Exceções de negócio personalizadas.
+ * - ServiceOverloadedException: Requisição recusada por sobrecarga ou excesso de tentativas (503/429 com header Retry-After).
  * - DisabledException: Conta de usuário desativada.
+ * - LockedException: Conta de usuário bloqueada.
  * - MethodArgumentNotValidException: Erros de validação de argumentos do método.
  * - BadCredentialsException: Credenciais inválidas.
+ * - OptimisticLockingFailureException: Gravação concorrente da mesma entidade (409 CONCURRENT_MODIFICATION).
  * - EntityNotFoundException: Entidade não encontrada no banco de dados.
  * - UsernameNotFoundException: Nome de usuário não encontrado.
  * - AuthorizationDeniedException: Operação negada por falta de autorização.
@@ -0,0 +1,234 @@
+package com.api.spring_security_demo7.role;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+public final class AuthoritySet extends AbstractSet<GrantedAuthority> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final AuthoritySet EMPTY = new AuthoritySet(0L, new GrantedAuthority[0]);
+
+    // Conjuntos canônicos por combinação de roles: usuários com as mesmas roles compartilham a mesma instância
+    private static final ConcurrentHashMap<Long, AuthoritySet> INTERNED = new ConcurrentHashMap<>();
+
+    private final long mask;                        // Bit i ligado = role de índice i no RoleRegistry
+    private final GrantedAuthority[] authorities;   // Authorities em ordem de índice (e, fora do registro, em ordem de chegada)
+    private final int hashCode;
+
+
+    private AuthoritySet(final long mask, final GrantedAuthority[] authorities) {
+        this.mask = mask;
+        this.authorities = authorities;
+        this.hashCode = Arrays.stream(authorities).mapToInt(Object::hashCode).sum();  // Mesmo contrato de Set.hashCode()
+    }
+
+
+    /**
+     * Retorna o conjunto canônico de authorities das roles informadas.
+     * Percorre a lista por índice e não aloca nada quando a combinação de roles já é conhecida.
+     *
+     * @param roles Roles do usuário.
+     * @return {@link AuthoritySet} compartilhado (ou um conjunto próprio, se alguma role não estiver no registro).
+     */
+    public static AuthoritySet ofRoles(final List<Role> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return EMPTY;
+        }
+        long mask = 0L;
+        for (int i = 0; i < roles.size(); i++) {
+            final int index = RoleRegistry.indexOf(roles.get(i).getName());
+            if (index < 0 || index >= Long.SIZE) {
+                return uninterned(roles.stream().map(Role::getName).toList());
+            }
+            mask |= 1L << index;
+        }
+        return intern(mask);
+    }
+
+
+    /**
+     * Retorna o conjunto canônico de authorities a partir dos nomes das roles (ex: claims do token ou cache).
+     *
+     * @param names Nomes das roles.
+     * @return {@link AuthoritySet} compartilhado (ou um conjunto próprio, se alguma role não estiver no registro).
+     */
+    public static AuthoritySet of(final Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return EMPTY;
+        }
+        long mask = 0L;
+        for (final String name : names) {
+            final int index = RoleRegistry.indexOf(name);
+            if (index < 0 || index >= Long.SIZE) {
+                return uninterned(names);
+            }
+            mask |= 1L << index;
+        }
+        return intern(mask);
+    }
+
+
+    /**
+     * Retorna o conjunto canônico a partir do bitmask gravado em {@code USERS.ROLE_MASK}.
+     * Bits de roles que não estão no registro são ignorados (nenhuma authority é concedida por eles) até o próximo reload.
+     *
+     * @param mask Bitmask das roles.
+     * @return {@link AuthoritySet} compartilhado.
+     */
+    public static AuthoritySet ofMask(final long mask) {
+        final AuthoritySet interned = INTERNED.get(mask);
+        if (interned != null) {
+            return interned;
+        }
+        long known = 0L;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            final int index = Long.numberOfTrailingZeros(remaining);
+            if (RoleRegistry.authorityAt(index) != null) {
+                known |= 1L << index;
+            }
+        }
+        return known == mask ? intern(mask) : fromMask(known);
+    }
+
+
+    /**
+     * Verifica se o conjunto contém a authority. Para roles do registro, é um teste de bit.
+     * @param authority Nome da authority (ex: ROLE_ADMIN).
+     * @return {@code true} se a authority pertence ao conjunto.
+     */
+    public boolean hasAuthority(final String authority) {
+        final int index = RoleRegistry.indexOf(authority);
+        if (index >= 0 && index < Long.SIZE && (this.mask & (1L << index)) != 0) {
+            return true;
+        }
+        if (this.authorities.length == Long.bitCount(this.mask)) {
+            return false;  // Todas as authorities estão no bitset
+        }
+        for (final GrantedAuthority granted : this.authorities) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Retorna o bitset das roles do conjunto, sobre os índices do {@link RoleRegistry}.
+     * @return Máscara de bits das roles.
+     */
+    public long mask() {
+        return this.mask;
+    }
+
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof GrantedAuthority granted && granted.getAuthority() != null
+                && hasAuthority(granted.getAuthority());
+    }
+
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < AuthoritySet.this.authorities.length;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return AuthoritySet.this.authorities[this.position++];
+            }
+        };
+    }
+
+
+    @Override
+    public int size() {
+        return this.authorities.length;
+    }
+
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+
+    private static AuthoritySet intern(final long mask) {
+        final AuthoritySet interned = INTERNED.get(mask);
+        return interned != null ? interned : INTERNED.computeIfAbsent(mask, AuthoritySet::fromMask);
+    }
+
+
+    private static AuthoritySet fromMask(final long mask) {
+        final GrantedAuthority[] authorities = new GrantedAuthority[Long.bitCount(mask)];
+        long remaining = mask;
+        for (int i = 0; remaining != 0; i++) {
+            final int index = Long.numberOfTrailingZeros(remaining);
+            authorities[i] = RoleRegistry.authorityAt(index);
+            remaining &= remaining - 1;
+        }
+        return new AuthoritySet(mask, authorities);
+    }
+
+
+    /**
+     * Conjunto não compartilhado, usado quando alguma role ainda não está no registro (ex: antes da carga das roles).
+     */
+    private static AuthoritySet uninterned(final Collection<String> names) {
+        long mask = 0L;
+        final Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (final String name : names) {
+            final int index = RoleRegistry.indexOf(name);
+            if (index >= 0 && index < Long.SIZE) {
+                mask |= 1L << index;
+            }
+            authorities.add(index >= 0 ? RoleRegistry.authority(name) : new SimpleGrantedAuthority(name));
+        }
+        return new AuthoritySet(mask, authorities.toArray(GrantedAuthority[]::new));
+    }
+
+
+    @Serial
+    private Object readResolve() {
+        return this.authorities.length == Long.bitCount(this.mask) ? intern(this.mask) : this;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Conjunto imutável e canônico das authorities de um principal. A maioria dos usuários possui uma entre poucas combinações
+ * de roles; cada combinação é representada por um bitset ({@code long}) sobre os índices do {@link RoleRegistry} e
+ * internada, de modo que todos os usuários com as mesmas roles compartilham a mesma instância.
+ *
+ * . {@code User.getAuthorities()} devolve o conjunto internado, sem alocar listas ou {@link GrantedAuthority} por chamada.
+ * . {@link #hasAuthority(String)} resolve o índice da role em O(1) e testa um bit, em vez de comparar strings em uma coleção.
+ * . Os índices do registro ({@code ROLE_BIT}) nunca são reutilizados, então um conjunto internado continua válido após
+ *   recargas das roles; o mesmo bitmask é gravado em {@code USERS.ROLE_MASK} ({@link #ofMask(long)}).
+ *
+ * OBS. O bitset comporta 64 roles; roles com índice maior (ou ainda não carregadas) usam um conjunto próprio, não internado,
+ * com busca linear.
+*/
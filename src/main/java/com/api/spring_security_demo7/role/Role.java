@@ -27,6 +27,10 @@ public class Role extends BaseEntity{
     @Column(name = "NAME", nullable = false)
     private String name;
 
+    // Posição da role no bitmask USERS.ROLE_MASK; atribuída pelo RoleRegistry e nunca reutilizada
+    @Column(name = "ROLE_BIT", unique = true)
+    private Integer bit;
+
     @ManyToMany(mappedBy = "roles")
     private List<User> users;
     
@@ -0,0 +1,229 @@
+package com.api.spring_security_demo7.role;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.common.OptimisticRetry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    /**
+     * Role carregada no registro: índice fixo na tabela, id, nome e a authority compartilhada por todos os usuários.
+     */
+    public record RoleEntry(int index, String id, String name, GrantedAuthority authority) {
+    }
+
+    private static volatile Table current = Table.EMPTY;  // Última tabela carregada, usada pelas entidades (User)
+
+    private final RoleRepository roleRepository;
+    private final OptimisticRetry optimisticRetry;
+
+
+    /**
+     * Construtor do registro de roles. A tabela é carregada por {@link #reload()} na criação do bean e após a criação
+     * das roles na inicialização.
+     * @param roleRepository  Repositório usado apenas na carga da tabela.
+     * @param optimisticRetry Novas tentativas quando outra instância grava os ROLE_BIT ao mesmo tempo.
+     */
+    public RoleRegistry(final RoleRepository roleRepository, final OptimisticRetry optimisticRetry) {
+        this.roleRepository = roleRepository;
+        this.optimisticRetry = optimisticRetry;
+    }
+
+
+    /**
+     * Recarrega todas as roles do banco e publica uma nova tabela imutável. Deve ser chamado sempre que as roles forem
+     * alteradas (ex: após a criação das roles na inicialização).
+     * O índice de cada role é o seu {@code ROLE_BIT}, persistido em {@code ROLES}: roles ainda sem bit recebem o próximo
+     * bit livre, de modo que os índices são estáveis entre recargas e reinicializações (e podem ser gravados em
+     * {@code USERS.ROLE_MASK}).
+     * Se outra instância atribuir os bits ao mesmo tempo (conflito de versão em ROLES), as roles são lidas novamente e
+     * os bits já gravados por ela são usados.
+     */
+    @PostConstruct
+    public synchronized void reload() {
+        final Table previous = current;
+        final List<Role> roles = this.optimisticRetry.execute(() -> {
+            final List<Role> loaded = this.roleRepository.findAll();
+            assignBits(loaded);
+            return loaded;
+        });
+
+        final int size = roles.stream().mapToInt(Role::getBit).max().orElse(-1) + 1;
+        final RoleEntry[] entries = new RoleEntry[size];  // Bits de roles removidas ficam vazios (null)
+        for (final Role role : roles) {
+            final RoleEntry known = previous.byName().get(role.getName());
+            final GrantedAuthority authority = known != null ? known.authority() : new SimpleGrantedAuthority(role.getName());
+            entries[role.getBit()] = new RoleEntry(role.getBit(), role.getId(), role.getName(), authority);
+        }
+        current = Table.of(entries);
+        log.info("Role registry loaded with {} roles", roles.size());
+    }
+
+
+    /**
+     * Atribui e grava o próximo bit livre para as roles que ainda não possuem {@code ROLE_BIT}, em ordem de criação.
+     */
+    private void assignBits(final List<Role> roles) {
+        int next = roles.stream().map(Role::getBit).filter(Objects::nonNull).mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        final List<Role> unassigned = roles.stream()
+                .filter(role -> role.getBit() == null)
+                .sorted(Comparator.comparing(Role::getCreatedDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Role::getName))
+                .toList();
+        for (final Role role : unassigned) {
+            role.setBit(next++);
+        }
+        if (!unassigned.isEmpty()) {
+            this.roleRepository.saveAll(unassigned);
+            log.info("Assigned role bits to {}", unassigned.stream().map(Role::getName).toList());
+        }
+    }
+
+
+    /**
+     * Busca uma role pelo nome, em O(1) e sem acesso ao banco.
+     * @param name Nome da role (ex: ROLE_USER).
+     * @return A role, se existir.
+     */
+    public Optional<RoleEntry> find(final String name) {
+        return Optional.ofNullable(current.byName().get(name));
+    }
+
+
+    /**
+     * Busca uma role pelo nome. Em caso de miss a tabela é recarregada uma vez, cobrindo roles criadas após a última carga.
+     *
+     * @param name Nome da role (ex: ROLE_USER).
+     * @return A role encontrada.
+     * @throws EntityNotFoundException Caso a role não exista.
+     */
+    public RoleEntry require(final String name) {
+        return find(name).orElseGet(() -> {
+            reload();
+            return find(name).orElseThrow(() -> new EntityNotFoundException("Role " + name + " does not exist"));
+        });
+    }
+
+
+    /**
+     * Busca uma role pelo id, em O(1) e sem acesso ao banco.
+     * @param id Id da role.
+     * @return A role, se existir.
+     */
+    public Optional<RoleEntry> findById(final String id) {
+        return Optional.ofNullable(current.byId().get(id));
+    }
+
+
+    /**
+     * Retorna a role do índice informado.
+     * @param index Índice da role na tabela.
+     * @return A role, ou {@code null} se o índice estiver vazio ou fora da tabela.
+     */
+    public RoleEntry get(final int index) {
+        final RoleEntry[] entries = current.entries();
+        return index >= 0 && index < entries.length ? entries[index] : null;
+    }
+
+
+    /**
+     * Retorna a authority compartilhada da role. Roles fora do registro (ainda não carregadas) recebem uma nova instância.
+     * @param name Nome da role.
+     * @return {@link GrantedAuthority} correspondente.
+     */
+    public static GrantedAuthority authority(final String name) {
+        final RoleEntry entry = current.byName().get(name);
+        return entry != null ? entry.authority() : new SimpleGrantedAuthority(name);
+    }
+
+
+    /**
+     * Retorna o índice da role na tabela atual, usado como posição da role nos bitsets ({@link AuthoritySet}).
+     * @param name Nome da role.
+     * @return Índice da role, ou {@code -1} se a role não estiver no registro.
+     */
+    public static int indexOf(final String name) {
+        final RoleEntry entry = current.byName().get(name);
+        return entry != null ? entry.index() : -1;
+    }
+
+
+    /**
+     * Calcula o bitmask ({@code USERS.ROLE_MASK}) das roles informadas, identificadas pelo id (sem inicializar proxies).
+     * @param roles Roles do usuário.
+     * @return Bitmask das roles, ou {@code null} se alguma role não estiver no registro ou não couber em 64 bits.
+     */
+    public static Long maskOf(final List<Role> roles) {
+        long mask = 0L;
+        for (int i = 0; i < roles.size(); i++) {
+            final RoleEntry entry = current.byId().get(roles.get(i).getId());
+            if (entry == null || entry.index() >= Long.SIZE) {
+                return null;
+            }
+            mask |= 1L << entry.index();
+        }
+        return mask;
+    }
+
+
+    /**
+     * Retorna a authority compartilhada da role do índice informado.
+     * @param index Índice da role na tabela.
+     * @return {@link GrantedAuthority} correspondente, ou {@code null} se o índice estiver vazio ou fora da tabela.
+     */
+    static GrantedAuthority authorityAt(final int index) {
+        final RoleEntry[] entries = current.entries();
+        return index >= 0 && index < entries.length && entries[index] != null ? entries[index].authority() : null;
+    }
+
+
+    /**
+     * Tabela imutável de roles: acesso por índice (array) e por nome/id (mapas imutáveis).
+     */
+    private record Table(RoleEntry[] entries, Map<String, RoleEntry> byName, Map<String, RoleEntry> byId) {
+
+        static final Table EMPTY = new Table(new RoleEntry[0], Map.of(), Map.of());
+
+        static Table of(final RoleEntry[] entries) {
+            final Map<String, RoleEntry> byName = new HashMap<>();
+            final Map<String, RoleEntry> byId = new HashMap<>();
+            Arrays.stream(entries).filter(Objects::nonNull).forEach(entry -> {
+                byName.put(entry.name(), entry);
+                byId.put(entry.id(), entry);
+            });
+            return new Table(entries, Map.copyOf(byName), Map.copyOf(byId));
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Registro em memória das roles. As roles são praticamente estáticas (criadas na inicialização), então são carregadas uma vez
+ * em uma tabela imutável, endereçável por índice, substituída por inteiro a cada {@link #reload()} (copy-on-write).
+ *
+ * . Buscas por nome e por id em O(1), sem consulta ao {@link RoleRepository} no registro de usuários ou na autorização.
+ * . Cada role possui uma única instância de {@link GrantedAuthority}, compartilhada por todos os usuários.
+ * . O índice de cada role é o seu {@code ROLE_BIT}, persistido e nunca reutilizado: é a posição da role nos bitsets em memória
+ *   ({@link AuthoritySet}) e na coluna {@code USERS.ROLE_MASK}.
+ *
+ * OBS. Com várias instâncias, a criação de uma role em uma instância só é vista pelas demais após um {@link #reload()}
+ * (ou no primeiro {@link #require(String)} que não a encontrar). A constraint única de {@code ROLE_BIT} impede que duas
+ * instâncias atribuam o mesmo bit a roles diferentes.
+*/
@@ -0,0 +1,211 @@
+package com.api.spring_security_demo7.security;
+
+import java.io.Serializable;
+import java.util.function.Supplier;
+
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.api.spring_security_demo7.role.AuthoritySet;
+
+public class AuthoritySetExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private final Supplier<Authentication> authentication;
+    private final AuthenticationTrustResolver trustResolver;
+    private final PermissionEvaluator permissionEvaluator;
+    private final String rolePrefix;
+    private Object filterObject;
+    private Object returnObject;
+    private Object target;
+
+
+    /**
+     * Construtor da raiz das expressões de {@code @PreAuthorize}/{@code @PostAuthorize}.
+     *
+     * @param authentication      Fornecedor do {@link Authentication} atual (resolvido apenas quando usado).
+     * @param trustResolver       Resolve se a autenticação é anônima ou "remember-me".
+     * @param permissionEvaluator Avaliador usado em {@code hasPermission(...)}.
+     * @param rolePrefix          Prefixo das roles em {@code hasRole} (padrão "ROLE_").
+     */
+    public AuthoritySetExpressionRoot(final Supplier<Authentication> authentication,
+            final AuthenticationTrustResolver trustResolver, final PermissionEvaluator permissionEvaluator,
+            final String rolePrefix) {
+        this.authentication = authentication;
+        this.trustResolver = trustResolver;
+        this.permissionEvaluator = permissionEvaluator;
+        this.rolePrefix = rolePrefix;
+    }
+
+
+    @Override
+    public Authentication getAuthentication() {
+        return this.authentication.get();
+    }
+
+
+    @Override
+    public boolean hasAuthority(final String authority) {
+        return hasAnyAuthority(authority);
+    }
+
+
+    @Override
+    public boolean hasAnyAuthority(final String... authorities) {
+        for (final String authority : authorities) {
+            if (contains(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    @Override
+    public boolean hasRole(final String role) {
+        return hasAnyRole(role);
+    }
+
+
+    @Override
+    public boolean hasAnyRole(final String... roles) {
+        for (final String role : roles) {
+            if (contains(withRolePrefix(role))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    @Override
+    public boolean permitAll() {
+        return true;
+    }
+
+
+    @Override
+    public boolean denyAll() {
+        return false;
+    }
+
+
+    @Override
+    public boolean isAnonymous() {
+        return this.trustResolver.isAnonymous(getAuthentication());
+    }
+
+
+    @Override
+    public boolean isAuthenticated() {
+        return this.trustResolver.isAuthenticated(getAuthentication());
+    }
+
+
+    @Override
+    public boolean isRememberMe() {
+        return this.trustResolver.isRememberMe(getAuthentication());
+    }
+
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return this.trustResolver.isFullyAuthenticated(getAuthentication());
+    }
+
+
+    @Override
+    public boolean hasPermission(final Object target, final Object permission) {
+        return this.permissionEvaluator.hasPermission(getAuthentication(), target, permission);
+    }
+
+
+    @Override
+    public boolean hasPermission(final Object targetId, final String targetType, final Object permission) {
+        return this.permissionEvaluator.hasPermission(getAuthentication(), (Serializable) targetId, targetType,
+                permission);
+    }
+
+
+    public Object getPrincipal() {
+        return getAuthentication().getPrincipal();
+    }
+
+
+    @Override
+    public void setFilterObject(final Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+
+    @Override
+    public Object getFilterObject() {
+        return this.filterObject;
+    }
+
+
+    @Override
+    public void setReturnObject(final Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+
+    @Override
+    public Object getReturnObject() {
+        return this.returnObject;
+    }
+
+
+    void setThis(final Object target) {
+        this.target = target;
+    }
+
+
+    @Override
+    public Object getThis() {
+        return this.target;
+    }
+
+
+    /**
+     * Verifica a authority: teste de bit quando as authorities são um {@link AuthoritySet}; caso contrário, percorre a
+     * coleção sem criar o {@code Set<String>} intermediário do {@code SecurityExpressionRoot} padrão.
+     */
+    private boolean contains(final String authority) {
+        final Authentication current = getAuthentication();
+        if (current == null) {
+            return false;
+        }
+        if (current.getAuthorities() instanceof AuthoritySet authorities) {
+            return authorities.hasAuthority(authority);
+        }
+        for (final GrantedAuthority granted : current.getAuthorities()) {
+            if (authority.equals(granted.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private String withRolePrefix(final String role) {
+        if (this.rolePrefix == null || this.rolePrefix.isEmpty() || role.startsWith(this.rolePrefix)) {
+            return role;
+        }
+        return this.rolePrefix + role;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Raiz das expressões de segurança de métodos ({@code @PreAuthorize("hasRole('ADMIN')")}, etc.), registrada pelo
+ * {@link AuthoritySetMethodSecurityExpressionHandler}. Mantém a mesma semântica do {@code SecurityExpressionRoot} do Spring
+ * Security (cujos métodos são final), mas {@code hasRole}/{@code hasAuthority} consultam o {@link AuthoritySet} com um teste
+ * de bit, sem montar um {@code Set<String>} das authorities a cada invocação.
+ *
+ * OBS. Não há hierarquia de roles configurada na aplicação; se uma {@code RoleHierarchy} for adicionada, ela deve ser
+ * aplicada aqui.
+*/
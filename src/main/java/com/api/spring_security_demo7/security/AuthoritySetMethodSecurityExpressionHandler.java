@@ -0,0 +1,62 @@
+package com.api.spring_security_demo7.security;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+public class AuthoritySetMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    /**
+     * Cria o contexto de avaliação das expressões de segurança de métodos com a raiz {@link AuthoritySetExpressionRoot}.
+     * O {@link Authentication} só é resolvido quando a expressão o utiliza.
+     */
+    @Override
+    public EvaluationContext createEvaluationContext(final Supplier<Authentication> authentication,
+            final MethodInvocation invocation) {
+        final MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                createRoot(authentication, invocation), specificMethod(invocation), invocation.getArguments(),
+                getParameterNameDiscoverer());
+        context.setBeanResolver(getBeanResolver());
+        return context;
+    }
+
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(final Authentication authentication,
+            final MethodInvocation invocation) {
+        return createRoot(() -> authentication, invocation);
+    }
+
+
+    private AuthoritySetExpressionRoot createRoot(final Supplier<Authentication> authentication,
+            final MethodInvocation invocation) {
+        final AuthoritySetExpressionRoot root = new AuthoritySetExpressionRoot(authentication, getTrustResolver(),
+                getPermissionEvaluator(), getDefaultRolePrefix());
+        root.setThis(invocation.getThis());
+        return root;
+    }
+
+
+    private static Method specificMethod(final MethodInvocation invocation) {
+        final Object target = invocation.getThis();
+        return target != null
+                ? AopUtils.getMostSpecificMethod(invocation.getMethod(), AopProxyUtils.ultimateTargetClass(target))
+                : invocation.getMethod();
+    }
+
+}
+
+/**
+ * Atenção!
+ * Handler das expressões de {@code @PreAuthorize}/{@code @PostAuthorize}/{@code @PreFilter}/{@code @PostFilter}, registrado
+ * em {@link SecurityConfig}. Difere do {@link DefaultMethodSecurityExpressionHandler} apenas na raiz das expressões
+ * ({@link AuthoritySetExpressionRoot}), que verifica as authorities por teste de bit no {@code AuthoritySet}.
+*/
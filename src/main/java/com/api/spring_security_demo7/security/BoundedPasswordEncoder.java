@@ -0,0 +1,160 @@
+package com.api.spring_security_demo7.security;
+
+import static com.api.spring_security_demo7.exception.ErrorCode.PASSWORD_HASHING_OVERLOADED;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.api.spring_security_demo7.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer waitTimer;      // Tempo na fila até uma thread de hashing ficar livre
+    private final Timer encodeTimer;    // Tempo de CPU do hashing (encode)
+    private final Timer matchesTimer;   // Tempo de CPU da verificação (matches)
+    private final Counter rejected;
+
+
+    /**
+     * Construtor que cria o pool dedicado ao hashing de senhas.
+     *
+     * @param delegate          Encoder que realiza o hashing (ex: BCrypt).
+     * @param meterRegistry     Registro de métricas.
+     * @param threads           Quantidade de threads; {@code 0} usa a quantidade de núcleos.
+     * @param queueCapacity     Tamanho máximo da fila de espera; acima dele as requisições são recusadas.
+     * @param retryAfterSeconds Valor do header "Retry-After" enviado quando a requisição é recusada.
+     */
+    public BoundedPasswordEncoder(final PasswordEncoder delegate, final MeterRegistry meterRegistry, final int threads,
+            final int queueCapacity, final long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time spent waiting in the password hashing queue")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.duration").tag("operation", "encode")
+                .description("Time spent hashing passwords")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.duration").tag("operation", "matches")
+                .description("Time spent verifying passwords")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.depth", this.executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting in the queue")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", this.executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Gera o hash da senha no pool dedicado.
+     * @throws ServiceOverloadedException Caso a fila esteja cheia.
+     */
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return submit(() -> this.encodeTimer.record(() -> this.delegate.encode(rawPassword)));
+    }
+
+
+    /**
+     * Verifica a senha no pool dedicado.
+     * @throws ServiceOverloadedException Caso a fila esteja cheia.
+     */
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return submit(() -> this.matchesTimer.record(() -> this.delegate.matches(rawPassword, encodedPassword)));
+    }
+
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+
+    /**
+     * Encerra o pool de hashing (chamado pelo Spring ao destruir o bean).
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+
+    /**
+     * Executa a tarefa no pool e aguarda o resultado. A thread da requisição não executa o hashing; se a fila estiver cheia,
+     * a requisição é recusada imediatamente em vez de ocupar mais uma thread do Tomcat esperando.
+     */
+    private <T> T submit(final Callable<T> task) {
+        final long enqueuedAt = System.nanoTime();
+        final Future<T> future;
+        try {
+            future = this.executor.submit(() -> {
+                this.waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (final RejectedExecutionException e) {
+            this.rejected.increment();
+            log.warn("Password hashing queue is full ({} waiting), rejecting request", this.executor.getQueue().size());
+            throw new ServiceOverloadedException(PASSWORD_HASHING_OVERLOADED, this.retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * {@link PasswordEncoder} que executa o hashing e a verificação de senhas (BCrypt) em um pool dedicado, dimensionado pela
+ * quantidade de núcleos, com fila limitada (admission control).
+ *
+ * . Um pico de logins não consome todas as threads do Tomcat: no máximo {@code threads + queue-capacity} requisições
+ *   aguardam o hashing; as demais recebem 503 com "Retry-After" imediatamente.
+ * . Atende o login (DaoAuthenticationProvider), o registro ({@code UserMapper.toUser}) e a troca de senha
+ *   ({@code UserServiceImpl.changedPassword}), pois todos usam o bean {@link PasswordEncoder}.
+ * . Métricas: {@code password.hashing.queue.depth}, {@code password.hashing.wait}, {@code password.hashing.duration{operation}}
+ *   e {@code password.hashing.rejected}.
+*/
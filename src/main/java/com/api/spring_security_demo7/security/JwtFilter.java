@@ -5,9 +5,10 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,12 +18,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+import com.api.spring_security_demo7.role.AuthoritySet;
+import com.api.spring_security_demo7.token.TokenRevocationList;
+import com.api.spring_security_demo7.user.User;
+import com.api.spring_security_demo7.user.UserMapper;
+
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
     private final UserDetailsService userDetailsService;
+    private final UserMapper userMapper;
+
+    @Value("${app.security.jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;  // Quando ativo, o principal é montado a partir das claims do token, sem consultar o banco
 
 
     /**
@@ -52,8 +63,6 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);  // Lê o header Authorization
-        final String jwt;
-        final String username;
 
         // Se o usuário existe no token e ainda não está autenticado no contexto
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -61,17 +70,31 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = this.jwtService.extractUsername(jwt);  // Extrai usuário do token. Se não houver usuário ou token inválido, não faz autenticação.
+        final String jwt = authHeader.substring(7);
+        final ValidatedToken token = this.verifiedTokenCache.validate(jwt);  // Valida assinatura e expiração uma única vez (ou reutiliza do cache). Se o token for inválido, não faz autenticação.
+        final String username = token.getSubject();
+
+        // Só Access Tokens autenticam requisições. O Refresh Token, de vida longa, vale apenas em /api/v1/auth/refresh.
+        if (!token.isAccessToken()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Tokens revogados (ex: logout) não autenticam. O filtro de Bloom responde em memória; só um hit consulta o banco.
+        if (this.tokenRevocationList.isRevoked(token)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         // Valida token e adiciona autenticação no SecurityContext
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            final UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            final UserDetails userDetails = resolvePrincipal(token);
 
-            // Cria um UsernamePasswordAuthenticationToken e adiciona ao SecurityContextHolder. Isso permite que o Spring Security reconheça o usuário para autorização nos endpoints. 
-            if (this.jwtService.isTokenValid(jwt, userDetails.getUsername())) {
-                final UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+            // Cria um PrincipalAuthenticationToken e adiciona ao SecurityContextHolder. Isso permite que o Spring Security reconheça o usuário para autorização nos endpoints. 
+            // As authorities são o AuthoritySet canônico do usuário (sem cópia por requisição).
+            if (username.equals(userDetails.getUsername()) && isAccountUsable(userDetails)) {
+                final PrincipalAuthenticationToken authToken = new PrincipalAuthenticationToken(
+                        userDetails, authoritiesOf(userDetails));
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -81,6 +104,69 @@ public class JwtFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
+
+
+    /**
+     * Obtém o principal da requisição.
+     * No modo stateless ({@code app.security.jwt.stateless-principal.enabled=true}) o principal é montado a partir
+     * das claims do Access Token, sem consulta ao banco. Tokens sem essas claims (emitidos antes do modo ser ativado)
+     * continuam sendo resolvidos pelo {@link UserDetailsService}.
+     *
+     * @param token Token já validado.
+     * @return {@link UserDetails} do usuário autenticado.
+     */
+    private UserDetails resolvePrincipal(final ValidatedToken token) {
+        if (this.statelessPrincipal && token.isAccessToken() && token.hasPrincipalClaims()) {
+            return principalFromClaims(token);
+        }
+        return this.userDetailsService.loadUserByUsername(token.getSubject());
+    }
+
+
+    /**
+     * Monta um {@link User} destacado (não gerenciado pelo JPA) a partir das claims do token.
+     * O objeto possui apenas o necessário para autorização e auditoria: ID, email, authorities e status da conta.
+     *
+     * @param token Token já validado contendo as claims do principal.
+     * @return {@link User} montado a partir das claims.
+     */
+    private User principalFromClaims(final ValidatedToken token) {
+        return this.userMapper.toPrincipal(
+                token.getUserId(),
+                token.getSubject(),
+                null,
+                token.getFlag(JwtService.ENABLED, true),
+                token.getFlag(JwtService.LOCKED, false),
+                null,
+                token.getFlag(JwtService.CREDENTIALS_EXPIRED, false),
+                token.getAuthorities());
+    }
+
+
+    /**
+     * Retorna o conjunto canônico de authorities do usuário.
+     * @param userDetails Usuário autenticado.
+     * @return {@link AuthoritySet} do usuário.
+     */
+    private static AuthoritySet authoritiesOf(final UserDetails userDetails) {
+        if (userDetails.getAuthorities() instanceof AuthoritySet authorities) {
+            return authorities;
+        }
+        return AuthoritySet.of(userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+
+    /**
+     * Verifica se a conta do usuário pode ser autenticada (habilitada, não bloqueada e com credenciais e conta válidas).
+     * @param userDetails Usuário a ser verificado.
+     * @return {@code true} se a conta estiver apta a autenticar.
+     */
+    private static boolean isAccountUsable(final UserDetails userDetails) {
+        return userDetails.isEnabled()
+                && userDetails.isAccountNonLocked()
+                && userDetails.isAccountNonExpired()
+                && userDetails.isCredentialsNonExpired();
+    }
 }
 
 /** ATENÇÃO!
@@ -91,8 +177,13 @@ public class JwtFilter extends OncePerRequestFilter {
  * 
  *   -> Ignora endpoints de autenticação (ex: "/api/v1/auth") para não exigir token.
  *   -> Extrai o token JWT do header "Authorization" no formato "Bearer &lt;token&gt;".
- *   -> Extrai o username do token e carrega os detalhes do usuário utilizando {@link UserDetailsService}.
- *   -> Valida se o token é válido e, se for, adiciona a autenticação no {@link SecurityContextHolder}.
+ *   -> Valida o token uma única vez com {@link JwtService#validateToken(String)} (assinatura e expiração),
+ *      reutilizando verificações anteriores através do {@link VerifiedTokenCache}.
+ *   -> Descarta tokens que não sejam Access Tokens (um Refresh Token não serve como credencial Bearer).
+ *   -> Descarta tokens revogados consultando o {@link TokenRevocationList}.
+ *   -> Carrega os detalhes do usuário do subject utilizando {@link UserDetailsService}, ou, no modo stateless,
+ *      monta o principal a partir das claims do token sem consultar o banco.
+ *   -> Se o usuário corresponder ao subject e a conta estiver ativa, adiciona a autenticação no {@link SecurityContextHolder}.
  *   -> Permite que a requisição prossiga para o próximo filtro ou controller.</li>
  * 
  * Esta implementação integra JWT com Spring Security, garantindo que apenas usuários
@@ -1,24 +1,38 @@
 package com.api.spring_security_demo7.security;
 
-import java.security.PrivateKey;
-import java.security.PublicKey;
+import java.security.KeyPair;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import io.jsonwebtoken.Claims;
+import com.api.spring_security_demo7.user.User;
+
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 
 @Service
 public class JwtService {
 
     public static final String TOKEN_TYPE = "token_type";
-
-    private final PrivateKey privateKey;
-    private final PublicKey publicKey;
+    public static final String ACCESS_TOKEN = "ACCESS_TOKEN";
+    public static final String REFRESH_TOKEN = "REFRESH_TOKEN";
+    public static final String USER_ID = "uid";
+    public static final String AUTHORITIES = "authorities";
+    public static final String ENABLED = "enabled";
+    public static final String LOCKED = "locked";
+    public static final String CREDENTIALS_EXPIRED = "credentials_expired";
+    public static final String FAMILY_ID = "fid";
+
+    private final KeyRing keyRing;
+    private final JwtParser jwtParser;  // Parser pré-construído e thread-safe, reutilizado em todas as validações
 
     @Value("${app.security.jwt.access-token-expiration}")
     private long accessTokenExpiration;
@@ -27,15 +41,33 @@ public class JwtService {
     private long refreshTokenExpiration;
 
     /**
-     * Construtor responsável por carregar as chaves RSA a partir de arquivos PEM
-     * armazenados em {@code resources/keys/local-only}.
+     * Construtor que recebe o {@link KeyRing} com as chaves de assinatura.
+     * O parser localiza a chave pública de cada token pelo header {@code kid}.
      *
-     * @throws Exception Caso os arquivos não sejam encontrados, estejam em formato inválido
-     *                   ou ocorra falha na geração das chaves.
+     * @param keyRing Conjunto de chaves de assinatura e validação.
      */
-    public JwtService() throws Exception {
-        this.privateKey = KeyUtils.loadPrivateKey("keys/local-only/private_key.pem");
-        this.publicKey = KeyUtils.loadPublicKey("keys/local-only/public_key.pem");
+    @Autowired
+    public JwtService(final KeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
+    }
+
+
+    /**
+     * Construtor usado fora do contexto Spring (ex: benchmarks), recebendo o par de chaves e os tempos de expiração diretamente.
+     *
+     * @param signingAlgorithm       Algoritmo de assinatura.
+     * @param keyPair                Par de chaves compatível com o algoritmo.
+     * @param accessTokenExpiration  Expiração do Access Token em milissegundos.
+     * @param refreshTokenExpiration Expiração do Refresh Token em milissegundos.
+     */
+    public JwtService(final SigningAlgorithm signingAlgorithm, final KeyPair keyPair,
+            final long accessTokenExpiration, final long refreshTokenExpiration) {
+        this(KeyRing.of(signingAlgorithm, keyPair));
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.refreshTokenExpiration = refreshTokenExpiration;
     }
 
 
@@ -43,13 +75,27 @@ public class JwtService {
      * Gera um token JWT de acesso (Access Token) para o usuário informado.
      * Este token possui o tipo {@code ACCESS_TOKEN} e expira conforme
      * a configuração {@code app.security.jwt.access-token-expiration}.
+     * 
+     * Além do subject, o token carrega o ID do usuário, suas authorities e os indicadores de status da conta
+     * (habilitada, bloqueada e credenciais expiradas), permitindo que o {@link JwtFilter} monte o principal
+     * sem consultar o banco quando o modo stateless estiver ativo.
      *
-     * @param username Nome de usuário que será definido como o "subject" do token.
+     * @param user Usuário autenticado cujo username será definido como o "subject" do token.
      * @return String contendo o JWT assinado.
      */
-    public String generateAccessToken(final String username) {
-        final Map<String, Object> claims = Map.of(TOKEN_TYPE, "ACCESS_TOKEN");
-        return buildToken(username, claims, this.accessTokenExpiration);
+    public String generateAccessToken(final UserDetails user) {
+        final Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE, ACCESS_TOKEN);
+        if (user instanceof User appUser && appUser.getId() != null) {
+            claims.put(USER_ID, appUser.getId());
+        }
+        claims.put(AUTHORITIES, user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        claims.put(ENABLED, user.isEnabled());
+        claims.put(LOCKED, !user.isAccountNonLocked());
+        claims.put(CREDENTIALS_EXPIRED, !user.isCredentialsNonExpired());
+        return buildToken(user.getUsername(), claims, this.accessTokenExpiration);
     }
 
 
@@ -58,17 +104,32 @@ public class JwtService {
      * Este token possui o tipo {@code REFRESH_TOKEN} e expira conforme
      * a configuração {@code app.security.jwt.refresh-token-expiration}.
      *
+     * O token pertence a uma família (claim {@code fid}) e recebe o {@code jti} informado, permitindo que
+     * a rotação registre qual token da família é o atual.
+     *
      * @param username Nome de usuário que será definido como o "subject" do token.
+     * @param familyId Identificador da família de Refresh Tokens.
+     * @param tokenId  Identificador único do token (claim {@code jti}).
      * @return String contendo o JWT assinado.
      */
-    public String generateRefreshToken(final String username) {
-        final Map<String, Object> claims = Map.of(TOKEN_TYPE, "REFRESH_TOKEN");
-        return buildToken(username, claims, this.refreshTokenExpiration);
+    public String generateRefreshToken(final String username, final String familyId, final String tokenId) {
+        final Map<String, Object> claims = Map.of(TOKEN_TYPE, REFRESH_TOKEN, FAMILY_ID, familyId);
+        return buildToken(username, claims, this.refreshTokenExpiration, tokenId);
+    }
+
+
+    /**
+     * Retorna o tempo de expiração dos Refresh Tokens.
+     * @return Expiração em milissegundos ({@code app.security.jwt.refresh-token-expiration}).
+     */
+    public long getRefreshTokenExpiration() {
+        return this.refreshTokenExpiration;
     }
 
 
     /**
      * Constrói e assina um JWT com base nas informações fornecidas.
+     * Cada token recebe um identificador único (claim {@code jti}), usado para revogá-lo antes da expiração.
      *
      * @param username    Nome de usuário que será definido como "subject" do token.
      * @param claims      Claims adicionais que serão inseridas no token.
@@ -76,114 +137,105 @@ public class JwtService {
      * @return String contendo o JWT assinado.
      */
     public String buildToken(final String username, final Map<String, Object> claims, final long expiration) {
+        return buildToken(username, claims, expiration, UUID.randomUUID().toString());
+    }
+
+
+    private String buildToken(final String username, final Map<String, Object> claims, final long expiration,
+            final String tokenId) {
+        final SigningKey signingKey = this.keyRing.signingKey();
         return Jwts.builder()
+                .header().keyId(signingKey.getKid()).and()
                 .claims(claims)
+                .id(tokenId)
                 .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(this.privateKey)
+                .signWith(signingKey.getPrivateKey(), signingKey.getAlgorithm().getJwtAlgorithm())
                 .compact();
     }
 
 
     /**
-     * Verifica se um token é válido para um usuário esperado.
-     * Um token é considerado válido se:
-     *   O "subject" do token corresponde ao usuário esperado.
-     *   O token não está expirado.
+     * Analisa e valida um JWT uma única vez (assinatura e expiração), retornando um objeto imutável
+     * com as informações do token. Todos os demais métodos de leitura devem partir deste resultado,
+     * evitando repetir a verificação RSA para o mesmo token.
      *
-     * @param token            O JWT a ser validado.
-     * @param expectedUsername Nome de usuário esperado (comparado com o "subject" do token).
-     * @return {@code true} se o token for válido, caso contrário {@code false}.
+     * @param token JWT a ser validado.
+     * @return {@link ValidatedToken} contendo subject, tipo, emissão, expiração e claims.
+     * @throws RuntimeException Caso o token seja inválido, esteja expirado ou não possa ser validado.
      */
-    public boolean isTokenValid(final String token, final String expectedUsername) {
-        final String username = extractUsername(token);
-        return username.equals(expectedUsername) && !isTokenExpired(token);
+    public ValidatedToken validateToken(final String token) {
+        try {
+            return ValidatedToken.from(this.jwtParser.parseSignedClaims(token).getPayload());
+        } catch (final JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Invalid token", e);
+        }
     }
 
 
     /**
-     * Extrai o nome de usuário (subject) de um token JWT.
+     * Valida um Refresh Token, garantindo que:
+     *   A assinatura é válida e o token não está expirado.
+     *   É do tipo {@code REFRESH_TOKEN}.
      *
-     * @param token JWT do qual será extraído o subject.
-     * @return String contendo o nome de usuário.
+     * @param refreshToken Refresh Token previamente emitido.
+     * @return {@link ValidatedToken} correspondente ao Refresh Token.
+     * @throws RuntimeException Caso o token seja inválido, expirado ou não seja do tipo esperado.
      */
-    public String extractUsername(final String token) {
-        return extractClaims(token).getSubject();
+    public ValidatedToken validateRefreshToken(final String refreshToken) {
+        final ValidatedToken validated = validateToken(refreshToken);
+        if (!validated.isRefreshToken()) {
+            throw new RuntimeException("Invalid token type");
+        }
+        return validated;
     }
 
 
     /**
-     * Verifica se um token já está expirado.
+     * Verifica se um token é válido para um usuário esperado.
+     * Um token é considerado válido se:
+     *   O "subject" do token corresponde ao usuário esperado.
+     *   O token não está expirado.
      *
-     * @param token JWT a ser verificado.
-     * @return {@code true} se o token estiver expirado, caso contrário {@code false}.
+     * @param token            O JWT a ser validado.
+     * @param expectedUsername Nome de usuário esperado (comparado com o "subject" do token).
+     * @return {@code true} se o token for válido, caso contrário {@code false}.
      */
-    private boolean isTokenExpired(final String token) {
-        return extractClaims(token).getExpiration()
-                .before(new Date());
+    public boolean isTokenValid(final String token, final String expectedUsername) {
+        final ValidatedToken validated = validateToken(token);
+        return validated.getSubject().equals(expectedUsername) && !validated.isExpired(new Date());
     }
 
 
     /**
-     * Extrai todas as claims de um token JWT, validando-o com a chave pública.
+     * Extrai o nome de usuário (subject) de um token JWT.
      *
-     * @param token JWT do qual as claims serão extraídas.
-     * @return Objeto {@link Claims} contendo as informações do token.
-     * @throws RuntimeException Caso o token seja inválido ou não possa ser validado.
+     * @param token JWT do qual será extraído o subject.
+     * @return String contendo o nome de usuário.
      */
-    private Claims extractClaims(final String token) {
-        try {
-            return Jwts.parser()
-                    .verifyWith(this.publicKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (final JwtException e) {
-            throw new RuntimeException("Invalid token", e);
-        }
+    public String extractUsername(final String token) {
+        return validateToken(token).getSubject();
     }
 
 
-    /**
-     * Gera um novo Access Token com base em um Refresh Token válido.
-     * O método valida se o token informado:
-     *   É do tipo {@code REFRESH_TOKEN}.
-     *   Ainda não está expirado.
-     * Caso seja válido, um novo Access Token é retornado.
-     *
-     * @param refreshToken Refresh Token previamente emitido.
-     * @return Novo Access Token válido para o usuário.
-     * @throws RuntimeException Caso o token não seja do tipo esperado ou esteja expirado.
-     */
-    public String refreshAccessToken(final String refreshToken) {
-        final Claims claims = extractClaims(refreshToken);
-
-        if (!"REFRESH_TOKEN".equals(claims.get(TOKEN_TYPE, String.class))) {
-            throw new RuntimeException("Invalid token type");
-        }
-        if (claims.getExpiration().before(new Date())) {
-            throw new RuntimeException("Refresh token expired");
-        }
-
-        final String username = claims.getSubject();
-        return generateAccessToken(username);
-    }
-
 }
 
 /* Atenção!
 Essa classe é um serviço central de autenticação JWT (ou seja, gerencia o ciclo de vida de tokens JWT em uma aplicação) que: 
- * Carrega as chaves pública e privada RSA da pasta resources.
+ * Assina com a chave ativa do {@link KeyRing} (RS256, ES256 ou Ed25519), identificada pelo header {@code kid}.
  * Gera tokens JWT de dois tipos:
  *      Access Token: usado para autenticar requisições no dia a dia.
  *      Refresh Token: usado para renovar o Access Token quando expira.
- *  Valida tokens (usuário correto, validade e assinatura).
+ *  Valida tokens (usuário correto, validade e assinatura) com uma única análise por token ({@link ValidatedToken}).
  *  Extrai informações (claims) como o nome de usuário do token.
- * Renova tokens com base em um Refresh Token válido.
+ * Valida Refresh Tokens para que um novo Access Token seja emitido.
+ * 
+ * As chaves pública e privada são gerenciadas pelo {@link KeyRing}, que carrega a chave inicial da pasta {@code resources}
+ * e permite rotacionar chaves sem restart, usando criptografia assimétrica para assinar e validar tokens.
  * 
- * As chaves pública e privada são carregadas a partir da pasta {@code resources},
- * permitindo que o sistema use criptografia assimétrica para assinar e validar tokens.
+ * O {@link JwtParser} é construído uma única vez no construtor e reutilizado (é imutável e thread-safe),
+ * evitando recriar o parser a cada chamada.
  * 
  * Esta implementação pode ser considerada um padrão (boilerplate) em aplicações que utilizam
  * JWT com Spring Security. Normalmente, apenas detalhes como tempos de expiração,
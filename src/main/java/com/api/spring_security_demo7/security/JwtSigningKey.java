@@ -0,0 +1,62 @@
+package com.api.spring_security_demo7.security;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "JWT_SIGNING_KEYS",
+        uniqueConstraints = @UniqueConstraint(name = "UK_JWT_SIGNING_KEYS_REPLACES_KID", columnNames = "REPLACES_KID"))
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JwtSigningKey {
+
+    @Id
+    @Column(name = "KID", length = 22)
+    private String kid;  // header "kid" dos JWTs assinados pela chave
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ALGORITHM", nullable = false, length = 16)
+    private SigningAlgorithm algorithm;
+
+    @Column(name = "PUBLIC_KEY", nullable = false, columnDefinition = "TEXT")
+    private String publicKey;  // X.509 em Base64
+
+    @Column(name = "PRIVATE_KEY", nullable = false, columnDefinition = "TEXT")
+    private String privateKey;  // PKCS#8 criptografada com a KEK ({@link SigningKeyCipher}): "v1:" + Base64
+
+    @Column(name = "ACTIVATES_AT", nullable = false)
+    private Instant activatesAt;  // a partir deste instante a chave assina os novos tokens, em todas as instâncias
+
+    @Column(name = "REPLACES_KID", length = 22)
+    private String replacesKid;  // chave substituída por esta na rotação; null na chave inicial
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+
+}
+
+/**
+ * Atenção!
+ * Chave de assinatura dos JWTs compartilhada entre as instâncias pelo {@link KeyRing} (tabela {@code JWT_SIGNING_KEYS}).
+ *
+ * . A chave ativa é a de maior {@code ACTIVATES_AT} já alcançado; uma chave com {@code ACTIVATES_AT} futuro é a próxima,
+ *   já publicada para validação. A chave anterior é aposentada quando a seguinte é ativada.
+ * . A constraint única em {@code REPLACES_KID} garante que cada chave tenha uma única sucessora: se várias instâncias
+ *   gerarem a próxima chave ao mesmo tempo, apenas a primeira gravação é aceita.
+ *
+ * OBS. A chave privada é gravada criptografada (AES-256-GCM) com a KEK da configuração, que não fica no banco: a tabela,
+ * as réplicas e os backups não bastam para assinar tokens.
+*/
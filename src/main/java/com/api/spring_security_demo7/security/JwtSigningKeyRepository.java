@@ -0,0 +1,22 @@
+package com.api.spring_security_demo7.security;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    @Transactional  // No primário, mesmo com réplicas: a próxima chave deve ser vista assim que gravada por outra instância
+    List<JwtSigningKey> findAllByOrderByActivatesAtAsc();
+
+}
+
+/** JpaRepository
+ * Repositório das chaves de assinatura dos JWTs (tabela {@code JWT_SIGNING_KEYS}).
+ *
+ * Métodos personalizados:
+ * - findAllByOrderByActivatesAtAsc: Todas as chaves, da mais antiga para a mais recente; lido pelo KeyRing a cada verificação.
+*/
@@ -5,44 +5,72 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.util.Base64;
 
 public class KeyGeneratorUtil {
 
     // Caminho onde as chaves serão armazenadas (salvas)
     private static final String KEYS_FOLDER = "src/main/resources/keys/local-only/";
-    private static final String PRIVATE_KEY_FILE = KEYS_FOLDER + "private_key.pem";
-    private static final String PUBLIC_KEY_FILE = KEYS_FOLDER + "public_key.pem";
+
+
+    /**
+     * Cria as chaves de todos os algoritmos suportados ({@link SigningAlgorithm}) que ainda não existirem.
+     * Assim, trocar {@code app.security.jwt.signature-algorithm} não exige gerar chaves manualmente.
+     * @throws Exception Lançada caso ocorra algum erro durante a geração ou a escrita dos arquivos.
+    */
+    public static void generateKeysIfNotExists() throws Exception {
+        for (final SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+            generateKeysIfNotExists(algorithm);
+        }
+    }
 
 
     /**
      * Cria as chaves somente se elas ainda não existirem. Evita sobreescrever uma chave já em uso, garantindo persistência.
-     * @throws IOException Lançada caso ocorra algum erro durante a escrita do arquivo.
+     * @param algorithm Algoritmo de assinatura para o qual as chaves serão geradas.
+     * @throws Exception Lançada caso ocorra algum erro durante a geração ou a escrita do arquivo.
     */
-    public static void generateKeysIfNotExists() throws Exception{
+    public static void generateKeysIfNotExists(final SigningAlgorithm algorithm) throws Exception {
 
         // Garante que a pasta existe
         createDirectoryIfNotExists();
 
+        final String privateKeyFile = KEYS_FOLDER + algorithm.getPrivateKeyFile();
+        final String publicKeyFile = KEYS_FOLDER + algorithm.getPublicKeyFile();
+
         // Só gera as chaves se elas ainda não existirem, ou seja, verifica se os arquivos já existem
-        if (Files.exists(Paths.get(PRIVATE_KEY_FILE)) && Files.exists(Paths.get(PUBLIC_KEY_FILE))) {  // Se ambos os arquivos (private_key.pem e public_key.pem) já existirem, ele não gera novos.
-            System.out.println("As chaves já existem em: " + KEYS_FOLDER);                            // Isso evita sobrescrever as chaves atuais, o que poderia invalidar JWTs existentes.
+        if (Files.exists(Paths.get(privateKeyFile)) && Files.exists(Paths.get(publicKeyFile))) {  // Se ambos os arquivos já existirem, ele não gera novos.
+            System.out.println("As chaves " + algorithm + " já existem em: " + KEYS_FOLDER);       // Isso evita sobrescrever as chaves atuais, o que poderia invalidar JWTs existentes.
             return;
         }
 
-        // Gera as chaves RSA 2048 bits - vai criar um par de chaves (public e private) usando o algoritmo RSA.
-        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");  // Algoritmo RSA assimétrico
-        keyGen.initialize(2048);  // Tamanho da chave 2048 bits
-        KeyPair keyPair = keyGen.generateKeyPair();  // Gera o par de chaves (pública e privada) 
+        // Gera o par de chaves (public e private) conforme o algoritmo: RSA 2048 bits, EC P-256 ou Ed25519
+        final KeyPair keyPair = algorithm.generateKeyPair();
 
         // Salvar a chaves em formato PEM
         // Usa o método saveKeyAsPem para salvar cada chave no formato .pem compatível com OpenSSL.
-        saveKeyAsPem(keyPair.getPrivate().getEncoded(), PRIVATE_KEY_FILE, "PRIVATE KEY");
-        saveKeyAsPem(keyPair.getPublic().getEncoded(), PUBLIC_KEY_FILE, "PUBLIC KEY");
+        saveKeyAsPem(keyPair.getPrivate().getEncoded(), privateKeyFile, "PRIVATE KEY");
+        saveKeyAsPem(keyPair.getPublic().getEncoded(), publicKeyFile, "PUBLIC KEY");
+
+        System.out.println("Chaves " + algorithm + " geradas com sucesso!");
+
+    }
 
-        System.out.println("Chaves geradas com sucesso!");
 
+    /**
+     * Retorna o par de chaves do algoritmo gravado em disco, gerando e salvando um novo par caso ele ainda não exista.
+     * Usado pelo {@link KeyRing} em segundo plano quando as chaves não estão disponíveis no classpath.
+     * @param algorithm Algoritmo de assinatura.
+     * @return Par de chaves persistido.
+     * @throws Exception Lançada caso ocorra algum erro durante a leitura, geração ou escrita dos arquivos.
+    */
+    public static KeyPair loadOrGenerate(final SigningAlgorithm algorithm) throws Exception {
+        generateKeysIfNotExists(algorithm);
+        final String privatePem = Files.readString(Paths.get(KEYS_FOLDER + algorithm.getPrivateKeyFile()));
+        final String publicPem = Files.readString(Paths.get(KEYS_FOLDER + algorithm.getPublicKeyFile()));
+        return new KeyPair(
+                KeyUtils.parsePublicKey(publicPem, algorithm.getKeyAlgorithm()),
+                KeyUtils.parsePrivateKey(privatePem, algorithm.getKeyAlgorithm()));
     }
 
 
@@ -83,6 +111,6 @@ public class KeyGeneratorUtil {
 
 /**
  * Atenção!
- * Essa classe é usada para gerar, salvar e gerenciar chaves RSA que serão utilizadas na assinatura e validação de JWTs ou 
+ * Essa classe é usada para gerar, salvar e gerenciar chaves (RSA, EC P-256 ou Ed25519, ver {@link SigningAlgorithm}) que serão utilizadas na assinatura e validação de JWTs ou 
  * outros mecanismos de criptografia.
 */
@@ -0,0 +1,426 @@
+package com.api.spring_security_demo7.security;
+
+import static com.api.spring_security_demo7.exception.ErrorCode.SIGNING_KEY_UNAVAILABLE;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.exception.ServiceOverloadedException;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.LocatorAdapter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class KeyRing extends LocatorAdapter<Key> {
+
+    private static final String KEYS_FOLDER = "keys/local-only/";
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;  // null fora do contexto Spring (chave fixa)
+    private final SigningKeyCipher signingKeyCipher;                // Criptografia das chaves privadas gravadas na tabela
+    private final SigningAlgorithm algorithm;
+    private final long rotationInterval;   // Intervalo entre rotações em milissegundos (0 desabilita a rotação)
+    private final long preGeneration;      // Antecedência com que a próxima chave é gerada e publicada
+    private final long minimumLead;        // Antecedência mínima da ativação: todas as instâncias devem ver a chave antes dela
+    private final long retention;          // Por quanto tempo uma chave aposentada continua validando tokens
+    private final Map<String, SigningKey> keys = new ConcurrentHashMap<>();  // kid -> chave (ativa, próxima e aposentadas)
+    private final ExecutorService keyGenerator;
+
+    private volatile CompletableFuture<SigningKey> bootstrap;
+    private volatile SigningKey activeKey;
+    private volatile String defaultKid;   // Chave usada para tokens sem "kid" (emitidos antes do key ring)
+    private volatile CompletableFuture<Void> nextKey;
+
+
+    /**
+     * Construtor usado pelo Spring. As chaves são carregadas de {@code JWT_SIGNING_KEYS} em uma thread de segundo plano,
+     * de modo que a inicialização da aplicação não espera pelo banco nem pela geração de chaves.
+     *
+     * @param jwtSigningKeyRepository Chaves compartilhadas entre as instâncias.
+     * @param signingKeyCipher        Criptografia das chaves privadas gravadas em {@code JWT_SIGNING_KEYS}.
+     * @param algorithm               Algoritmo de assinatura ({@code app.security.jwt.signature-algorithm}).
+     * @param rotationInterval        Intervalo de rotação em milissegundos ({@code app.security.jwt.key-rotation.interval}).
+     * @param preGeneration           Antecedência da geração da próxima chave ({@code app.security.jwt.key-rotation.pre-generation}).
+     * @param checkInterval           Intervalo entre as leituras das chaves ({@code app.security.jwt.key-rotation.check-interval}).
+     * @param accessTokenExpiration   Expiração do Access Token, usada no cálculo da retenção.
+     * @param refreshTokenExpiration  Expiração do Refresh Token, usada no cálculo da retenção.
+     */
+    @Autowired
+    public KeyRing(final JwtSigningKeyRepository jwtSigningKeyRepository, final SigningKeyCipher signingKeyCipher,
+            @Value("${app.security.jwt.signature-algorithm:RS256}") final SigningAlgorithm algorithm,
+            @Value("${app.security.jwt.key-rotation.interval:0}") final long rotationInterval,
+            @Value("${app.security.jwt.key-rotation.pre-generation:3600000}") final long preGeneration,
+            @Value("${app.security.jwt.key-rotation.check-interval:60000}") final long checkInterval,
+            @Value("${app.security.jwt.access-token-expiration}") final long accessTokenExpiration,
+            @Value("${app.security.jwt.refresh-token-expiration}") final long refreshTokenExpiration) {
+        this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+        this.signingKeyCipher = signingKeyCipher;
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.preGeneration = preGeneration;
+        this.minimumLead = 2 * checkInterval;
+        this.retention = Math.max(accessTokenExpiration, refreshTokenExpiration);
+        this.keyGenerator = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "jwt-key-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bootstrap = CompletableFuture.supplyAsync(this::bootstrapKeys, this.keyGenerator);
+    }
+
+
+    /**
+     * Construtor usado fora do contexto Spring (ex: benchmarks): uma única chave fixa, sem rotação e sem banco.
+     */
+    private KeyRing(final SigningAlgorithm algorithm, final KeyPair keyPair) {
+        this.jwtSigningKeyRepository = null;
+        this.signingKeyCipher = null;
+        this.algorithm = algorithm;
+        this.rotationInterval = 0L;
+        this.preGeneration = 0L;
+        this.minimumLead = 0L;
+        this.retention = 0L;
+        this.keyGenerator = null;
+        final SigningKey key = SigningKey.of(algorithm, keyPair, Instant.now());
+        this.keys.put(key.getKid(), key);
+        this.defaultKid = key.getKid();
+        this.activeKey = key;
+        this.bootstrap = CompletableFuture.completedFuture(key);
+    }
+
+
+    /**
+     * Cria um key ring com uma única chave fixa, sem rotação.
+     * @param algorithm Algoritmo de assinatura.
+     * @param keyPair   Par de chaves compatível com o algoritmo.
+     * @return Novo {@link KeyRing}.
+     */
+    public static KeyRing of(final SigningAlgorithm algorithm, final KeyPair keyPair) {
+        return new KeyRing(algorithm, keyPair);
+    }
+
+
+    /**
+     * Retorna a chave usada para assinar novos tokens. Nunca bloqueia: enquanto as chaves ainda estiverem sendo
+     * carregadas logo após a inicialização, a requisição é recusada com 503 e "Retry-After".
+     * @return Chave ativa.
+     * @throws ServiceOverloadedException Caso as chaves ainda não tenham sido carregadas.
+     */
+    public SigningKey signingKey() {
+        final SigningKey key = this.activeKey;
+        if (key == null) {
+            throw new ServiceOverloadedException(SIGNING_KEY_UNAVAILABLE, 1);
+        }
+        return key;
+    }
+
+
+    /**
+     * Localiza a chave pública para validar um JWS a partir do header {@code kid} (consulta O(1) em um mapa).
+     * Tokens sem {@code kid} são validados com a chave inicial. Nunca bloqueia: antes da carga das chaves, o token é recusado.
+     *
+     * @param header Header do JWS.
+     * @return Chave pública correspondente.
+     * @throws JwtException Caso o {@code kid} não pertença ao key ring ou as chaves ainda não tenham sido carregadas.
+     */
+    @Override
+    protected Key locate(final JwsHeader header) {
+        final String kid = header.getKeyId() != null ? header.getKeyId() : this.defaultKid;
+        final SigningKey key = kid != null ? this.keys.get(kid) : null;
+        if (key == null) {
+            throw new JwtException(this.activeKey == null
+                    ? "JWT signing keys are not loaded yet"
+                    : "Unknown signing key: " + kid);
+        }
+        return key.getPublicKey();
+    }
+
+
+    /**
+     * Relê periodicamente as chaves de {@code JWT_SIGNING_KEYS} e verifica se a rotação está próxima:
+     *   Publica para validação as chaves gravadas por outras instâncias e ativa a chave cujo {@code ACTIVATES_AT} chegou.
+     *   Gera a próxima chave em segundo plano com a antecedência configurada e a grava com o instante de ativação;
+     *   se outra instância gravar primeiro, a chave gerada aqui é descartada.
+     *   Remove as chaves aposentadas cujo período de retenção terminou.
+     * Se a carga inicial falhou (ex: banco indisponível), ela é refeita.
+     */
+    @Scheduled(fixedDelayString = "${app.security.jwt.key-rotation.check-interval:60000}",
+            initialDelayString = "${app.security.jwt.key-rotation.check-interval:60000}")
+    public void rotateIfDue() {
+        if (this.jwtSigningKeyRepository == null || !this.bootstrap.isDone()) {
+            return;
+        }
+        if (this.bootstrap.isCompletedExceptionally()) {
+            log.error("JWT signing keys are not loaded, retrying");
+            this.bootstrap = CompletableFuture.supplyAsync(this::bootstrapKeys, this.keyGenerator);
+            return;
+        }
+
+        final JwtSigningKey latest = sync();
+        final Instant now = Instant.now();
+        if (this.rotationInterval <= 0 || latest.getActivatesAt().isAfter(now)) {
+            return;  // Sem rotação, ou a próxima chave já foi gravada
+        }
+        final Instant rotationAt = latest.getActivatesAt().plusMillis(this.rotationInterval);
+        final CompletableFuture<Void> next = this.nextKey;
+        if ((next == null || next.isDone()) && !now.isBefore(rotationAt.minusMillis(this.preGeneration))) {
+            this.nextKey = CompletableFuture.supplyAsync(this::generateKey, this.keyGenerator)
+                    .thenAccept(key -> {
+                        // Calculado após a geração: a chave deve ser gravada ao menos minimumLead antes da ativação
+                        final Instant earliest = Instant.now().plusMillis(this.minimumLead);
+                        final Instant activatesAt = rotationAt.isBefore(earliest) ? earliest : rotationAt;
+                        if (store(key, activatesAt, latest.getKid())) {
+                            log.info("Next JWT signing key {} activates at {}", key.getKid(), activatesAt);
+                        }
+                    })
+                    .exceptionally(e -> {
+                        log.error("Failed to generate the next JWT signing key, retrying on the next check", e);
+                        return null;
+                    });
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        if (this.keyGenerator != null) {
+            this.keyGenerator.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Carga inicial: na primeira instância (tabela vazia), a chave inicial passa a ser a chave compartilhada.
+     * Se a chave mais recente da tabela usar outro algoritmo que não o configurado, uma chave do algoritmo configurado é
+     * gerada e gravada como sucessora, ativada após {@code minimumLead}: a troca de algoritmo não depende da rotação periódica.
+     */
+    private SigningKey bootstrapKeys() {
+        final SigningKey initial = loadBootstrapKey();
+        this.defaultKid = initial.getKid();
+        if (this.jwtSigningKeyRepository.findAllByOrderByActivatesAtAsc().isEmpty()) {
+            store(initial, Instant.now(), null);
+        }
+        JwtSigningKey latest = sync();
+        for (int attempt = 0; latest.getAlgorithm() != this.algorithm && attempt < 3; attempt++) {
+            rotateAlgorithm(latest);
+            latest = sync();  // Sucessora gravada aqui ou por outra instância
+        }
+        if (latest.getAlgorithm() != this.algorithm) {
+            throw new IllegalStateException("JWT signing key " + latest.getKid() + " uses " + latest.getAlgorithm()
+                    + " but app.security.jwt.signature-algorithm is " + this.algorithm);
+        }
+        return this.activeKey;
+    }
+
+
+    /**
+     * Grava uma chave do algoritmo configurado como sucessora da chave mais recente, que usa outro algoritmo.
+     */
+    private void rotateAlgorithm(final JwtSigningKey latest) {
+        final SigningKey key = generateKey();
+        final Instant now = Instant.now();
+        final Instant earliest = now.plusMillis(this.minimumLead);
+        final Instant activatesAt = latest.getActivatesAt().isAfter(earliest) ? latest.getActivatesAt().plusMillis(1) : earliest;
+        if (store(key, activatesAt, latest.getKid())) {
+            log.warn("JWT signature algorithm changed from {} to {}: key {} activates at {}", latest.getAlgorithm(),
+                    this.algorithm, key.getKid(), activatesAt);
+        }
+    }
+
+
+    /**
+     * Substitui as chaves em memória pelas de {@code JWT_SIGNING_KEYS}: a chave ativa é a última cujo {@code ACTIVATES_AT}
+     * já chegou; as anteriores estão aposentadas desde a ativação da seguinte.
+     *
+     * @return A chave de maior {@code ACTIVATES_AT} (a ativa ou a próxima).
+     */
+    private JwtSigningKey sync() {
+        final Instant now = Instant.now();
+        final List<JwtSigningKey> stored = this.jwtSigningKeyRepository.findAllByOrderByActivatesAtAsc();
+        final Map<String, SigningKey> loaded = new HashMap<>();
+        final List<String> expired = new ArrayList<>();
+        final List<JwtSigningKey> plaintext = new ArrayList<>();
+        SigningKey active = null;
+        for (int i = 0; i < stored.size(); i++) {
+            final JwtSigningKey entry = stored.get(i);
+            final Instant successorActivatesAt = i + 1 < stored.size() ? stored.get(i + 1).getActivatesAt() : null;
+            final Instant retiredAt = successorActivatesAt != null && !successorActivatesAt.isAfter(now) ? successorActivatesAt : null;
+            if (retiredAt != null && retiredAt.plusMillis(this.retention).isBefore(now)) {
+                expired.add(entry.getKid());
+                continue;
+            }
+            final SigningKey key = toSigningKey(entry, retiredAt);
+            loaded.put(key.getKid(), key);
+            if (!SigningKeyCipher.isEncrypted(entry.getPrivateKey())) {
+                plaintext.add(entry);
+            }
+            if (!entry.getActivatesAt().isAfter(now)) {
+                active = key;
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No active JWT signing key in JWT_SIGNING_KEYS");
+        }
+
+        this.keys.putAll(loaded);
+        this.keys.keySet().retainAll(loaded.keySet());
+        final SigningKey previous = this.activeKey;
+        this.activeKey = active;
+        if (previous != null && !previous.getKid().equals(active.getKid())) {
+            log.info("JWT signing key rotated: {} -> {}", previous.getKid(), active.getKid());
+        }
+        if (!expired.isEmpty()) {
+            try {
+                this.jwtSigningKeyRepository.deleteAllById(expired);
+            } catch (final RuntimeException e) {
+                log.debug("Expired JWT signing keys {} already removed", expired, e);  // Outra instância removeu antes
+            }
+        }
+        plaintext.forEach(entry -> encryptStoredKey(entry, loaded.get(entry.getKid())));
+        return stored.get(stored.size() - 1);
+    }
+
+
+    /**
+     * Converte a linha de {@code JWT_SIGNING_KEYS} em {@link SigningKey}, reaproveitando a chave já decodificada.
+     */
+    private SigningKey toSigningKey(final JwtSigningKey entry, final Instant retiredAt) {
+        SigningKey key = this.keys.get(entry.getKid());
+        if (key == null) {
+            try {
+                final String keyAlgorithm = entry.getAlgorithm().getKeyAlgorithm();
+                final String privateKey = SigningKeyCipher.isEncrypted(entry.getPrivateKey())
+                        ? this.signingKeyCipher.decrypt(entry.getKid(), entry.getPrivateKey())
+                        : entry.getPrivateKey();  // Gravada antes da criptografia: é criptografada na mesma leitura
+                key = SigningKey.of(entry.getAlgorithm(), new KeyPair(
+                        KeyUtils.parsePublicKey(entry.getPublicKey(), keyAlgorithm),
+                        KeyUtils.parsePrivateKey(privateKey, keyAlgorithm)), entry.getCreatedAt());
+            } catch (final Exception e) {
+                throw new IllegalStateException("Unable to load the JWT signing key " + entry.getKid(), e);
+            }
+        }
+        return retiredAt != null && key.getRetiredAt() == null ? key.retire(retiredAt) : key;
+    }
+
+
+    /**
+     * Grava a chave em {@code JWT_SIGNING_KEYS}, com o instante em que ela passa a assinar os novos tokens.
+     *
+     * @param replacesKid Chave substituída na rotação, ou {@code null} para a chave inicial.
+     * @return {@code false} se outra instância já gravou a sucessora da mesma chave.
+     */
+    private boolean store(final SigningKey key, final Instant activatesAt, final String replacesKid) {
+        final Base64.Encoder encoder = Base64.getEncoder();
+        try {
+            this.jwtSigningKeyRepository.save(JwtSigningKey.builder()
+                    .kid(key.getKid())
+                    .algorithm(key.getAlgorithm())
+                    .publicKey(encoder.encodeToString(key.getPublicKey().getEncoded()))
+                    .privateKey(this.signingKeyCipher.encrypt(key.getKid(), key.getPrivateKey().getEncoded()))
+                    .activatesAt(activatesAt)
+                    .replacesKid(replacesKid)
+                    .createdAt(key.getCreatedAt())
+                    .build());
+            return true;
+        } catch (final DataIntegrityViolationException e) {
+            log.debug("Successor of JWT signing key {} already stored by another instance", replacesKid);
+            return false;
+        }
+    }
+
+
+    /**
+     * Regrava criptografada a chave privada de uma linha gravada antes da criptografia das chaves.
+     */
+    private void encryptStoredKey(final JwtSigningKey entry, final SigningKey key) {
+        try {
+            this.jwtSigningKeyRepository.save(JwtSigningKey.builder()
+                    .kid(entry.getKid())
+                    .algorithm(entry.getAlgorithm())
+                    .publicKey(entry.getPublicKey())
+                    .privateKey(this.signingKeyCipher.encrypt(entry.getKid(), key.getPrivateKey().getEncoded()))
+                    .activatesAt(entry.getActivatesAt())
+                    .replacesKid(entry.getReplacesKid())
+                    .createdAt(entry.getCreatedAt())
+                    .build());
+            log.info("JWT signing key {} encrypted in JWT_SIGNING_KEYS", entry.getKid());
+        } catch (final RuntimeException e) {
+            log.warn("Failed to encrypt the JWT signing key {}, retrying on the next check", entry.getKid(), e);
+        }
+    }
+
+
+    /**
+     * Carrega a chave inicial do classpath ({@code resources/keys/local-only}); se ela não existir,
+     * usa (ou gera) as chaves em disco via {@link KeyGeneratorUtil}.
+     */
+    private SigningKey loadBootstrapKey() {
+        try {
+            final String privatePath = KEYS_FOLDER + this.algorithm.getPrivateKeyFile();
+            final String publicPath = KEYS_FOLDER + this.algorithm.getPublicKeyFile();
+            final KeyPair keyPair;
+            if (KeyUtils.resourceExists(privatePath) && KeyUtils.resourceExists(publicPath)) {
+                keyPair = new KeyPair(
+                        KeyUtils.loadPublicKey(publicPath, this.algorithm.getKeyAlgorithm()),
+                        KeyUtils.loadPrivateKey(privatePath, this.algorithm.getKeyAlgorithm()));
+            } else {
+                keyPair = KeyGeneratorUtil.loadOrGenerate(this.algorithm);
+            }
+            return SigningKey.of(this.algorithm, keyPair, Instant.now());
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to load the JWT signing key", e);
+        }
+    }
+
+
+    private SigningKey generateKey() {
+        try {
+            return SigningKey.of(this.algorithm, this.algorithm.generateKeyPair(), Instant.now());
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to generate a JWT signing key", e);
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Conjunto de chaves de assinatura dos JWTs (key ring), compartilhado entre as instâncias pela tabela {@code JWT_SIGNING_KEYS}.
+ *
+ * . Todo token recebe o header {@code kid}; a validação escolhe a chave pública com uma consulta O(1) pelo {@code kid}.
+ * . As chaves são carregadas em uma thread de segundo plano, sem bloquear a inicialização; a primeira instância grava a chave
+ *   inicial (PEM) na tabela. Até a carga terminar, nenhuma requisição espera: o login responde 503 com "Retry-After" e os
+ *   tokens são recusados.
+ * . Com {@code app.security.jwt.key-rotation.interval > 0}, a instância que detecta a rotação próxima gera a próxima chave e a
+ *   grava com o instante de ativação ({@code ACTIVATES_AT}); {@code REPLACES_KID} é único, de modo que apenas uma instância
+ *   grava a sucessora de cada chave. Todas as instâncias a publicam para validação na leitura seguinte e passam a assinar
+ *   com ela quando o instante chega, sem depender de restart.
+ * . Ao trocar {@code app.security.jwt.signature-algorithm}, a inicialização grava uma chave do novo algoritmo como sucessora
+ *   da mais recente, ativada após dois {@code check-interval} (mesmo com a rotação desabilitada); até lá o algoritmo
+ *   anterior continua assinando, e os tokens já emitidos continuam válidos pela retenção.
+ * . Chaves aposentadas continuam validando tokens até que todos os tokens assinados por elas expirem; depois são removidas.
+ * . As chaves privadas são gravadas criptografadas com a KEK da configuração ({@link SigningKeyCipher}); linhas gravadas
+ *   antes da criptografia são regravadas criptografadas na primeira leitura.
+ *
+ * OBS. A ativação é vista por cada instância na leitura seguinte a {@code ACTIVATES_AT} (até {@code check-interval} depois);
+ * a chave é gravada ao menos dois {@code check-interval} antes da ativação, de modo que todas já a validam quando ela assina.
+*/
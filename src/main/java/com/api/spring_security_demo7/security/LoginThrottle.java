@@ -0,0 +1,218 @@
+package com.api.spring_security_demo7.security;
+
+import static com.api.spring_security_demo7.exception.ErrorCode.TOO_MANY_LOGIN_ATTEMPTS;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.exception.ServiceOverloadedException;
+import com.api.spring_security_demo7.user.UserKeys;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final Limit accountLimit;
+    private final Limit ipLimit;
+    private final int lockoutThreshold;
+    private final Duration lockoutDuration;
+    private final Cache<String, AtomicLong> buckets;       // "account:<email>" / "ip:<endereço>" -> instante teórico da próxima tentativa
+    private final Cache<String, AtomicInteger> failures;   // email -> falhas consecutivas dentro da janela
+    private final Counter rejectedByAccount;
+    private final Counter rejectedByIp;
+
+
+    /**
+     * Construtor que configura os limites e as estruturas em memória.
+     *
+     * @param meterRegistry          Registro de métricas.
+     * @param enabled                Habilita ou desabilita o throttling ({@code app.security.login-throttle.enabled}).
+     * @param accountCapacity        Tentativas em rajada permitidas por conta.
+     * @param accountRefillInterval  Intervalo (ms) para recuperar uma tentativa por conta.
+     * @param ipCapacity             Tentativas em rajada permitidas por IP.
+     * @param ipRefillInterval       Intervalo (ms) para recuperar uma tentativa por IP.
+     * @param maxKeys                Quantidade máxima de chaves (contas + IPs) em memória.
+     * @param lockoutThreshold       Falhas consecutivas que bloqueiam a conta.
+     * @param failureWindow          Janela (ms) em que as falhas consecutivas são contadas.
+     * @param lockoutDuration        Duração (ms) do bloqueio da conta ao atingir {@code lockoutThreshold}.
+     */
+    public LoginThrottle(final MeterRegistry meterRegistry,
+            @Value("${app.security.login-throttle.enabled:true}") final boolean enabled,
+            @Value("${app.security.login-throttle.account.capacity:5}") final int accountCapacity,
+            @Value("${app.security.login-throttle.account.refill-interval:60000}") final long accountRefillInterval,
+            @Value("${app.security.login-throttle.ip.capacity:20}") final int ipCapacity,
+            @Value("${app.security.login-throttle.ip.refill-interval:3000}") final long ipRefillInterval,
+            @Value("${app.security.login-throttle.max-keys:100000}") final long maxKeys,
+            @Value("${app.security.login-throttle.lockout-threshold:10}") final int lockoutThreshold,
+            @Value("${app.security.login-throttle.failure-window:900000}") final long failureWindow,
+            @Value("${app.security.login-throttle.lockout-duration:900000}") final long lockoutDuration) {
+        this.enabled = enabled;
+        this.accountLimit = new Limit(accountCapacity, accountRefillInterval);
+        this.ipLimit = new Limit(ipCapacity, ipRefillInterval);
+        this.lockoutThreshold = lockoutThreshold;
+        this.lockoutDuration = Duration.ofMillis(lockoutDuration);
+
+        // Uma chave ociosa por mais tempo que a recarga completa do balde equivale a um balde cheio e pode ser removida
+        final long idleMillis = Math.max(this.accountLimit.burst(), this.ipLimit.burst());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(failureWindow, TimeUnit.MILLISECONDS)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.buckets, "login.throttle.buckets");
+
+        this.rejectedByAccount = Counter.builder("login.throttle.rejected").tag("key", "account")
+                .description("Login attempts rejected before password verification").register(meterRegistry);
+        this.rejectedByIp = Counter.builder("login.throttle.rejected").tag("key", "ip")
+                .description("Login attempts rejected before password verification").register(meterRegistry);
+    }
+
+
+    /**
+     * Consome uma tentativa do IP e da conta. Deve ser chamado antes da autenticação, de modo que tentativas excedentes
+     * sejam recusadas sem nenhum cálculo de hash.
+     *
+     * @param email    Email informado no login.
+     * @param clientIp Endereço IP do cliente.
+     * @throws ServiceOverloadedException (429) Caso o IP ou a conta tenham excedido o limite, com o tempo para nova tentativa.
+     */
+    public void acquire(final String email, final String clientIp) {
+        if (!this.enabled) {
+            return;
+        }
+        if (clientIp != null) {
+            final long waitMillis = tryAcquire("ip:" + clientIp, this.ipLimit);
+            if (waitMillis > 0) {
+                this.rejectedByIp.increment();
+                throw new ServiceOverloadedException(TOO_MANY_LOGIN_ATTEMPTS, toSeconds(waitMillis));
+            }
+        }
+        final long waitMillis = tryAcquire("account:" + normalize(email), this.accountLimit);
+        if (waitMillis > 0) {
+            this.rejectedByAccount.increment();
+            throw new ServiceOverloadedException(TOO_MANY_LOGIN_ATTEMPTS, toSeconds(waitMillis));
+        }
+    }
+
+
+    /**
+     * Registra uma falha de autenticação da conta. Ao atingir o limite, o contador é zerado: o bloqueio dura
+     * {@link #lockedUntil()} e, depois dele, são necessárias outras {@code lockoutThreshold} falhas para um novo bloqueio.
+     * @param email Email informado no login.
+     * @return {@code true} se a falha atingiu o limite e a conta deve ser bloqueada.
+     */
+    public boolean recordFailure(final String email) {
+        if (!this.enabled) {
+            return false;
+        }
+        final String key = normalize(email);
+        final int count = this.failures.get(key, k -> new AtomicInteger()).incrementAndGet();
+        if (count < this.lockoutThreshold) {
+            return false;
+        }
+        this.failures.invalidate(key);
+        return true;
+    }
+
+
+    /**
+     * Fim de um bloqueio iniciado agora ({@code app.security.login-throttle.lockout-duration}). O bloqueio expira sozinho,
+     * de modo que falhas provocadas por terceiros não impedem o acesso do titular indefinidamente.
+     * @return O instante em que a conta volta a aceitar logins.
+     */
+    public LocalDateTime lockedUntil() {
+        return LocalDateTime.now().plus(this.lockoutDuration);
+    }
+
+
+    /**
+     * Zera as falhas consecutivas da conta após um login bem-sucedido.
+     * @param email Email da conta.
+     */
+    public void recordSuccess(final String email) {
+        if (this.enabled) {
+            this.failures.invalidate(normalize(email));
+        }
+    }
+
+
+    /**
+     * Token bucket implementado como GCRA (Generic Cell Rate Algorithm): o estado de cada chave é um único {@code long}
+     * com o instante teórico da próxima tentativa, atualizado por CAS, sem locks.
+     *
+     * @return {@code 0} se a tentativa foi aceita, ou o tempo em milissegundos até a próxima tentativa ser aceita.
+     */
+    private long tryAcquire(final String key, final Limit limit) {
+        final AtomicLong theoreticalArrival = this.buckets.get(key, k -> new AtomicLong());
+        while (true) {
+            final long now = System.currentTimeMillis();
+            final long current = theoreticalArrival.get();
+            final long next = Math.max(current, now) + limit.refillInterval();
+            final long excess = next - now - limit.burst();
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+
+    private static long toSeconds(final long millis) {
+        return Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+    }
+
+
+    private static String normalize(final String email) {
+        return email == null ? "" : UserKeys.email(email);  // Mesma chave do login: " A@x.com" e "a@x.com" são a mesma conta
+    }
+
+
+    /**
+     * Limite de um balde: {@code capacity} tentativas em rajada, recuperando uma a cada {@code refillInterval} ms.
+     */
+    private record Limit(int capacity, long refillInterval) {
+
+        long burst() {
+            return this.capacity * this.refillInterval;
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Throttling do login por conta (email) e por IP, aplicado antes do {@code AuthenticationManager}. Tentativas excedentes
+ * (ex: credential stuffing) são recusadas com 429 e "Retry-After" sem chegar ao BCrypt.
+ *
+ * . Cada chave é um token bucket (GCRA) de um único {@code AtomicLong}, atualizado por CAS.
+ * . As chaves ficam em um cache Caffeine (hash concorrente sem locks na leitura), limitado a {@code max-keys} e com remoção das
+ *   chaves ociosas assim que o balde estaria cheio novamente.
+ * . Após {@code lockout-threshold} falhas consecutivas dentro de {@code failure-window}, a conta é bloqueada por
+ *   {@code lockout-duration} ({@code IS_ACCOUNT_LOCKED} e {@code LOCKED_UNTIL}); o bloqueio expira sozinho e também pode
+ *   ser removido por um administrador. Um login bem-sucedido zera o contador.
+ * . O IP é o da conexão, ou o do X-Forwarded-For quando a conexão vem de um proxy confiável
+ *   ({@code server.forward-headers-strategy=native} e {@code server.tomcat.remoteip.internal-proxies}).
+ * . Métricas: {@code login.throttle.rejected{key}} e {@code cache.*{cache=login.throttle.buckets}}.
+ *
+ * OBS. Os contadores ficam em memória por instância: com N instâncias, o limite efetivo é até N vezes maior.
+*/
@@ -0,0 +1,86 @@
+package com.api.spring_security_demo7.security;
+
+import java.util.Map;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public final class PasswordEncoderCalibrator {
+
+    public static final String BCRYPT = "bcrypt";
+
+    private static final String PROBE_PASSWORD = "calibration-Pr0be!";
+    private static final int PROBE_COST = 8;
+    private static final int PROBE_ROUNDS = 3;
+
+    private PasswordEncoderCalibrator() {
+    }
+
+
+    /**
+     * Cria o encoder de senhas com o custo do BCrypt calibrado para a latência alvo nesta máquina.
+     * Os hashes são gravados com o prefixo do algoritmo ({@code {bcrypt}$2a$...}); hashes antigos sem prefixo continuam
+     * sendo validados pelo BCrypt e são marcados para atualização ({@link PasswordEncoder#upgradeEncoding(String)}).
+     *
+     * @param targetLatencyMillis Latência alvo de um hash, em milissegundos.
+     * @param minCost             Custo mínimo aceito, independentemente da calibração.
+     * @param maxCost             Custo máximo aceito.
+     * @return {@link DelegatingPasswordEncoder} que grava o id do algoritmo junto com cada hash.
+     */
+    public static PasswordEncoder create(final long targetLatencyMillis, final int minCost, final int maxCost) {
+        final int cost = calibrateBCryptCost(targetLatencyMillis, minCost, maxCost);
+        final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+
+        final DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);  // Hashes gravados antes do prefixo {bcrypt}
+        return encoder;
+    }
+
+
+    /**
+     * Mede o BCrypt com um custo baixo e extrapola o maior custo cuja latência não ultrapassa o alvo.
+     * Cada incremento do custo dobra o tempo do hash: tempo(c) = tempo(8) * 2^(c - 8).
+     *
+     * @param targetLatencyMillis Latência alvo em milissegundos.
+     * @param minCost             Custo mínimo (limite inferior de segurança).
+     * @param maxCost             Custo máximo.
+     * @return Custo calibrado.
+     */
+    public static int calibrateBCryptCost(final long targetLatencyMillis, final int minCost, final int maxCost) {
+        final BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_COST);
+        final String hash = probe.encode(PROBE_PASSWORD);  // Também serve de aquecimento
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            final long start = System.nanoTime();
+            probe.matches(PROBE_PASSWORD, hash);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        final double ratio = targetLatencyMillis * 1_000_000.0 / bestNanos;
+        final int calibrated = PROBE_COST + (int) Math.floor(Math.log(ratio) / Math.log(2));
+        final int cost = Math.max(minCost, Math.min(maxCost, calibrated));
+
+        log.info("BCrypt calibrated: cost {} (~{} ms per hash, target {} ms, probe cost {} took {} µs)", cost,
+                (bestNanos << Math.max(0, cost - PROBE_COST)) / 1_000_000, targetLatencyMillis, PROBE_COST,
+                bestNanos / 1_000);
+        return cost;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Calibra o custo do hashing de senhas para o hardware onde a aplicação está rodando, em vez de usar um custo fixo.
+ * A latência alvo ({@code app.security.password-hashing.target-latency}) define a troca entre CPU do login e resistência
+ * a ataques de força bruta; {@code bcrypt.min-cost} impede que uma máquina lenta reduza a segurança abaixo do mínimo.
+ *
+ * . O custo fica gravado em cada hash BCrypt, então hashes com custos diferentes convivem sem migração em massa.
+ * . O prefixo {@code {bcrypt}} identifica o algoritmo de cada hash, permitindo adicionar outros algoritmos ao
+ *   {@link DelegatingPasswordEncoder} no futuro.
+ * . Hashes com custo menor que o calibrado (ou sem prefixo) são atualizados após o login pelo {@code PasswordUpgrader}.
+*/
@@ -0,0 +1,59 @@
+package com.api.spring_security_demo7.security;
+
+import java.io.Serial;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.api.spring_security_demo7.role.AuthoritySet;
+
+public class PrincipalAuthenticationToken extends AbstractAuthenticationToken {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final UserDetails principal;
+    private final AuthoritySet authorities;
+
+
+    /**
+     * Cria o token de uma requisição já autenticada pelo JWT.
+     * As authorities não são copiadas: o token referencia o {@link AuthoritySet} canônico do principal.
+     *
+     * @param principal   Usuário autenticado.
+     * @param authorities Conjunto canônico de authorities do usuário.
+     */
+    public PrincipalAuthenticationToken(final UserDetails principal, final AuthoritySet authorities) {
+        super(AuthorityUtils.NO_AUTHORITIES);  // Evita a cópia da coleção feita por AbstractAuthenticationToken
+        this.principal = principal;
+        this.authorities = authorities;
+        setAuthenticated(true);
+    }
+
+
+    @Override
+    public AuthoritySet getAuthorities() {
+        return this.authorities;
+    }
+
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+
+    @Override
+    public UserDetails getPrincipal() {
+        return this.principal;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Authentication registrado no SecurityContext pelo {@link JwtFilter}. Substitui o {@code UsernamePasswordAuthenticationToken},
+ * cujo construtor copia as authorities para uma nova lista a cada requisição; aqui o conjunto internado do usuário é
+ * referenciado diretamente e as verificações de autorização usam os testes de bit do {@link AuthoritySet}.
+*/
@@ -4,6 +4,7 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -27,6 +28,7 @@ public class SecurityConfig {
             "/api/v1/auth/login",
             "/api/v1/auth/register",
             "/api/v1/auth/refresh",
+            "/api/v1/auth/logout",
             "/v2/api-docs",
             "/v3/api-docs",
             "/v3/api-docs/**",
@@ -66,6 +68,19 @@ public class SecurityConfig {
                 .build();
     }
 
+
+    /**
+     * Handler das expressões de segurança de métodos ({@code @PreAuthorize}), com {@code hasRole}/{@code hasAuthority}
+     * verificados por teste de bit no {@code AuthoritySet} do principal.
+     * Declarado {@code static} para ser criado antes da infraestrutura de segurança de métodos.
+     *
+     * @return Instância de {@link MethodSecurityExpressionHandler}.
+     */
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new AuthoritySetMethodSecurityExpressionHandler();
+    }
+
 }
 
 /**
@@ -76,6 +91,7 @@ public class SecurityConfig {
  * . Rotas públicas e protegidas
  * . Política de criação de sessão
  * . Integração do filtro JWT ({@link JwtFilter})
+ * . Expressões de segurança de métodos avaliadas sobre o {@code AuthoritySet} ({@link AuthoritySetMethodSecurityExpressionHandler})
  * 
  * As anotações {@link EnableWebSecurity} e {@link EnableMethodSecurity}
  * habilitam a segurança tanto em nível de requisição quanto em métodos.
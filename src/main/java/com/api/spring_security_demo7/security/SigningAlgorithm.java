@@ -0,0 +1,63 @@
+package com.api.spring_security_demo7.security;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.Getter;
+
+@Getter
+public enum SigningAlgorithm {
+
+    RS256("RSA", Jwts.SIG.RS256, "private_key.pem", "public_key.pem"),
+    ES256("EC", Jwts.SIG.ES256, "es256_private_key.pem", "es256_public_key.pem"),
+    ED25519("Ed25519", Jwts.SIG.EdDSA, "ed25519_private_key.pem", "ed25519_public_key.pem");
+
+
+    private final String keyAlgorithm;          // Algoritmo usado pelo KeyPairGenerator e pelo KeyFactory do JDK
+    private final SignatureAlgorithm jwtAlgorithm;  // Algoritmo de assinatura do JJWT (header "alg")
+    private final String privateKeyFile;        // Nome do arquivo PEM da chave privada
+    private final String publicKeyFile;         // Nome do arquivo PEM da chave pública
+
+    SigningAlgorithm(final String keyAlgorithm, final SignatureAlgorithm jwtAlgorithm,
+            final String privateKeyFile, final String publicKeyFile) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.jwtAlgorithm = jwtAlgorithm;
+        this.privateKeyFile = privateKeyFile;
+        this.publicKeyFile = publicKeyFile;
+    }
+
+
+    /**
+     * Gera um novo par de chaves compatível com o algoritmo.
+     *   RS256: RSA 2048 bits.
+     *   ES256: curva elíptica P-256 (secp256r1).
+     *   ED25519: curva Edwards 25519.
+     *
+     * @return Novo {@link KeyPair}.
+     * @throws GeneralSecurityException Caso o algoritmo não esteja disponível na JVM.
+     */
+    public KeyPair generateKeyPair() throws GeneralSecurityException {
+        final KeyPairGenerator keyGen = KeyPairGenerator.getInstance(this.keyAlgorithm);
+        switch (this) {
+            case RS256 -> keyGen.initialize(2048);
+            case ES256 -> keyGen.initialize(new ECGenParameterSpec("secp256r1"));
+            case ED25519 -> { }  // Ed25519 possui parâmetros fixos
+        }
+        return keyGen.generateKeyPair();
+    }
+
+}
+
+/**
+ * Atenção!
+ * Algoritmos de assinatura suportados para os JWTs, configurados em {@code app.security.jwt.signature-algorithm}.
+ * A geração de chaves ({@link KeyGeneratorUtil}), a leitura dos arquivos PEM ({@link KeyUtils}) e a assinatura/validação
+ * ({@link JwtService}) seguem o algoritmo escolhido.
+ *
+ * OBS. ES256 e Ed25519 assinam uma ordem de grandeza mais rápido que RS256, o que reduz o custo do login (dois tokens por login).
+ * A verificação RSA, por outro lado, é mais barata que a de ECDSA; o benchmark JMH mede as duas operações para cada modo.
+*/
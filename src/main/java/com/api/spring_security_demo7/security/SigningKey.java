@@ -0,0 +1,69 @@
+package com.api.spring_security_demo7.security;
+
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Base64;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SigningKey {
+
+    private final String kid;
+    private final SigningAlgorithm algorithm;
+    private final PrivateKey privateKey;
+    private final PublicKey publicKey;
+    private final Instant createdAt;
+    private final Instant retiredAt;  // null enquanto a chave estiver ativa ou aguardando ativação
+
+
+    /**
+     * Cria uma chave de assinatura a partir de um par de chaves. O {@code kid} é derivado da chave pública
+     * (SHA-256 em Base64 URL), portanto a mesma chave sempre recebe o mesmo identificador.
+     *
+     * @param algorithm Algoritmo de assinatura.
+     * @param keyPair   Par de chaves compatível com o algoritmo.
+     * @param createdAt Instante de criação.
+     * @return Nova {@link SigningKey}.
+     */
+    public static SigningKey of(final SigningAlgorithm algorithm, final KeyPair keyPair, final Instant createdAt) {
+        return new SigningKey(thumbprint(keyPair.getPublic()), algorithm, keyPair.getPrivate(), keyPair.getPublic(),
+                createdAt, null);
+    }
+
+
+    /**
+     * Retorna uma cópia desta chave marcada como aposentada: ela não assina mais tokens, mas continua
+     * validando os tokens já emitidos até o fim do período de retenção.
+     *
+     * @param instant Instante da aposentadoria.
+     * @return Cópia aposentada da chave.
+     */
+    public SigningKey retire(final Instant instant) {
+        return new SigningKey(this.kid, this.algorithm, this.privateKey, this.publicKey, this.createdAt, instant);
+    }
+
+
+    private static String thumbprint(final PublicKey publicKey) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Representa uma chave do {@link KeyRing}: o par de chaves, o algoritmo e o identificador ({@code kid}) enviado no header dos JWTs.
+ * É imutável; a aposentadoria gera uma nova instância.
+*/
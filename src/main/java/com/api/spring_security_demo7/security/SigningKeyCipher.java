@@ -0,0 +1,118 @@
+package com.api.spring_security_demo7.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SigningKeyCipher {
+
+    static final String PREFIX = "v1:";  // Formato: "v1:" + Base64(IV || texto cifrado || tag)
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKey keyEncryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+
+    /**
+     * Construtor que valida a chave de criptografia das chaves privadas (KEK).
+     *
+     * @param keyEncryptionKey Chave AES-256 em Base64 ({@code app.security.jwt.key-encryption-key}).
+     * @throws IllegalStateException Caso a chave não esteja configurada ou não tenha 32 bytes.
+     */
+    public SigningKeyCipher(@Value("${app.security.jwt.key-encryption-key:}") final String keyEncryptionKey) {
+        final byte[] key;
+        try {
+            key = Base64.getDecoder().decode(keyEncryptionKey.trim());
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalStateException("app.security.jwt.key-encryption-key is not valid Base64", e);
+        }
+        if (key.length != 32) {
+            throw new IllegalStateException("app.security.jwt.key-encryption-key must be a Base64 encoded 256-bit AES key");
+        }
+        this.keyEncryptionKey = new SecretKeySpec(key, "AES");
+    }
+
+
+    /**
+     * Criptografa a chave privada (PKCS#8) para gravação em {@code JWT_SIGNING_KEYS.PRIVATE_KEY}.
+     * O {@code kid} é autenticado junto (AAD): o valor cifrado não pode ser copiado para a linha de outra chave.
+     *
+     * @param kid        Identificador da chave.
+     * @param privateKey Chave privada codificada (PKCS#8).
+     * @return Valor da coluna.
+     */
+    public String encrypt(final String kid, final byte[] privateKey) {
+        try {
+            final byte[] iv = new byte[IV_LENGTH];
+            this.random.nextBytes(iv);
+            final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, this.keyEncryptionKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            final byte[] encrypted = cipher.doFinal(privateKey);
+            return PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt the JWT signing key " + kid, e);
+        }
+    }
+
+
+    /**
+     * Descriptografa o valor de {@code JWT_SIGNING_KEYS.PRIVATE_KEY}.
+     *
+     * @param kid    Identificador da chave.
+     * @param stored Valor da coluna.
+     * @return Chave privada codificada (PKCS#8) em Base64, como aceita por {@link KeyUtils#parsePrivateKey}.
+     * @throws IllegalStateException Caso o valor não esteja criptografado ou a KEK não seja a usada na gravação.
+     */
+    public String decrypt(final String kid, final String stored) {
+        if (!isEncrypted(stored)) {
+            throw new IllegalStateException("JWT signing key " + kid + " is not encrypted");
+        }
+        try {
+            final byte[] data = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, this.keyEncryptionKey, new GCMParameterSpec(TAG_LENGTH_BITS, data, 0, IV_LENGTH));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH));
+        } catch (final GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Unable to decrypt the JWT signing key " + kid
+                    + " (was it stored with another app.security.jwt.key-encryption-key?)", e);
+        }
+    }
+
+
+    /**
+     * @param stored Valor de {@code JWT_SIGNING_KEYS.PRIVATE_KEY}.
+     * @return {@code true} se o valor foi gravado criptografado (linhas antigas guardam a chave em Base64 puro).
+     */
+    public static boolean isEncrypted(final String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+}
+
+/**
+ * Atenção!
+ * Criptografia das chaves privadas de assinatura gravadas em {@code JWT_SIGNING_KEYS} (AES-256-GCM).
+ *
+ * . A KEK (key encryption key) vem da configuração ({@code app.security.jwt.key-encryption-key}, normalmente a variável de
+ *   ambiente {@code JWT_KEY_ENCRYPTION_KEY} injetada pelo cofre de segredos/KMS) e nunca é gravada no banco: quem lê o
+ *   primário, uma réplica ou um backup obtém apenas as chaves públicas e as chaves privadas cifradas.
+ * . Cada valor tem o seu IV aleatório, e o {@code kid} entra como dado autenticado (AAD).
+ * . Todas as instâncias devem usar a mesma KEK; sem ela, a aplicação não inicia.
+*/
@@ -0,0 +1,128 @@
+package com.api.spring_security_demo7.security;
+
+import java.util.Date;
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public final class ValidatedToken {
+
+    private final String tokenId;  // claim "jti"; null em tokens emitidos antes dela existir
+    private final String subject;
+    private final String tokenType;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Claims claims;
+
+
+    /**
+     * Cria um {@link ValidatedToken} a partir das claims já verificadas pelo parser.
+     *
+     * @param claims Claims extraídas de um JWT cuja assinatura e expiração já foram validadas.
+     * @return Objeto imutável com as informações do token.
+     */
+    static ValidatedToken from(final Claims claims) {
+        return new ValidatedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(JwtService.TOKEN_TYPE, String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration(),
+                claims);
+    }
+
+
+    /**
+     * Verifica se o token é do tipo {@code ACCESS_TOKEN}.
+     * @return {@code true} se for um Access Token, caso contrário {@code false}.
+     */
+    public boolean isAccessToken() {
+        return JwtService.ACCESS_TOKEN.equals(this.tokenType);
+    }
+
+
+    /**
+     * Verifica se o token é do tipo {@code REFRESH_TOKEN}.
+     * @return {@code true} se for um Refresh Token, caso contrário {@code false}.
+     */
+    public boolean isRefreshToken() {
+        return JwtService.REFRESH_TOKEN.equals(this.tokenType);
+    }
+
+
+    /**
+     * Verifica se o token carrega as claims necessárias para montar o principal sem consultar o banco.
+     * Tokens emitidos antes dessas claims existirem não as possuem.
+     * @return {@code true} se o ID do usuário e as authorities estiverem presentes no token.
+     */
+    public boolean hasPrincipalClaims() {
+        return this.claims.containsKey(JwtService.USER_ID) && this.claims.containsKey(JwtService.AUTHORITIES);
+    }
+
+
+    /**
+     * Retorna o ID do usuário embutido no token.
+     * @return ID do usuário ou {@code null} se a claim não existir.
+     */
+    public String getUserId() {
+        return this.claims.get(JwtService.USER_ID, String.class);
+    }
+
+
+    /**
+     * Retorna os nomes das authorities (roles) embutidas no token.
+     * @return Lista de authorities ou lista vazia se a claim não existir.
+     */
+    public List<String> getAuthorities() {
+        final Object authorities = this.claims.get(JwtService.AUTHORITIES);
+        if (!(authorities instanceof List<?> values)) {
+            return List.of();
+        }
+        return values.stream().map(String::valueOf).toList();
+    }
+
+
+    /**
+     * Retorna o identificador da família do Refresh Token.
+     * @return ID da família ou {@code null} em tokens emitidos antes da rotação de Refresh Tokens.
+     */
+    public String getFamilyId() {
+        return this.claims.get(JwtService.FAMILY_ID, String.class);
+    }
+
+
+    /**
+     * Lê uma claim booleana do token.
+     * @param name         Nome da claim.
+     * @param defaultValue Valor retornado caso a claim não exista.
+     * @return Valor da claim ou o valor padrão.
+     */
+    public boolean getFlag(final String name, final boolean defaultValue) {
+        final Boolean value = this.claims.get(name, Boolean.class);
+        return value != null ? value : defaultValue;
+    }
+
+
+    /**
+     * Verifica se o token já expirou em relação ao instante informado.
+     * @param now Instante de referência.
+     * @return {@code true} se o token estiver expirado, caso contrário {@code false}.
+     */
+    public boolean isExpired(final Date now) {
+        return this.expiration != null && this.expiration.before(now);
+    }
+
+}
+
+/**
+ * Atenção!
+ * Representa um JWT que já passou pela verificação de assinatura e expiração em {@link JwtService#validateToken(String)}.
+ * O token é analisado (parse) uma única vez e as informações mais usadas (jti, subject, tipo, emissão e expiração) ficam disponíveis
+ * sem a necessidade de uma nova verificação RSA. As claims retornadas pelo JJWT são imutáveis, então o objeto pode ser
+ * compartilhado entre threads com segurança.
+*/
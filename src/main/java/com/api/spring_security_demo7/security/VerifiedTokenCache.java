@@ -0,0 +1,141 @@
+package com.api.spring_security_demo7.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final boolean enabled;
+    private final Cache<String, ValidatedToken> cache;
+
+
+    /**
+     * Construtor que configura o cache de tokens já verificados.
+     *
+     * @param jwtService    Serviço responsável pela verificação criptográfica dos tokens.
+     * @param meterRegistry Registro de métricas onde os contadores de hit/miss/eviction são publicados.
+     * @param enabled       Habilita ou desabilita o cache ({@code app.security.jwt.token-cache.enabled}).
+     * @param maxSize       Quantidade máxima de tokens mantidos em memória ({@code app.security.jwt.token-cache.max-size}).
+     */
+    public VerifiedTokenCache(final JwtService jwtService, final MeterRegistry meterRegistry,
+            @Value("${app.security.jwt.token-cache.enabled:true}") final boolean enabled,
+            @Value("${app.security.jwt.token-cache.max-size:100000}") final long maxSize) {
+        this.jwtService = jwtService;
+        this.enabled = enabled;
+
+        if (!enabled) {
+            this.cache = null;
+            log.info("Verified token cache disabled");
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "jwt.verified-tokens");
+    }
+
+
+    /**
+     * Retorna o token validado, reutilizando o resultado de uma verificação anterior quando disponível.
+     * Em caso de cache miss, a verificação é feita por {@link JwtService#validateToken(String)} e o resultado
+     * é armazenado até o instante exato da expiração do token.
+     *
+     * @param token JWT recebido no header "Authorization".
+     * @return {@link ValidatedToken} correspondente ao token.
+     * @throws RuntimeException Caso o token seja inválido ou esteja expirado.
+     */
+    public ValidatedToken validate(final String token) {
+        if (!this.enabled) {
+            return this.jwtService.validateToken(token);
+        }
+        return this.cache.get(digest(token), key -> this.jwtService.validateToken(token));
+    }
+
+
+    /**
+     * Remove um token do cache, forçando uma nova verificação na próxima requisição.
+     * @param token JWT a ser removido.
+     */
+    public void evict(final String token) {
+        if (this.enabled) {
+            this.cache.invalidate(digest(token));
+        }
+    }
+
+
+    /**
+     * Calcula o digest SHA-256 do token, usado como chave do cache para não manter o JWT em memória como chave.
+     * @param token JWT a ser resumido.
+     * @return Digest em Base64.
+     */
+    private static String digest(final String token) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+
+    /**
+     * Política de expiração que remove cada entrada exatamente no {@code exp} do token correspondente.
+     */
+    private static final class ExpireAtTokenExpiration implements Expiry<String, ValidatedToken> {
+
+        @Override
+        public long expireAfterCreate(final String key, final ValidatedToken token, final long currentTime) {
+            if (token.getExpiration() == null) {
+                return 0L;
+            }
+            final long remainingMillis = token.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final ValidatedToken token, final long currentTime,
+                final long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final ValidatedToken token, final long currentTime,
+                final long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Cache em memória de tokens cuja assinatura RSA já foi verificada. Clientes reenviam o mesmo Access Token centenas de vezes
+ * durante sua validade; com o cache, apenas a primeira requisição paga o custo criptográfico.
+ *
+ * . A chave é o digest SHA-256 do token.
+ * . O tamanho é limitado ({@code max-size}) com evicção automática do Caffeine.
+ * . Cada entrada expira exatamente no {@code exp} do token.
+ * . Os contadores de hit, miss e eviction são publicados em {@code cache.*{cache=jwt.verified-tokens}} no Actuator.
+ *
+ * OBS. O cache pode ser desligado com {@code app.security.jwt.token-cache.enabled=false} para comparar a latência do filtro.
+*/
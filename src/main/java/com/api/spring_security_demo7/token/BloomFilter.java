@@ -0,0 +1,141 @@
+package com.api.spring_security_demo7.token;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+@Getter
+public final class BloomFilter {
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;   // Taxa de falsos positivos desejada para a quantidade esperada de inserções
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+    private final LongAdder bitCount = new LongAdder();     // Quantidade de bits ligados, usada para estimar a taxa real
+    private final LongAdder insertions = new LongAdder();
+
+
+    /**
+     * Cria um filtro de Bloom dimensionado para a quantidade de inserções e a taxa de falsos positivos informadas.
+     *   m = -n * ln(p) / (ln 2)^2 bits
+     *   k = m / n * ln 2 funções de hash
+     *
+     * @param expectedInsertions Quantidade esperada de elementos.
+     * @param falsePositiveRate  Taxa de falsos positivos desejada (0 &lt; p &lt; 1).
+     */
+    public BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        final double ln2 = Math.log(2);
+        final long words = Math.max(1L,
+                (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2) / Long.SIZE));
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large");
+        }
+        this.bits = new AtomicLongArray((int) words);
+        this.bitSize = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) this.bitSize / expectedInsertions * ln2));
+    }
+
+
+    /**
+     * Adiciona um elemento ao filtro. Seguro para chamadas concorrentes (CAS por palavra de 64 bits).
+     * @param value Elemento a ser adicionado.
+     */
+    public void put(final String value) {
+        final long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        final long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < this.hashCount; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, this.bitSize));
+        }
+        this.insertions.increment();
+    }
+
+
+    /**
+     * Verifica se o elemento pode estar no filtro.
+     * @param value Elemento a ser verificado.
+     * @return {@code false} se o elemento certamente não foi adicionado; {@code true} se ele provavelmente foi.
+     */
+    public boolean mightContain(final String value) {
+        final long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        final long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < this.hashCount; i++) {
+            final long index = Math.floorMod(hash1 + i * hash2, this.bitSize);
+            if ((this.bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Quantidade de elementos adicionados desde a criação do filtro.
+     * @return Número de inserções.
+     */
+    public long approximateElementCount() {
+        return this.insertions.sum();
+    }
+
+
+    /**
+     * Estima a taxa de falsos positivos atual a partir da fração de bits ligados: (bits ligados / m)^k.
+     * Cresce acima da taxa configurada quando o filtro recebe mais elementos do que o esperado.
+     * @return Taxa de falsos positivos estimada.
+     */
+    public double estimatedFalsePositiveRate() {
+        return Math.pow((double) this.bitCount.sum() / this.bitSize, this.hashCount);
+    }
+
+
+    private void setBit(final long index) {
+        final int word = (int) (index >>> 6);
+        final long mask = 1L << index;
+        long current;
+        do {
+            current = this.bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!this.bits.compareAndSet(word, current, current | mask));
+        this.bitCount.increment();
+    }
+
+
+    /**
+     * Hash de 64 bits com a finalização do MurmurHash3 (fmix64), suficiente para distribuir identificadores aleatórios (UUID).
+     */
+    private static long hash(final String value, final long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
+
+/**
+ * Atenção!
+ * Filtro de Bloom em memória, sem dependências externas, usado pelo {@link TokenRevocationList}.
+ *
+ * . Uma consulta custa k leituras de memória e nenhum acesso ao banco.
+ * . Resposta {@code false} é definitiva (o token não foi revogado); {@code true} pode ser um falso positivo
+ *   e precisa ser confirmada no armazenamento exato.
+ * . Elementos não podem ser removidos; a limpeza é feita reconstruindo o filtro a partir das revogações ainda válidas.
+ * . Os k índices são derivados de dois hashes (double hashing: h1 + i * h2).
+*/
@@ -0,0 +1,59 @@
+package com.api.spring_security_demo7.token;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "REFRESH_TOKEN_FAMILIES", indexes = {
+        @Index(name = "IDX_REFRESH_TOKEN_FAMILIES_EXPIRES_AT", columnList = "EXPIRES_AT"),
+        @Index(name = "IDX_REFRESH_TOKEN_FAMILIES_SUBJECT", columnList = "SUBJECT")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RefreshTokenFamily {
+
+    @Id
+    @Column(name = "FAMILY_ID", length = 36)
+    private String familyId;  // claim "fid", compartilhada por todos os Refresh Tokens de uma mesma sessão
+
+    @Column(name = "SUBJECT", nullable = false)
+    private String subject;
+
+    @Column(name = "CURRENT_TOKEN_ID", nullable = false, length = 36)
+    private String currentTokenId;  // "jti" do único Refresh Token da família que ainda pode ser usado
+
+    @Column(name = "EXPIRES_AT", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "IS_REVOKED", nullable = false)
+    private boolean revoked;
+
+    @Column(name = "CREATED_AT", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "UPDATED_AT", nullable = false)
+    private Instant updatedAt;
+
+}
+
+/**
+ * Atenção!
+ * Entidade que representa uma família de Refresh Tokens: a cadeia de tokens gerada a partir de um login, em que cada refresh
+ * substitui o token anterior. Apenas o token {@code CURRENT_TOKEN_ID} é aceito; a reutilização de qualquer token anterior
+ * revoga a família inteira ({@code IS_REVOKED}).
+ *
+ * A tabela é a fonte única do estado das famílias, lida e alterada pelo {@link RefreshTokenFamilyStore} em cada rotação.
+*/
@@ -0,0 +1,50 @@
+package com.api.spring_security_demo7.token;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    @Override
+    @Transactional  // No primário, mesmo com réplicas: a família pode ter sido alterada há milissegundos por outra instância
+    Optional<RefreshTokenFamily> findById(String familyId);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE RefreshTokenFamily f
+            SET f.currentTokenId = :newTokenId, f.expiresAt = :newExpiresAt, f.updatedAt = :now
+            WHERE f.familyId = :familyId AND f.currentTokenId = :presentedTokenId AND f.revoked = false AND f.expiresAt > :now
+            """)
+    int rotate(@Param("familyId") String familyId, @Param("presentedTokenId") String presentedTokenId,
+            @Param("newTokenId") String newTokenId, @Param("newExpiresAt") Instant newExpiresAt, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true, f.updatedAt = :now WHERE f.familyId = :familyId AND f.revoked = false")
+    int revoke(@Param("familyId") String familyId, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+
+}
+
+/** JpaRepository
+ * Repositório das famílias de Refresh Tokens (tabela {@code REFRESH_TOKEN_FAMILIES}).
+ *
+ * Métodos personalizados:
+ * - findById: Redeclarado fora da transação somente leitura, para ler sempre do primário.
+ * - rotate: Troca o token atual da família em um único UPDATE condicional (compare-and-set); 1 = rotacionado.
+ * - revoke: Revoga a família.
+ * - deleteExpired: Remove em uma única instrução as famílias cujo último Refresh Token já expirou.
+*/
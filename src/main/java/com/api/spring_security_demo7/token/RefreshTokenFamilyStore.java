@@ -0,0 +1,156 @@
+package com.api.spring_security_demo7.token;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class RefreshTokenFamilyStore {
+
+    /**
+     * Resultado da tentativa de rotação de um Refresh Token.
+     */
+    public enum Rotation {
+        ROTATED,    // Token atual da família: substituído pelo novo token
+        REUSED,     // Token antigo reapresentado: a família inteira foi revogada
+        REVOKED,    // Família revogada (logout ou reutilização anterior) ou expirada
+        UNKNOWN     // Família inexistente
+    }
+
+    private final RefreshTokenFamilyRepository refreshTokenFamilyRepository;
+    private final Counter rotated;
+    private final Counter reused;
+    private final Counter rejected;
+
+
+    /**
+     * Construtor que registra as métricas.
+     *
+     * @param refreshTokenFamilyRepository Armazenamento das famílias.
+     * @param meterRegistry                Registro de métricas.
+     */
+    public RefreshTokenFamilyStore(final RefreshTokenFamilyRepository refreshTokenFamilyRepository,
+            final MeterRegistry meterRegistry) {
+        this.refreshTokenFamilyRepository = refreshTokenFamilyRepository;
+        this.rotated = Counter.builder("jwt.refresh.rotations").tag("result", "rotated").register(meterRegistry);
+        this.reused = Counter.builder("jwt.refresh.rotations").tag("result", "reused")
+                .description("Refresh tokens reused after rotation; the whole family was revoked").register(meterRegistry);
+        this.rejected = Counter.builder("jwt.refresh.rotations").tag("result", "rejected").register(meterRegistry);
+    }
+
+
+    /**
+     * Registra uma nova família, criada no login. A família é gravada antes de o token ser entregue, de modo que o primeiro
+     * refresh pode ser atendido por qualquer instância.
+     *
+     * @param familyId  Identificador da família (claim {@code fid}).
+     * @param subject   Username dono da família.
+     * @param tokenId   {@code jti} do primeiro Refresh Token.
+     * @param expiresAt Expiração do primeiro Refresh Token.
+     */
+    public void create(final String familyId, final String subject, final String tokenId, final Instant expiresAt) {
+        final Instant now = Instant.now();
+        this.refreshTokenFamilyRepository.save(RefreshTokenFamily.builder()
+                .familyId(familyId)
+                .subject(subject)
+                .currentTokenId(tokenId)
+                .expiresAt(expiresAt)
+                .revoked(false)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+
+    /**
+     * Troca atomicamente o Refresh Token atual da família pelo novo token, com um UPDATE condicional no banco
+     * ({@code WHERE CURRENT_TOKEN_ID = ?}): entre várias instâncias, apenas uma rotação do mesmo token é aceita.
+     * Se o token apresentado não for o atual, ele já foi rotacionado antes (vazamento ou replay) e a família inteira é revogada.
+     *
+     * @param familyId         Identificador da família.
+     * @param presentedTokenId {@code jti} do Refresh Token recebido.
+     * @param newTokenId       {@code jti} do novo Refresh Token.
+     * @param newExpiresAt     Expiração do novo Refresh Token.
+     * @return Resultado da rotação.
+     */
+    public Rotation rotate(final String familyId, final String presentedTokenId, final String newTokenId,
+            final Instant newExpiresAt) {
+        final Instant now = Instant.now();
+        if (this.refreshTokenFamilyRepository.rotate(familyId, presentedTokenId, newTokenId, newExpiresAt, now) == 1) {
+            this.rotated.increment();
+            return Rotation.ROTATED;
+        }
+
+        // Nenhuma linha alterada: a leitura (no primário) indica o motivo
+        final Optional<RefreshTokenFamily> family = this.refreshTokenFamilyRepository.findById(familyId);
+        if (family.isEmpty()) {
+            this.rejected.increment();
+            return Rotation.UNKNOWN;
+        }
+        if (family.get().isRevoked() || !family.get().getExpiresAt().isAfter(now)) {
+            this.rejected.increment();
+            return Rotation.REVOKED;
+        }
+        this.refreshTokenFamilyRepository.revoke(familyId, now);
+        this.reused.increment();
+        log.warn("Refresh token reuse detected, family {} revoked", familyId);
+        return Rotation.REUSED;
+    }
+
+
+    /**
+     * Verifica se o token é o Refresh Token atual de uma família ativa (não revogada e não expirada).
+     *
+     * @param familyId Identificador da família.
+     * @param tokenId  {@code jti} do Refresh Token.
+     * @return {@code true} se o token ainda pode ser usado em um refresh.
+     */
+    public boolean isCurrent(final String familyId, final String tokenId) {
+        final Instant now = Instant.now();
+        return this.refreshTokenFamilyRepository.findById(familyId)
+                .filter(family -> !family.isRevoked() && family.getExpiresAt().isAfter(now))
+                .filter(family -> family.getCurrentTokenId().equals(tokenId))
+                .isPresent();
+    }
+
+
+    /**
+     * Revoga a família inteira (ex: logout). Nenhum Refresh Token da família poderá mais ser usado.
+     * @param familyId Identificador da família.
+     */
+    public void revoke(final String familyId) {
+        this.refreshTokenFamilyRepository.revoke(familyId, Instant.now());
+    }
+
+
+    /**
+     * Remove do banco as famílias cujo último Refresh Token já expirou.
+     */
+    @Scheduled(fixedDelayString = "${app.security.jwt.refresh-families.prune-interval:600000}",
+            initialDelayString = "${app.security.jwt.refresh-families.prune-interval:600000}")
+    public void prune() {
+        final int removed = this.refreshTokenFamilyRepository.deleteExpired(Instant.now());
+        log.debug("Pruned {} expired refresh token families", removed);
+    }
+
+}
+
+/**
+ * Atenção!
+ * Armazenamento das famílias de Refresh Tokens usado pela rotação em {@code /api/v1/auth/refresh}.
+ *
+ * . Cada refresh emite um novo Refresh Token e invalida o anterior; reapresentar um token já rotacionado revoga a família inteira,
+ *   limitando o uso de um Refresh Token vazado.
+ * . O estado da família é sempre o de {@code REFRESH_TOKEN_FAMILIES}, no primário: a rotação é um único UPDATE condicional
+ *   (compare-and-set do {@code CURRENT_TOKEN_ID}), de modo que todas as instâncias veem a mesma família e uma rotação feita
+ *   por outra instância nunca é confundida com reutilização. A leitura só acontece quando o UPDATE não altera nenhuma linha.
+ * . Métricas: {@code jwt.refresh.rotations{result}}.
+*/
@@ -0,0 +1,45 @@
+package com.api.spring_security_demo7.token;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "REVOKED_TOKENS", indexes = @Index(name = "IDX_REVOKED_TOKENS_EXPIRES_AT", columnList = "EXPIRES_AT"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @Column(name = "TOKEN_ID", length = 36)
+    private String tokenId;  // claim "jti" do token revogado
+
+    @Column(name = "SUBJECT", nullable = false)
+    private String subject;
+
+    @Column(name = "EXPIRES_AT", nullable = false)
+    private Instant expiresAt;  // após este instante o token já seria rejeitado pela expiração e a linha pode ser removida
+
+    @Column(name = "REVOKED_AT", nullable = false)
+    private Instant revokedAt;
+
+}
+
+/**
+ * Atenção!
+ * Entidade que representa um JWT revogado antes da sua expiração (ex: logout). A chave primária é o {@code jti} do token,
+ * de modo que a consulta exata feita pelo {@link TokenRevocationList} é uma busca pela chave primária.
+ * O índice em {@code EXPIRES_AT} atende à remoção periódica das revogações expiradas.
+*/
@@ -0,0 +1,38 @@
+package com.api.spring_security_demo7.token;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Transactional  // No primário, mesmo com réplicas: o novo filtro substitui o atual e não pode perder revogações recentes
+    @Query("SELECT r.tokenId FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<String> findActiveTokenIds(@Param("now") Instant now);
+
+    @Override
+    @Transactional  // No primário: um token revogado há milissegundos não pode ser aceito por atraso da réplica
+    boolean existsById(String tokenId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+
+}
+
+/** JpaRepository
+ * Repositório das revogações de tokens (tabela {@code REVOKED_TOKENS}).
+ *
+ * Métodos personalizados:
+ * - findActiveTokenIds: Retorna apenas os {@code jti} das revogações ainda não expiradas, usados para reconstruir o filtro de Bloom.
+ *   Lido no primário, como o existsById (consultado apenas quando o filtro de Bloom indica uma possível revogação).
+ * - deleteExpired: Remove em uma única instrução as revogações cujos tokens já expiraram.
+*/
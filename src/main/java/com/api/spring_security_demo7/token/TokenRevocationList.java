@@ -0,0 +1,183 @@
+package com.api.spring_security_demo7.token;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.security.ValidatedToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Counter bloomNegatives;       // Tokens liberados apenas pelo filtro, sem acesso ao banco
+    private final Counter falsePositives;       // Hits do filtro que não estavam no armazenamento exato
+    private final Counter revokedHits;          // Tokens revogados barrados
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;    // Filtro em reconstrução; recebe as revogações feitas durante a carga
+
+
+    /**
+     * Construtor que configura o filtro de Bloom e registra as métricas.
+     *
+     * @param revokedTokenRepository Armazenamento exato das revogações.
+     * @param meterRegistry          Registro de métricas.
+     * @param expectedInsertions     Quantidade esperada de revogações ativas ({@code app.security.jwt.revocation.expected-insertions}).
+     * @param falsePositiveRate      Taxa de falsos positivos desejada ({@code app.security.jwt.revocation.false-positive-rate}).
+     */
+    public TokenRevocationList(final RevokedTokenRepository revokedTokenRepository, final MeterRegistry meterRegistry,
+            @Value("${app.security.jwt.revocation.expected-insertions:100000}") final long expectedInsertions,
+            @Value("${app.security.jwt.revocation.false-positive-rate:0.001}") final double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+
+        this.bloomNegatives = Counter.builder("jwt.revocation.checks").tag("result", "bloom_negative")
+                .description("Revocation checks answered by the Bloom filter alone").register(meterRegistry);
+        this.falsePositives = Counter.builder("jwt.revocation.checks").tag("result", "false_positive")
+                .description("Bloom filter hits not confirmed by the exact store").register(meterRegistry);
+        this.revokedHits = Counter.builder("jwt.revocation.checks").tag("result", "revoked")
+                .description("Requests rejected because the token was revoked").register(meterRegistry);
+
+        Gauge.builder("jwt.revocation.bloom.bits", this, list -> list.filter.getBitSize())
+                .description("Size of the Bloom filter in bits").register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.hashes", this, list -> list.filter.getHashCount())
+                .description("Number of hash functions of the Bloom filter").register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.expected-insertions", this, list -> list.filter.getExpectedInsertions())
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.configured-fpp", this, list -> list.filter.getFalsePositiveRate())
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.entries", this, list -> list.filter.approximateElementCount())
+                .description("Revocations currently loaded in the Bloom filter").register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.estimated-fpp", this, list -> list.filter.estimatedFalsePositiveRate())
+                .description("Estimated false-positive rate from the fraction of bits set").register(meterRegistry);
+    }
+
+
+    /**
+     * Verifica se um token foi revogado. O filtro de Bloom responde em memória para a grande maioria dos tokens;
+     * somente um hit do filtro consulta o armazenamento exato para descartar falsos positivos.
+     *
+     * @param token Token já validado.
+     * @return {@code true} se o token foi revogado.
+     */
+    public boolean isRevoked(final ValidatedToken token) {
+        final String tokenId = token.getTokenId();
+        if (tokenId == null) {
+            return false;  // Tokens emitidos antes da claim "jti" não podem ser revogados individualmente
+        }
+        if (!this.filter.mightContain(tokenId)) {
+            this.bloomNegatives.increment();
+            return false;
+        }
+        if (this.revokedTokenRepository.existsById(tokenId)) {
+            this.revokedHits.increment();
+            return true;
+        }
+        this.falsePositives.increment();
+        return false;
+    }
+
+
+    /**
+     * Revoga um token até sua expiração: grava no armazenamento exato e adiciona o {@code jti} ao filtro de Bloom.
+     * Sem bloqueio: se uma reconstrução troca o filtro durante a chamada, o {@code jti} é adicionado também ao novo filtro.
+     * @param token Token já validado a ser revogado.
+     */
+    public void revoke(final ValidatedToken token) {
+        final String tokenId = token.getTokenId();
+        if (tokenId == null || token.getExpiration() == null) {
+            log.warn("Token for {} has no jti or expiration and cannot be revoked", token.getSubject());
+            return;
+        }
+        if (!this.revokedTokenRepository.existsById(tokenId)) {
+            this.revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenId(tokenId)
+                    .subject(token.getSubject())
+                    .expiresAt(token.getExpiration().toInstant())
+                    .revokedAt(Instant.now())
+                    .build());
+        }
+        final BloomFilter current = this.filter;
+        current.put(tokenId);
+        final BloomFilter next = this.rebuilding;
+        if (next != null) {
+            next.put(tokenId);
+        }
+        // A reconstrução pode ter trocado o filtro e limpado "rebuilding" entre as duas leituras acima, com a carga feita
+        // antes da gravação: a revogação ficaria apenas no filtro descartado
+        final BloomFilter swapped = this.filter;
+        if (swapped != current) {
+            swapped.put(tokenId);
+        }
+    }
+
+
+    /**
+     * Carrega as revogações ainda válidas no filtro quando a aplicação termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+
+    /**
+     * Remove periodicamente as revogações cujos tokens já expiraram e reconstrói o filtro com as restantes,
+     * devolvendo ao filtro os bits ocupados por revogações que não precisam mais ser verificadas.
+     * A reconstrução também incorpora revogações gravadas por outras instâncias da aplicação.
+     */
+    @Scheduled(fixedDelayString = "${app.security.jwt.revocation.prune-interval:600000}",
+            initialDelayString = "${app.security.jwt.revocation.prune-interval:600000}")
+    public void prune() {
+        final int removed = this.revokedTokenRepository.deleteExpired(Instant.now());
+        rebuild();
+        log.debug("Pruned {} expired token revocations", removed);
+    }
+
+
+    private synchronized void rebuild() {
+        final BloomFilter next = new BloomFilter(this.expectedInsertions, this.falsePositiveRate);
+        this.rebuilding = next;
+        try {
+            final List<String> tokenIds = this.revokedTokenRepository.findActiveTokenIds(Instant.now());
+            tokenIds.forEach(next::put);
+            if (tokenIds.size() > this.expectedInsertions) {
+                log.warn("{} active revocations exceed the Bloom filter sizing ({}), false-positive rate will rise",
+                        tokenIds.size(), this.expectedInsertions);
+            }
+            this.filter = next;
+        } finally {
+            this.rebuilding = null;
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Lista de tokens revogados consultada pelo {@link com.api.spring_security_demo7.security.JwtFilter} em toda requisição autenticada.
+ *
+ * . Filtro de Bloom em memória na frente do armazenamento exato ({@code REVOKED_TOKENS}); apenas um hit do filtro consulta o banco.
+ * . Dimensionamento configurável: {@code app.security.jwt.revocation.expected-insertions} e {@code false-positive-rate}.
+ * . As revogações expiradas são removidas em {@code prune-interval} e o filtro é reconstruído com as restantes.
+ * . Métricas: {@code jwt.revocation.checks{result}} (bloom_negative, false_positive, revoked) e {@code jwt.revocation.bloom.*}
+ *   (bits, hashes, entradas, taxa configurada e taxa estimada).
+ *
+ * OBS. Com várias instâncias, uma revogação feita em outra instância só entra no filtro local na próxima reconstrução.
+*/
@@ -0,0 +1,193 @@
+package com.api.spring_security_demo7.user;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.common.UuidV7;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class LoginActivityRecorder {
+
+    private static final String RECORD_SUCCESS_SQL =
+            "UPDATE USERS SET FAILED_LOGIN_ATTEMPTS = ?, LAST_LOGIN_DATE = ? WHERE ID = ?";
+    private static final String RECORD_FAILURES_SQL =
+            "UPDATE USERS SET FAILED_LOGIN_ATTEMPTS = FAILED_LOGIN_ATTEMPTS + ? WHERE EMAIL_NORMALIZED = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int flushThreshold;
+    private final ConcurrentHashMap<String, LoginActivity> pending = new ConcurrentHashMap<>();  // email normalizado -> atividade agregada
+    private final ExecutorService flusher;            // Flush disparado pelo limite de tamanho, fora da thread do login
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Timer flushTimer;
+    private final Counter flushedRows;
+
+
+    /**
+     * Construtor que configura o agregador de atividades de login.
+     *
+     * @param jdbcTemplate   Template JDBC usado nas atualizações em lote.
+     * @param meterRegistry  Registro de métricas.
+     * @param flushThreshold Quantidade de contas pendentes que dispara um flush antecipado
+     *                       ({@code app.security.login-activity.flush-threshold}).
+     */
+    public LoginActivityRecorder(final JdbcTemplate jdbcTemplate, final MeterRegistry meterRegistry,
+            @Value("${app.security.login-activity.flush-threshold:1000}") final int flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushThreshold = flushThreshold;
+        this.flusher = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "login-activity-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("login.activity.pending", this.pending, ConcurrentHashMap::size)
+                .description("Accounts with login activity waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("login.activity.flush")
+                .description("Time spent writing a batch of login activity")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("login.activity.flushed")
+                .description("Accounts written by the login activity flush")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Registra um login bem-sucedido: zera as falhas e atualiza a data do último login.
+     * @param userId ID do usuário.
+     * @param email  Email do usuário.
+     */
+    public void recordSuccess(final String userId, final String email) {
+        final LoginActivity success = LoginActivity.success(userId, LocalDateTime.now());
+        this.pending.merge(normalize(email), success, (current, next) -> next);
+        flushIfThresholdReached();
+    }
+
+
+    /**
+     * Registra uma falha de login. Falhas da mesma conta são somadas em memória e gravadas em uma única atualização.
+     * @param email Email informado no login.
+     */
+    public void recordFailure(final String email) {
+        this.pending.merge(normalize(email), LoginActivity.FAILURE, LoginActivity::plusFailure);
+        flushIfThresholdReached();
+    }
+
+
+    /**
+     * Grava as atividades pendentes em lote ({@code JdbcTemplate.batchUpdate}): uma instrução por conta, independentemente
+     * da quantidade de tentativas agregadas.
+     */
+    @Scheduled(fixedDelayString = "${app.security.login-activity.flush-interval:5000}")
+    public synchronized void flush() {
+        this.flushRequested.set(false);
+        if (this.pending.isEmpty()) {
+            return;
+        }
+
+        final List<Object[]> successes = new ArrayList<>();
+        final List<Object[]> failures = new ArrayList<>();
+        for (final String email : this.pending.keySet()) {
+            final LoginActivity activity = this.pending.remove(email);  // Remoção atômica: novas tentativas criam outra entrada
+            if (activity == null) {
+                continue;
+            }
+            if (activity.lastLogin() != null) {
+                successes.add(new Object[] { activity.failures(), Timestamp.valueOf(activity.lastLogin()),
+                        UuidV7.toBytes(activity.userId()) });  // USERS.ID é BINARY(16)
+            } else {
+                failures.add(new Object[] { activity.failures(), email });
+            }
+        }
+
+        this.flushTimer.record(() -> {
+            try {
+                if (!successes.isEmpty()) {
+                    this.jdbcTemplate.batchUpdate(RECORD_SUCCESS_SQL, successes);
+                }
+                if (!failures.isEmpty()) {
+                    this.jdbcTemplate.batchUpdate(RECORD_FAILURES_SQL, failures);
+                }
+                this.flushedRows.increment(successes.size() + failures.size());
+            } catch (final RuntimeException e) {
+                // Contadores de auditoria: a perda de um lote não afeta a autenticação (o bloqueio usa o LoginThrottle)
+                log.error("Failed to write login activity for {} accounts", successes.size() + failures.size(), e);
+            }
+        });
+    }
+
+
+    /**
+     * Grava as atividades pendentes antes do encerramento da aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.flusher.shutdownNow();
+        flush();
+    }
+
+
+    private void flushIfThresholdReached() {
+        if (this.pending.size() >= this.flushThreshold && this.flushRequested.compareAndSet(false, true)) {
+            this.flusher.execute(this::flush);
+        }
+    }
+
+
+    private static String normalize(final String email) {
+        return UserKeys.email(email);  // Mesma forma da coluna EMAIL_NORMALIZED usada no UPDATE das falhas
+    }
+
+
+    /**
+     * Atividade agregada de uma conta desde o último flush. Após um sucesso, {@code failures} conta apenas as falhas
+     * posteriores a ele, que substituem o valor gravado no banco; sem sucesso, {@code failures} é somado ao valor gravado.
+     */
+    private record LoginActivity(String userId, LocalDateTime lastLogin, int failures) {
+
+        static final LoginActivity FAILURE = new LoginActivity(null, null, 1);
+
+        static LoginActivity success(final String userId, final LocalDateTime lastLogin) {
+            return new LoginActivity(userId, lastLogin, 0);
+        }
+
+        LoginActivity plusFailure(final LoginActivity failure) {
+            return new LoginActivity(this.userId, this.lastLogin, this.failures + failure.failures());
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Grava em segundo plano (write-behind) o resultado dos logins em {@code USERS}: {@code FAILED_LOGIN_ATTEMPTS} e
+ * {@code LAST_LOGIN_DATE}. Em vez de um UPDATE por tentativa, as tentativas são agregadas em memória por conta e gravadas
+ * em lote via JDBC a cada {@code flush-interval}, quando {@code flush-threshold} contas estão pendentes e no encerramento.
+ *
+ * . Essas colunas não são gravadas pelo JPA ({@code insertable/updatable = false}), evitando que um {@code save} da entidade
+ *   sobrescreva os contadores.
+ * . Métricas: {@code login.activity.pending} (tamanho da fila), {@code login.activity.flush} (latência do flush) e
+ *   {@code login.activity.flushed}.
+ *
+ * OBS. Uma queda abrupta da aplicação perde as atividades do último intervalo; os valores são informativos e não participam
+ * da decisão de bloqueio da conta.
+*/
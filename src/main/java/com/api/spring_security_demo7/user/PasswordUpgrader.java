@@ -0,0 +1,118 @@
+package com.api.spring_security_demo7.user;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class PasswordUpgrader {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor executor;
+    private final Counter upgraded;
+    private final Counter skipped;    // Fila cheia ou senha alterada durante a atualização
+    private final Counter failed;
+
+
+    /**
+     * Construtor que cria a thread de atualização de hashes.
+     *
+     * @param userRepository Repositório usado na atualização condicional da senha.
+     * @param passwordEncoder Encoder usado para gerar o novo hash.
+     * @param eventPublisher  Publicador do {@link UserAccountChangedEvent} após a atualização.
+     * @param meterRegistry   Registro de métricas.
+     * @param queueCapacity   Quantidade máxima de atualizações pendentes ({@code app.security.password-hashing.rehash-queue-capacity}).
+     */
+    public PasswordUpgrader(final UserRepository userRepository, final PasswordEncoder passwordEncoder,
+            final ApplicationEventPublisher eventPublisher, final MeterRegistry meterRegistry,
+            @Value("${app.security.password-hashing.rehash-queue-capacity:256}") final int queueCapacity) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.upgraded = Counter.builder("password.rehash").tag("result", "upgraded").register(meterRegistry);
+        this.skipped = Counter.builder("password.rehash").tag("result", "skipped").register(meterRegistry);
+        this.failed = Counter.builder("password.rehash").tag("result", "failed").register(meterRegistry);
+    }
+
+
+    /**
+     * Agenda a atualização do hash da senha quando ele estiver desatualizado (custo menor que o calibrado ou sem o id do
+     * algoritmo). Deve ser chamado apenas após um login bem-sucedido, com a senha já verificada.
+     * A resposta do login não espera pela atualização; se a fila estiver cheia, a atualização fica para o próximo login.
+     *
+     * @param user        Usuário autenticado (com o hash atual).
+     * @param rawPassword Senha em texto puro informada no login.
+     */
+    public void upgradeIfNeeded(final User user, final String rawPassword) {
+        final String currentHash = user.getPassword();
+        if (user.getId() == null || currentHash == null || !this.passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        try {
+            this.executor.execute(() -> upgrade(user.getId(), rawPassword, currentHash));
+        } catch (final RejectedExecutionException e) {
+            this.skipped.increment();
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+
+    /**
+     * Gera o novo hash e grava apenas se a senha não mudou desde o login (UPDATE condicional pelo hash antigo),
+     * de modo que uma troca de senha concorrente nunca é sobrescrita.
+     */
+    private void upgrade(final String userId, final String rawPassword, final String currentHash) {
+        try {
+            final String newHash = this.passwordEncoder.encode(rawPassword);
+            if (this.userRepository.updatePasswordIfUnchanged(userId, currentHash, newHash) == 1) {
+                this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId));
+                this.upgraded.increment();
+                log.debug("Password hash upgraded for user {}", userId);
+            } else {
+                this.skipped.increment();
+            }
+        } catch (final RuntimeException e) {
+            this.failed.increment();
+            log.warn("Failed to upgrade password hash for user {}", userId, e);
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Atualiza de forma transparente os hashes de senha desatualizados no momento do login, o único instante em que a senha em
+ * texto puro está disponível. Assim, mudar a latência alvo ou o custo mínimo do hashing não exige uma migração em massa:
+ * cada conta é migrada no seu próximo login.
+ *
+ * . A atualização roda em uma thread própria com fila limitada; o login não espera por ela.
+ * . O novo hash é gerado pelo mesmo {@link PasswordEncoder} da aplicação (pool dedicado de hashing).
+ * . Métricas: {@code password.rehash{result}} (upgraded, skipped, failed).
+*/
@@ -0,0 +1,174 @@
+package com.api.spring_security_demo7.user;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class ProfileETagCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;  // ID do usuário -> ETag do perfil (ou marca de invalidação)
+
+
+    /**
+     * Construtor que configura o cache de ETags do perfil.
+     *
+     * @param meterRegistry Registro de métricas (hit ratio e evictions).
+     * @param enabled       Habilita ou desabilita o cache ({@code app.users.profile-etag-cache.enabled}).
+     * @param maxSize       Quantidade máxima de usuários em memória ({@code app.users.profile-etag-cache.max-size}).
+     * @param ttlMillis     Tempo de vida de cada entrada em milissegundos ({@code app.users.profile-etag-cache.ttl}).
+     */
+    public ProfileETagCache(final MeterRegistry meterRegistry,
+            @Value("${app.users.profile-etag-cache.enabled:true}") final boolean enabled,
+            @Value("${app.users.profile-etag-cache.max-size:100000}") final long maxSize,
+            @Value("${app.users.profile-etag-cache.ttl:5000}") final long ttlMillis) {
+        this.enabled = enabled;
+        if (!enabled) {
+            this.cache = null;
+            log.info("Profile ETag cache disabled");
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "users.profile.etag");
+    }
+
+
+    /**
+     * ETag forte do perfil na versão informada (ex: {@code "3"}), o mesmo valor aceito no If-Match do PATCH /me.
+     *
+     * @param version Versão do usuário ({@code USERS.VERSION}).
+     * @return O ETag entre aspas.
+     */
+    public static String eTag(final long version) {
+        return "\"" + version + "\"";
+    }
+
+
+    /**
+     * Verifica se o header If-None-Match contém o ETag (comparação fraca, como exige o If-None-Match).
+     *
+     * @param ifNoneMatch Valor do header: lista de ETags separados por vírgula, {@code *} ou {@code null}.
+     * @param eTag        ETag atual do perfil.
+     * @return {@code true} se o cliente já possui essa versão (resposta 304).
+     */
+    public static boolean matches(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if ("*".equals(tag) || eTag.equals(tag.startsWith("W/") ? tag.substring(2) : tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Retorna o ETag atual do perfil do usuário, se estiver em cache.
+     *
+     * @param userId ID do usuário.
+     * @return O ETag, ou {@code null} se não estiver em cache (ou se o usuário foi alterado desde a última leitura).
+     */
+    public String get(final String userId) {
+        if (!this.enabled) {
+            return null;
+        }
+        final Entry entry = this.cache.getIfPresent(userId);
+        return entry != null ? entry.eTag : null;
+    }
+
+
+    /**
+     * Carrega o perfil com a função informada e guarda o seu ETag. Se o usuário for alterado durante a carga
+     * ({@link UserAccountChangedEvent}), o ETag lido não é guardado: ele já pode estar desatualizado.
+     *
+     * @param userId  ID do usuário.
+     * @param loader  Função que lê o perfil do banco.
+     * @param version Versão do perfil lido.
+     * @return O perfil lido.
+     */
+    public <T> T load(final String userId, final Supplier<T> loader, final ToLongFunction<T> version) {
+        if (!this.enabled) {
+            return loader.get();
+        }
+        final Entry seen = this.cache.getIfPresent(userId);
+        final T profile = loader.get();
+        final Entry loaded = new Entry(eTag(version.applyAsLong(profile)));
+        if (seen == null) {
+            this.cache.asMap().putIfAbsent(userId, loaded);
+        } else {
+            this.cache.asMap().replace(userId, seen, loaded);  // Falha se uma invalidação trocou a entrada durante a carga
+        }
+        return profile;
+    }
+
+
+    /**
+     * Invalida o ETag do usuário. Em vez de remover a entrada, grava uma nova marca de invalidação, para que uma carga
+     * iniciada antes da invalidação não guarde o ETag antigo.
+     *
+     * @param userId ID do usuário.
+     */
+    public void invalidate(final String userId) {
+        if (this.enabled && userId != null) {
+            this.cache.put(userId, new Entry(null));
+        }
+    }
+
+
+    /**
+     * Invalida o ETag do usuário sempre que sua conta é alterada nesta instância.
+     *
+     * @param event Evento com o ID do usuário alterado.
+     */
+    @EventListener
+    public void onUserAccountChanged(final UserAccountChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+
+
+    /**
+     * Entrada do cache. A comparação é por identidade: cada invalidação é uma instância diferente.
+     */
+    private static final class Entry {
+
+        private final String eTag;  // null = marca de invalidação
+
+        private Entry(final String eTag) {
+            this.eTag = eTag;
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Cache dos ETags do perfil ({@code GET /api/v1/users/me}). Clientes que consultam o perfil com frequência enviam o
+ * If-None-Match com o último ETag recebido; se ele for o ETag em cache, a resposta é 304 sem acesso ao banco e sem corpo.
+ *
+ * . Guarda apenas o ETag (a versão do usuário), não o perfil: a resposta 200 sempre lê a projeção do banco.
+ * . Qualquer alteração de conta publica um {@link UserAccountChangedEvent}, que invalida a entrada imediatamente.
+ * . O cache é local a cada instância; alterações feitas por outra instância só são vistas após o TTL, por isso curto
+ *   (segundos). Um 409 CONCURRENT_MODIFICATION no PATCH /me indica que o ETag local pode estar desatualizado: a entrada
+ *   é invalidada, e o GET seguinte lê a versão atual do banco em vez de responder 304 com a versão antiga.
+ * . Métricas: {@code cache.*{cache=users.profile.etag}} (hit ratio, evictions).
+*/
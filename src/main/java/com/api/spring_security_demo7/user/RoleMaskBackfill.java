@@ -0,0 +1,111 @@
+package com.api.spring_security_demo7.user;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.api.spring_security_demo7.common.UuidV7;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class RoleMaskBackfill {
+
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT ID FROM USERS WHERE ROLE_MASK IS NULL AND ID > ? ORDER BY ID LIMIT ?";
+
+    // Usuários com alguma role sem bit (ou com bit >= 64) continuam com ROLE_MASK nulo e usam USERS_ROLES
+    private static final String BACKFILL_CHUNK_SQL = """
+            UPDATE USERS u SET u.ROLE_MASK = (
+                SELECT CASE WHEN COUNT(ur.ROLES_ID) <> COUNT(r.ROLE_BIT) OR MAX(r.ROLE_BIT) >= 64 THEN NULL
+                            ELSE COALESCE(BIT_OR(1 << r.ROLE_BIT), 0) END
+                FROM USERS_ROLES ur LEFT JOIN ROLES r ON r.ID = ur.ROLES_ID
+                WHERE ur.USERS_ID = u.ID),
+                u.VERSION = u.VERSION + 1
+            WHERE u.ROLE_MASK IS NULL AND u.ID >= ? AND u.ID <= ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Counter backfilled;
+
+
+    /**
+     * Construtor do preenchimento de {@code USERS.ROLE_MASK}.
+     *
+     * @param jdbcTemplate  Template JDBC usado nas atualizações.
+     * @param meterRegistry Registro de métricas.
+     * @param batchSize     Usuários atualizados por instrução ({@code app.security.roles.backfill-batch-size}); 0 desabilita.
+     */
+    public RoleMaskBackfill(final JdbcTemplate jdbcTemplate, final MeterRegistry meterRegistry,
+            @Value("${app.security.roles.backfill-batch-size:10000}") final int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.backfilled = Counter.builder("users.role-mask.backfilled")
+                .description("Users whose ROLE_MASK was filled from USERS_ROLES")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Inicia o preenchimento em segundo plano após a inicialização (as roles já possuem ROLE_BIT).
+     * Enquanto isso, usuários sem ROLE_MASK continuam sendo autenticados pelo JOIN em USERS_ROLES.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (this.batchSize <= 0) {
+            return;
+        }
+        final Thread thread = new Thread(this::backfill, "role-mask-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Preenche o ROLE_MASK dos usuários em blocos ordenados pela chave primária (keyset), cada bloco em uma instrução curta,
+     * sem travar a tabela inteira.
+     */
+    void backfill() {
+        byte[] lastId = new byte[UuidV7.BYTES];  // USERS.ID é BINARY(16): começa antes do menor ID possível
+        long total = 0;
+        try {
+            while (true) {
+                final List<byte[]> ids = this.jdbcTemplate.queryForList(SELECT_CHUNK_SQL, byte[].class, lastId, this.batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                final int updated = this.jdbcTemplate.update(BACKFILL_CHUNK_SQL, ids.get(0), ids.get(ids.size() - 1));
+                lastId = ids.get(ids.size() - 1);
+                total += updated;
+                this.backfilled.increment(updated);
+            }
+            if (total > 0) {
+                log.info("ROLE_MASK filled for {} users", total);
+            }
+        } catch (final RuntimeException e) {
+            // Os usuários restantes continuam usando USERS_ROLES; o preenchimento é retomado na próxima inicialização
+            log.error("ROLE_MASK backfill stopped after {} users", total, e);
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Migração de {@code USERS_ROLES} para a coluna compacta {@code USERS.ROLE_MASK}, executada em segundo plano a cada
+ * inicialização para os usuários que ainda não possuem o bitmask (ex: usuários criados antes da coluna existir).
+ *
+ * . Novos usuários e alterações de roles gravam o ROLE_MASK pelo próprio JPA ({@code User#syncRoleMask}); a tabela
+ *   USERS_ROLES continua sendo gravada, então os dois formatos permanecem em sincronia.
+ * . Métrica: {@code users.role-mask.backfilled}.
+ *
+ * OBS. O SQL usa {@code BIT_OR} e {@code <<} do MySQL.
+*/
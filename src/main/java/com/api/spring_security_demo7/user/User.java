@@ -1,33 +1,37 @@
 package com.api.spring_security_demo7.user;
 
-import static jakarta.persistence.GenerationType.UUID;
-
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Type;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.util.CollectionUtils;
 
+import com.api.spring_security_demo7.common.UuidBinaryType;
+import com.api.spring_security_demo7.common.UuidV7Id;
+import com.api.spring_security_demo7.role.AuthoritySet;
 import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.role.RoleRegistry;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -35,7 +39,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "USERS")
+@Table(name = "USERS", uniqueConstraints = {
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "EMAIL_NORMALIZED"),
+    @UniqueConstraint(name = User.PHONE_NUMBER_CONSTRAINT, columnNames = "PHONE_NORMALIZED")
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -44,9 +51,16 @@ import lombok.Setter;
 @EntityListeners(AuditingEntityListener.class)
 public class User implements UserDetails{
 
+    // Nomes das constraints únicas, usados para identificar a violação no registro (sem consultas prévias de existência).
+    // Ficam sobre as colunas normalizadas (UserKeys): emails/telefones que diferem só na formatação são duplicados.
+    public static final String EMAIL_CONSTRAINT = "UK_USERS_EMAIL_NORMALIZED";
+    public static final String PHONE_NUMBER_CONSTRAINT = "UK_USERS_PHONE_NORMALIZED";
+
     @Id
-    @GeneratedValue(strategy = UUID)
-    private String id;
+    @UuidV7Id
+    @Type(UuidBinaryType.class)
+    @Column(name = "ID", columnDefinition = "BINARY(16)")
+    private String id;  // UUIDv7 (ordenado pelo tempo), gravado em 16 bytes: INSERTs sempre no fim do índice clusterizado
 
     @Column(name = "FIRST_NAME", nullable = false)
     private String firstName;
@@ -54,12 +68,19 @@ public class User implements UserDetails{
     @Column(name = "LAST_NAME", nullable = false)
     private String lastName;
 
-    @Column(name = "EMAIL", nullable = false, unique = true)
+    @Column(name = "EMAIL", nullable = false)
     private String email;
 
-    @Column(name = "PHONE_NUMBER", nullable = false, unique = true)
+    @Column(name = "PHONE_NUMBER", nullable = false)
     private String phoneNumber;
 
+    // Chaves de busca (UserKeys), preenchidas pelo UserMapper: igualdade exata pelo índice único, sem LOWER(EMAIL)
+    @Column(name = "EMAIL_NORMALIZED")
+    private String emailNormalized;  // email sem espaços nas pontas e em minúsculas
+
+    @Column(name = "PHONE_NORMALIZED", length = 16)
+    private String phoneNormalized;  // telefone no formato E.164 ("+" e até 15 dígitos)
+
     @Column(name = "PASSWORD", nullable = false)
     private String password;
 
@@ -72,6 +93,9 @@ public class User implements UserDetails{
     @Column(name = "IS_ACCOUNT_LOCKED")
     private boolean locked;  // para verificar se o usuario esta bloqueado ou nao na aplicacao (se ele errou a senha varias vezes)
 
+    @Column(name = "LOCKED_UNTIL")
+    private LocalDateTime lockedUntil;  // fim do bloqueio temporario (falhas de login); null = bloqueado ate o desbloqueio por um administrador
+
     @Column(name = "CREDENTIALS_EXPIRED")
     private boolean credentialsExpired; // para verificar se as credenciais do usuario estao expiradas ou nao na aplicacao (se ele nao alterou a senha por um periodo longo)
 
@@ -84,6 +108,13 @@ public class User implements UserDetails{
     @Column(name = "IS_PHONE_VERIFIED")
     private boolean phoneVerified; // para verificar se o telefone do usuario esta verificado ou nao na aplicacao
 
+    // Gravados apenas pelo LoginActivityRecorder (write-behind via JDBC); o JPA nunca sobrescreve esses valores
+    @Column(name = "FAILED_LOGIN_ATTEMPTS", insertable = false, updatable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int failedLoginAttempts; // para armazenar a quantidade de falhas de login desde o ultimo login bem-sucedido
+
+    @Column(name = "LAST_LOGIN_DATE", insertable = false, updatable = false)
+    private LocalDateTime lastLoginDate; // para armazenar a data do ultimo login bem-sucedido do usuario
+
     @CreatedDate  // OBS. Está anotação é usada para marcar o campo que deve ser preenchido automaticamente com a data de criação do registro.
     @Column(name = "CREATED_DATE", updatable = false, nullable = false)
     private LocalDateTime createdDate;  // para armazenar a data de criacao do usuario na aplicacao 
@@ -93,15 +124,29 @@ public class User implements UserDetails{
     private LocalDateTime lastModifiedDate; // para armazenar a data da ultima modificacao do usuario na aplicacao 
 
 
+    // Controle de concorrência otimista: incrementada a cada gravação do usuário (save da entidade e UPDATEs do UserRepository).
+    // Gravações com uma versão desatualizada falham em vez de sobrescrever a anterior (409 CONCURRENT_MODIFICATION).
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "VERSION", nullable = false)
+    private Long version;  // null = usuário ainda não persistido
+
+
+    // Bitmask das roles sobre o ROLE_BIT de cada role (RoleRegistry), mantido em sincronia com USERS_ROLES.
+    // Permite montar as authorities sem o JOIN em USERS_ROLES/ROLES; null = ainda não preenchido (usa USERS_ROLES).
+    @Column(name = "ROLE_MASK")
+    private Long roleMask;
+
     // Muitos usuarios podem ter muitos papeis (roles) e muitos papeis (roles) podem ter muitos usuarios
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.EAGER)
+    // LAZY: a autenticação usa o ROLE_MASK; a junção só é carregada quando necessária (ou no modo join-table)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @JoinTable(
         name = "USERS_ROLES",
         joinColumns = {
-            @JoinColumn(name = "USERS_ID")
+            @JoinColumn(name = "USERS_ID", columnDefinition = "BINARY(16)")
         },
         inverseJoinColumns = {
-            @JoinColumn(name = "ROLES_ID")
+            @JoinColumn(name = "ROLES_ID", columnDefinition = "BINARY(16)")
         }
     )
     private List<Role> roles; // para armazenar os papeis do usuario na aplicacao (ex: ADMIN, USER, etc)
@@ -110,17 +155,36 @@ public class User implements UserDetails{
     // Metodos sobrescritos da interface UserDetails do Spring Security
 
     /**
-     * Este método retorna se a conta do usuário não está bloqueada.
-     * @return true se a conta não está bloqueada, false caso contrário. 
+     * Este método retorna as authorities (roles) do usuário.
+     * O conjunto é canônico ({@link AuthoritySet}): usuários com as mesmas roles compartilham a mesma instância imutável,
+     * sem nenhuma alocação por chamada.
+     * Um usuário sem ROLE_MASK precisa ser lido com as roles ({@code UserRepository.findWithRolesByEmailNormalized}):
+     * o principal é usado fora da transação, onde a coleção LAZY não pode mais ser carregada.
+     * @return as authorities do usuário.
+     * @throws IllegalStateException Se o usuário não tiver ROLE_MASK e as roles não tiverem sido carregadas.
     */
     @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (CollectionUtils.isEmpty(this.roles)) {
-            return List.of();
-        } 
-        return this.roles.stream()
-                            .map(role -> new SimpleGrantedAuthority(role.getName()))
-                            .toList();
+    public AuthoritySet getAuthorities() {
+        if (Hibernate.isInitialized(this.roles)) {
+            return AuthoritySet.ofRoles(this.roles);
+        }
+        if (this.roleMask == null) {
+            throw new IllegalStateException("User " + this.id + " has no ROLE_MASK and its roles were not loaded");
+        }
+        return AuthoritySet.ofMask(this.roleMask);  // Roles não carregadas: usa o bitmask, sem consultar USERS_ROLES
+    }
+
+
+    /**
+     * Recalcula o ROLE_MASK a partir das roles sempre que elas estiverem carregadas, mantendo a coluna em sincronia com
+     * USERS_ROLES em cada INSERT/UPDATE do usuário.
+    */
+    @PrePersist
+    @PreUpdate
+    void syncRoleMask() {
+        if (this.roles != null && Hibernate.isInitialized(this.roles)) {
+            this.roleMask = RoleRegistry.maskOf(this.roles);
+        }
     }
 
 
@@ -161,12 +225,13 @@ public class User implements UserDetails{
     }
 
     /**
-     * Este método retorna se a conta do usuário não está bloqueada.
-     * @return true se a conta não está bloqueada, false caso contrário.
+     * Este método retorna se a conta do usuário não está bloqueada. O bloqueio por falhas de login é temporário:
+     * expira em {@code lockedUntil}, sem nenhuma gravação no banco.
+     * @return true se a conta não está bloqueada (ou se o bloqueio já expirou), false caso contrário.
     */
     @Override
     public boolean isAccountNonLocked() {
-        return !this.locked;
+        return !this.locked || (this.lockedUntil != null && !LocalDateTime.now().isBefore(this.lockedUntil));
     }
 
     /**
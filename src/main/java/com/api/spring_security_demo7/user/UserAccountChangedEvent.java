@@ -0,0 +1,19 @@
+package com.api.spring_security_demo7.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserAccountChangedEvent {
+
+    private final String userId;
+
+}
+
+/**
+ * Evento publicado pelo {@link UserService} sempre que os dados de uma conta são alterados
+ * (senha, perfil, ativação, desativação ou exclusão).
+ * Componentes que mantêm dados do usuário em memória (ex: {@link UserDetailsCache}) escutam este evento
+ * para invalidar suas entradas imediatamente.
+*/
@@ -1,17 +1,27 @@
 package com.api.spring_security_demo7.user;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.api.spring_security_demo7.exception.BusinessException;
+import com.api.spring_security_demo7.exception.ErrorCode;
 import com.api.spring_security_demo7.user.request.ChangePasswordRequest;
 import com.api.spring_security_demo7.user.request.ProfileUpdateRequest;
+import com.api.spring_security_demo7.user.response.ProfileResponse;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -23,19 +33,52 @@ import lombok.RequiredArgsConstructor;
 @Tag(name = "User", description = "User API")
 public class UserController {
 
+    // O perfil é por usuário (proxies não podem compartilhar a resposta) e deve ser revalidado a cada uso (If-None-Match)
+    private static final CacheControl PROFILE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final UserService userService;
 
 
+    /**
+     * Retorna o perfil do usuário autenticado, com o ETag da versão atual.
+     * Se o If-None-Match contiver o ETag atual (mantido em cache), a resposta é 304 sem corpo e sem acesso ao banco.
+     * @param ifNoneMatch ETags que o cliente já possui; opcional.
+     * @param authentication O objeto de autenticação que contém os detalhes do usuário autenticado.
+     * @return 200 com o perfil e o ETag, ou 304 sem corpo.
+     * @throws BusinessException Se o usuário com o ID fornecido não for encontrado.
+    */
+    @GetMapping("/me")
+    public ResponseEntity<ProfileResponse> getProfile(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch, final Authentication authentication) {
+        final String userId = getUserId(authentication);
+        if (ifNoneMatch != null) {
+            final String cachedETag = this.userService.findCachedProfileETag(userId);
+            if (ProfileETagCache.matches(ifNoneMatch, cachedETag)) {
+                return notModified(cachedETag);
+            }
+        }
+        final ProfileResponse profile = this.userService.getProfile(userId);
+        final String eTag = ProfileETagCache.eTag(profile.getVersion());
+        if (ProfileETagCache.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(PROFILE_CACHE_CONTROL).body(profile);
+    }
+
+
     /**
      * Atualiza as informações de perfil do usuário autenticado.
      * @param profileUpdateRequest Objeto contendo as novas informações de perfil.
+     * @param ifMatch Versão do usuário lida pelo cliente (ex: {@code "3"}); opcional. Se informada, a atualização só é aplicada
+     * se o usuário não tiver sido alterado desde então.
      * @param authentication O objeto de autenticação que contém os detalhes do usuário autenticado.
-     * @throws BusinessException Se o usuário com o ID fornecido não for encontrado.
+     * @throws BusinessException Se o usuário com o ID fornecido não for encontrado ou se a versão informada não for mais a atual (409).
     */
     @PatchMapping("/me")
     @ResponseStatus(code =  HttpStatus.NO_CONTENT)
-    public void updateProfile(@RequestBody @Valid final ProfileUpdateRequest profileUpdateRequest, final Authentication authentication) {
-        this.userService.updateProfileInfo(profileUpdateRequest, getUserId(authentication));
+    public void updateProfile(@RequestBody @Valid final ProfileUpdateRequest profileUpdateRequest,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch, final Authentication authentication) {
+        this.userService.updateProfileInfo(profileUpdateRequest, getUserId(authentication), expectedVersion(ifMatch));
     }
 
 
@@ -96,6 +139,19 @@ public class UserController {
     }
 
 
+    /**
+     * Desbloqueia a conta de um usuário antes do fim do bloqueio por falhas de login. Restrito a administradores.
+     * @param userId O ID do usuário cuja conta será desbloqueada.
+     * @throws BusinessException Se o usuário com o ID fornecido não for encontrado.
+    */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{userId}/unlock")
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    public void unlockAccount(@PathVariable final String userId) {
+        this.userService.unlockAccount(userId);
+    }
+
+
     /**
      * Obtém o ID do usuário a partir do objeto de autenticação.
      * @param authentication O objeto de autenticação que contém os detalhes do usuário autenticado.
@@ -105,11 +161,48 @@ public class UserController {
     private String getUserId(final Authentication authentication) {
         return ((User) authentication.getPrincipal()).getId();
     }
+
+
+    /**
+     * Resposta 304 (Not Modified): apenas o ETag, sem corpo.
+    */
+    private static ResponseEntity<ProfileResponse> notModified(final String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(PROFILE_CACHE_CONTROL).build();
+    }
+
+
+    /**
+     * Converte o header If-Match na versão esperada do usuário.
+     * @param ifMatch Valor do header: a versão entre aspas (ex: {@code "3"} ou {@code W/"3"}), {@code *} ou ausente.
+     * @return A versão esperada, ou {@code null} para aceitar qualquer versão.
+     * @throws BusinessException Se o valor não for uma versão do usuário (não corresponde à versão atual).
+    */
+    private static Long expectedVersion(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (final NumberFormatException e) {
+            throw new BusinessException(ErrorCode.CONCURRENT_MODIFICATION);
+        }
+    }
 }
 
 /**
  * Atenção!
  * Esta classe é o controlador REST para gerenciar operações relacionadas ao usuário.
- * Ela define endpoints para atualizar o perfil do usuário, alterar a senha, desativar, reativar e excluir a conta do usuário autenticado.
+ * Ela define endpoints para consultar e atualizar o perfil do usuário, alterar a senha, desativar, reativar e excluir a conta do usuário autenticado,
+ * e para um administrador desbloquear a conta de um usuário (POST /{userId}/unlock).
  * Utiliza a interface UserService para delegar a lógica de negócios e manipulação de dados.
+ * O GET /me retorna o ETag da versão do usuário e responde 304 ao If-None-Match com esse ETag, a partir do ProfileETagCache.
+ * O PATCH /me aceita o header If-Match com a versão do usuário (coluna VERSION): se outra requisição alterou o usuário
+ * depois dessa leitura, a atualização é recusada com 409 CONCURRENT_MODIFICATION em vez de sobrescrever a alteração.
 */
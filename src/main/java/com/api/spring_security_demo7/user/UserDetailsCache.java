@@ -0,0 +1,205 @@
+package com.api.spring_security_demo7.user;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class UserDetailsCache {
+
+    private final UserMapper userMapper;
+    private final boolean enabled;
+    private final Cache<String, UserSnapshot> cache;             // email normalizado -> snapshot imutável do usuário
+    private final Map<String, String> emailsByUserId = new ConcurrentHashMap<>();  // índice ID -> email, usado na invalidação
+    private final AtomicLong invalidations = new AtomicLong();  // incrementado a cada invalidação, antes de remover a entrada
+    private final Cache<String, Boolean> recentlyChanged;        // IDs alterados há menos de primaryWindow: recarga no primário
+    private final Timer loadTimer;
+
+
+    /**
+     * Construtor que configura o cache de detalhes de usuários.
+     *
+     * @param userMapper    Mapper usado para montar o principal a partir do snapshot.
+     * @param meterRegistry Registro de métricas (hit ratio, evictions e latência de carga).
+     * @param enabled       Habilita ou desabilita o cache ({@code app.security.user-cache.enabled}).
+     * @param maxSize       Quantidade máxima de usuários em memória ({@code app.security.user-cache.max-size}).
+     * @param ttlMillis     Tempo de vida de cada entrada em milissegundos ({@code app.security.user-cache.ttl}).
+     * @param primaryWindow Por quanto tempo após uma alteração o usuário é recarregado do primário, em milissegundos
+     *                      ({@code app.security.user-cache.primary-window}); 0 desabilita.
+     */
+    public UserDetailsCache(final UserMapper userMapper, final MeterRegistry meterRegistry,
+            @Value("${app.security.user-cache.enabled:true}") final boolean enabled,
+            @Value("${app.security.user-cache.max-size:10000}") final long maxSize,
+            @Value("${app.security.user-cache.ttl:5000}") final long ttlMillis,
+            @Value("${app.security.user-cache.primary-window:10000}") final long primaryWindow) {
+        this.userMapper = userMapper;
+        this.enabled = enabled;
+        this.loadTimer = Timer.builder("users.details.load")
+                .description("Time spent loading user details from the database")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            this.cache = null;
+            this.recentlyChanged = null;
+            log.info("User details cache disabled");
+            return;
+        }
+
+        // O Caffeine usa W-TinyLFU: combina frequência (LFU) e recência (LRU) para decidir o que remover quando o limite é atingido
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .removalListener((String email, UserSnapshot snapshot, RemovalCause cause) -> {
+                    if (snapshot != null && cause != RemovalCause.REPLACED) {
+                        this.emailsByUserId.remove(snapshot.id(), email);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "users.details");
+        this.recentlyChanged = primaryWindow > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(primaryWindow, TimeUnit.MILLISECONDS)
+                        .<String, Boolean>build()
+                : null;
+    }
+
+
+    /**
+     * Retorna o usuário a partir do cache ou, em caso de miss, carrega-o com a função informada.
+     * Um usuário alterado há menos de {@code primaryWindow} é recarregado com {@code primaryLoader}: a leitura normal pode
+     * vir de uma réplica que ainda não tem a alteração, e o snapshot antigo ficaria em cache até o TTL.
+     * Cada chamada devolve uma nova instância destacada de {@link User}, de modo que o snapshot em cache nunca é alterado.
+     * Se alguma conta for alterada durante a carga ({@link #evict(String)}), o snapshot lido não é guardado: ele já pode
+     * estar desatualizado, e o usuário é lido de novo do primário sem passar pelo cache.
+     *
+     * @param email  Email (username) do usuário.
+     * @param loader        Função que carrega o usuário do banco em caso de miss (pode ler uma réplica).
+     * @param primaryLoader Função que carrega o usuário do primário.
+     * @return {@link User} destacado montado a partir do snapshot.
+     */
+    public User get(final String email, final Function<String, User> loader, final Function<String, User> primaryLoader) {
+        if (!this.enabled) {
+            return this.loadTimer.record(() -> loader.apply(email));
+        }
+        final UserSnapshot snapshot = this.cache.get(normalize(email), key -> {
+            final long seen = this.invalidations.get();
+            User user = this.loadTimer.record(() -> loader.apply(email));
+            if (this.recentlyChanged != null && this.recentlyChanged.getIfPresent(user.getId()) != null) {
+                user = this.loadTimer.record(() -> primaryLoader.apply(email));
+            }
+            final UserSnapshot loaded = UserSnapshot.of(user);
+            // O índice é gravado antes da verificação: uma invalidação posterior à verificação encontra o email e
+            // remove a entrada assim que esta carga terminar
+            this.emailsByUserId.put(loaded.id(), key);
+            if (this.invalidations.get() != seen) {
+                this.emailsByUserId.remove(loaded.id(), key);
+                return null;  // Invalidação durante a carga: não guarda o snapshot
+            }
+            return loaded;
+        });
+        if (snapshot == null) {
+            return this.loadTimer.record(() -> primaryLoader.apply(email));
+        }
+        return snapshot.toPrincipal(this.userMapper);
+    }
+
+
+    /**
+     * Remove do cache o usuário com o ID informado. Uma carga em andamento (de qualquer usuário, já que o ID só é
+     * conhecido após a carga) deixa de guardar o snapshot lido.
+     * @param userId ID do usuário.
+     */
+    public void evict(final String userId) {
+        if (!this.enabled || userId == null) {
+            return;
+        }
+        if (this.recentlyChanged != null) {
+            this.recentlyChanged.put(userId, Boolean.TRUE);
+        }
+        this.invalidations.incrementAndGet();
+        final String email = this.emailsByUserId.remove(userId);
+        if (email != null) {
+            this.cache.invalidate(email);
+        }
+    }
+
+
+    /**
+     * Invalida a entrada do usuário sempre que sua conta é alterada.
+     * @param event Evento com o ID do usuário alterado.
+     */
+    @EventListener
+    public void onUserAccountChanged(final UserAccountChangedEvent event) {
+        evict(event.getUserId());
+    }
+
+
+    private static String normalize(final String email) {
+        return UserKeys.email(email);
+    }
+
+
+    /**
+     * Cópia imutável e destacada dos dados do usuário necessários para autenticação.
+     */
+    private record UserSnapshot(String id, String email, String password, boolean enabled, boolean locked,
+            LocalDateTime lockedUntil, boolean credentialsExpired, List<String> authorities) {
+
+        static UserSnapshot of(final User user) {
+            return new UserSnapshot(
+                    user.getId(),
+                    user.getEmail(),
+                    user.getPassword(),
+                    user.isEnabled(),
+                    user.isLocked(),
+                    user.getLockedUntil(),  // O fim do bloqueio é avaliado a cada uso do snapshot, não na carga
+                    !user.isCredentialsNonExpired(),
+                    user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        }
+
+        User toPrincipal(final UserMapper mapper) {
+            return mapper.toPrincipal(this.id, this.email, this.password, this.enabled, this.locked, this.lockedUntil,
+                    this.credentialsExpired, this.authorities);
+        }
+    }
+
+}
+
+/**
+ * Atenção!
+ * Cache dos detalhes de usuários usados pelo {@link UserService#loadUserByUsername(String)}. Evita a consulta
+ * em {@code USERS} + {@code USERS_ROLES} a cada requisição autenticada quando o principal é carregado do banco.
+ *
+ * . As entradas são snapshots imutáveis e destacados do JPA; cada leitura devolve uma nova instância de {@link User}.
+ * . O tamanho é limitado e as entradas expiram após o TTL configurado.
+ * . O cache é local a cada instância e a invalidação só ouve os eventos desta instância: uma conta desativada, bloqueada
+ *   ou com a senha trocada em outra instância continua autenticando aqui por até o TTL. Por isso o TTL é curto (segundos),
+ *   como o do {@link ProfileETagCache}: o cache absorve as rajadas de requisições do mesmo usuário, não minutos de tráfego.
+ * . Após uma alteração, o usuário é recarregado do primário durante {@code primary-window} (maior que o atraso máximo
+ *   aceito das réplicas somado ao intervalo da verificação delas), para não guardar o snapshot anterior lido de uma réplica.
+ * . Qualquer alteração de conta publica um {@link UserAccountChangedEvent}, que remove a entrada imediatamente,
+ *   impedindo que uma conta desativada continue autenticando a partir de um dado antigo. Uma carga concorrente com a
+ *   invalidação não guarda o que leu (contador de invalidações), para não reinserir o snapshot antigo.
+ * . Métricas: {@code cache.*{cache=users.details}} (hit ratio, evictions) e {@code users.details.load} (latência de carga).
+*/
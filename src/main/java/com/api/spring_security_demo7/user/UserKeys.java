@@ -0,0 +1,55 @@
+package com.api.spring_security_demo7.user;
+
+import java.util.Locale;
+
+public final class UserKeys {
+
+    private UserKeys() {
+    }
+
+
+    /**
+     * Forma canônica do email usada nas buscas ({@code USERS.EMAIL_NORMALIZED}): sem espaços nas pontas e em minúsculas.
+     *
+     * @param email Email informado.
+     * @return Email normalizado, ou {@code null}.
+     */
+    public static String email(final String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+
+    /**
+     * Forma canônica do telefone ({@code USERS.PHONE_NORMALIZED}) no formato E.164: "+" seguido apenas dos dígitos
+     * (ex: "+55 (11) 99999-9999" e "5511999999999" resultam em "+5511999999999").
+     *
+     * @param phoneNumber Telefone informado.
+     * @return Telefone normalizado, ou {@code null}.
+     */
+    public static String phone(final String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        final StringBuilder normalized = new StringBuilder(phoneNumber.length() + 1).append('+');
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            final char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+}
+
+/**
+ * Atenção!
+ * Chaves de busca normalizadas do usuário. As consultas por email usam a igualdade exata em {@code EMAIL_NORMALIZED}
+ * (índice único), em vez de {@code LOWER(EMAIL) = LOWER(?)}, que impede o uso do índice e percorre a tabela inteira.
+ *
+ * . Toda busca deve normalizar o valor informado com estes métodos (repositório, cache de usuários, atividade de login).
+ * . O mesmo cálculo é feito em SQL por {@code db/normalized-lookup-keys.sql} para os usuários já existentes.
+ *
+ * OBS. O telefone já é validado no registro ({@code ^\+?[1-9]\d{1,14}$}); a normalização apenas remove a formatação,
+ * sem inferir o código do país.
+*/
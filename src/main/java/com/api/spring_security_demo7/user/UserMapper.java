@@ -1,11 +1,18 @@
 package com.api.spring_security_demo7.user;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.api.spring_security_demo7.auth.request.RegistrationRequest;
+import com.api.spring_security_demo7.role.Role;
 import com.api.spring_security_demo7.user.request.ProfileUpdateRequest;
+import com.api.spring_security_demo7.user.response.ProfileResponse;
 
 import lombok.RequiredArgsConstructor;
 
@@ -17,7 +24,7 @@ public class UserMapper {
 
     /*
      * Mapeia um RegistrationRequest para um User entity - aqui converte os campos do request para os campos da entidade User.
-     * As senhas sao codificadas antes de serem armazenadas. 
+     * As senhas sao codificadas antes de serem armazenadas. O email e o telefone tambem sao gravados na forma normalizada (UserKeys).
      * Retorna a entidade User criada.
     */
     public User toUser(final RegistrationRequest request) {
@@ -25,7 +32,9 @@ public class UserMapper {
             .firstName(request.getFirstname())
             .lastName(request.getLastName())
             .email(request.getEmail())
+            .emailNormalized(UserKeys.email(request.getEmail())) // chave de busca do login (indice unico)
             .phoneNumber(request.getPhoneNumber())
+            .phoneNormalized(UserKeys.phone(request.getPhoneNumber())) // telefone em E.164 (indice unico)
             .password(this.passwordEncoder.encode(request.getPassword()))
             .enabled(true)
             .locked(false)
@@ -37,23 +46,80 @@ public class UserMapper {
 
 
     /**
-     * Atualiza as informacoes do usuario com base nos dados fornecidos na ProfileUpdateRequest.
-     * Verifica se cada campo no request é diferente do valor atual no usuario e se nao é nulo ou vazio (para strings) antes de atualizar.
-     * Isso evita atualizacoes desnecessarias e garante que apenas os campos modificados sejam alterados. 
-     * @param user A entidade User a ser atualizada.
+     * Monta um User destacado (nao gerenciado pelo JPA) para ser usado como principal do Spring Security.
+     * Usado quando o principal vem de uma fonte que nao e o banco (claims do token ou cache), mantendo a
+     * compatibilidade com quem faz cast do principal para User (ex: UserController e ApplicationAuditorAware).
+     * @param id O ID do usuario.
+     * @param email O email (username) do usuario.
+     * @param password O hash da senha, ou null quando nao for necessario.
+     * @param enabled Se a conta esta habilitada.
+     * @param locked Se a conta esta bloqueada.
+     * @param lockedUntil Fim do bloqueio temporario, ou null.
+     * @param credentialsExpired Se as credenciais estao expiradas.
+     * @param authorities Os nomes das roles do usuario.
+     * @return A entidade User montada.
+    */
+    public User toPrincipal(final String id, final String email, final String password, final boolean enabled,
+            final boolean locked, final LocalDateTime lockedUntil, final boolean credentialsExpired,
+            final Collection<String> authorities) {
+        return User.builder()
+            .id(id)
+            .email(email)
+            .password(password)
+            .enabled(enabled)
+            .locked(locked)
+            .lockedUntil(lockedUntil)
+            .credentialsExpired(credentialsExpired)
+            .roles(authorities.stream()
+                .<Role>map(name -> Role.builder().name(name).build())
+                .toList())
+            .build();
+    }
+
+
+    /**
+     * Monta as alteracoes de perfil com base nos dados fornecidos na ProfileUpdateRequest, para um UPDATE apenas das colunas informadas
+     * (UserRepository.updateProfile), sem carregar o usuario.
+     * Campos nulos ou vazios (para strings) sao ignorados, garantindo que apenas os campos informados sejam alterados.
      * @param request O ProfileUpdateRequest contendo os novos dados do usuario.
+     * @return Os atributos da entidade User e seus novos valores (vazio se nada foi informado).
     */
-    public void mergeUserInfo(final User user, final ProfileUpdateRequest request) {
+    public Map<String, Object> toProfileChanges(final ProfileUpdateRequest request) {
+        final Map<String, Object> changes = new LinkedHashMap<>();
 
-        if (StringUtils.isNotBlank(request.getFirstName()) && !user.getFirstName().equals(request.getFirstName())) { // Atualiza o primeiro nome se for diferente e nao nulo ou vazio 
-            user.setFirstName(request.getFirstName());
+        if (StringUtils.isNotBlank(request.getFirstName())) { // Atualiza o primeiro nome se nao for nulo ou vazio
+            changes.put("firstName", request.getFirstName());
         }
-        if(StringUtils.isNotBlank(request.getLastName()) && !user.getLastName().equals(request.getLastName())) { // Atualiza o sobrenome se for diferente e nao nulo ou vazio 
-            user.setLastName(request.getLastName());
+        if (StringUtils.isNotBlank(request.getLastName())) { // Atualiza o sobrenome se nao for nulo ou vazio
+            changes.put("lastName", request.getLastName());
         }
-        if(request.getDateOfBirth() != null && !request.getDateOfBirth().equals(user.getDateOfBirth())) { // Atualiza a data de nascimento se for diferente e nao nulo
-            user.setDateOfBirth(request.getDateOfBirth());
+        if (request.getDateOfBirth() != null) { // Atualiza a data de nascimento se nao for nula
+            changes.put("dateOfBirth", request.getDateOfBirth());
         }
+        return changes;
+    }
+
+
+    /**
+     * Mapeia a projecao de perfil do usuario (UserRepository.findProfileById) para o DTO de resposta do GET /me.
+     * @param view A projecao com as colunas de perfil e a versao do usuario.
+     * @return O ProfileResponse montado.
+    */
+    public ProfileResponse toProfileResponse(final UserProfileView view) {
+        return ProfileResponse.builder()
+            .id(view.getId())
+            .firstName(view.getFirstName())
+            .lastName(view.getLastName())
+            .email(view.getEmail())
+            .phoneNumber(view.getPhoneNumber())
+            .dateOfBirth(view.getDateOfBirth())
+            .profilePictureUrl(view.getProfilePictureUrl())
+            .emailVerified(view.isEmailVerified())
+            .phoneVerified(view.isPhoneVerified())
+            .createdDate(view.getCreatedDate())
+            .lastModifiedDate(view.getLastModifiedDate())
+            .version(view.getVersion())
+            .build();
     }
     
 }
@@ -66,7 +132,7 @@ public class UserMapper {
 
 /** Atenção!
  * Este mapper é responsável por converter entre diferentes representações de dados relacionadas ao usuário.
- * Ele inclui métodos para mapear um RegistrationRequest para uma entidade User e para mesclar informações de um ProfileUpdateRequest em uma 
- * entidade User existente.
+ * Ele inclui métodos para mapear um RegistrationRequest para uma entidade User, para converter um ProfileUpdateRequest nas colunas
+ * a serem atualizadas do usuário e para montar o ProfileResponse a partir da projeção de perfil.
  * A codificação de senhas é tratada usando um PasswordEncoder para garantir a segurança dos dados do usuário.
 */
@@ -0,0 +1,38 @@
+package com.api.spring_security_demo7.user;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface UserProfileView {
+
+    String getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    LocalDate getDateOfBirth();
+
+    String getProfilePictureUrl();
+
+    boolean isEmailVerified();
+
+    boolean isPhoneVerified();
+
+    LocalDateTime getCreatedDate();
+
+    LocalDateTime getLastModifiedDate();
+
+    Long getVersion();
+
+}
+
+/**
+ * Atenção!
+ * Projeção dos dados de perfil do usuário ({@link UserRepository#findProfileById(String)}). O Spring Data seleciona apenas
+ * estas colunas de {@code USERS}: sem a entidade gerenciada, sem as roles e sem o hash da senha.
+*/
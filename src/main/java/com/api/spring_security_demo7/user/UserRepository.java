@@ -1,18 +1,66 @@
 package com.api.spring_security_demo7.user;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, UserRepositoryCustom {
 
-    boolean existsByEmailIgnoreCase(String email);
+    boolean existsByEmailNormalized(String emailNormalized);
 
-    Optional<User> findByEmailIgnoreCase(String email);
+    @Transactional(readOnly = true)
+    Optional<User> findByEmailNormalized(String emailNormalized);
 
-    boolean existsByPhoneNumber(String phoneNumber);
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByEmailNormalized(String emailNormalized);
+
+    @Transactional  // No primário, mesmo com réplicas: usado logo após uma alteração da conta, que a réplica pode não ter
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findCurrentWithRolesByEmailNormalized(String emailNormalized);
+
+    boolean existsByPhoneNormalized(String phoneNormalized);
+
+    @Transactional  // No primário, mesmo com réplicas: o GET /me logo após uma alteração deve ver a nova versão
+    Optional<UserProfileView> findProfileById(String id);
+
+    @Transactional  // No primário, mesmo com réplicas: usado logo após alterações (bloqueio da conta, logout)
+    @Query("SELECT u.id FROM User u WHERE u.emailNormalized = :emailNormalized")
+    Optional<String> findIdByEmailNormalized(@Param("emailNormalized") String emailNormalized);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT u.password FROM User u WHERE u.id = :id")
+    Optional<String> findPasswordById(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword, u.lastModifiedDate = LOCAL DATETIME, u.version = u.version + 1 WHERE u.id = :id AND u.password = :currentPassword")
+    int updatePasswordIfUnchanged(@Param("id") String id, @Param("currentPassword") String currentPassword,
+            @Param("newPassword") String newPassword);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.enabled = :enabled, u.lastModifiedDate = LOCAL DATETIME, u.version = u.version + 1 WHERE u.id = :id AND u.enabled <> :enabled")
+    int updateEnabledIfChanged(@Param("id") String id, @Param("enabled") boolean enabled);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.locked = false, u.lockedUntil = null, u.lastModifiedDate = LOCAL DATETIME, u.version = u.version + 1 WHERE u.id = :id AND u.locked = true")
+    int unlockIfLocked(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.locked = true, u.lockedUntil = :lockedUntil, u.lastModifiedDate = LOCAL DATETIME, u.version = u.version + 1 WHERE u.emailNormalized = :emailNormalized AND (u.locked = false OR u.lockedUntil <= :now)")
+    int lockIfNotLocked(@Param("emailNormalized") String emailNormalized, @Param("lockedUntil") LocalDateTime lockedUntil,
+            @Param("now") LocalDateTime now);
 
 }
 
@@ -20,7 +68,27 @@ public interface UserRepository extends JpaRepository<User, String> {
  * Extende a interface JpaRepository para fornecer operações CRUD e funcionalidades adicionais para a entidade User.
  * 
  * Métodos personalizados:
- * - existsByEmailIgnoreCase: Verifica se um usuário com o email fornecido (ignorando maiúsculas/minúsculas) já existe no banco de dados.
- * - findByEmailIgnoreCase: Busca um usuário pelo email fornecido (ignorando maiúsculas/minúsculas) e retorna um Optional contendo o usuário, se encontrado.
- * - existsByPhoneNumber: Verifica se um usuário com o número de telefone fornecido já existe no banco de dados.
+ * - existsByEmailNormalized: Verifica se um usuário com o email normalizado (UserKeys.email) já existe no banco de dados.
+ * - findByEmailNormalized: Busca um usuário pelo email normalizado (UserKeys.email) e retorna um Optional contendo o usuário, se encontrado.
+ *   É uma igualdade exata em EMAIL_NORMALIZED, resolvida pelo índice único (o antigo ...IgnoreCase gerava LOWER(EMAIL) = LOWER(?),
+ *   que percorre a tabela). As roles não são carregadas (LAZY): as authorities vêm do ROLE_MASK.
+ * - findWithRolesByEmailNormalized: Igual ao anterior, carregando as roles no mesmo SELECT (JOIN em USERS_ROLES e ROLES).
+ * - findCurrentWithRolesByEmailNormalized: Igual ao anterior, lido no primário (UserDetailsCache, após uma alteração da conta).
+ * - findIdByEmailNormalized: Retorna apenas o ID do usuário pelo email normalizado (ex: log de auditoria do logout), lido no primário.
+ * - existsByPhoneNormalized: Verifica se um usuário com o telefone normalizado (UserKeys.phone) já existe no banco de dados.
+ * - findProfileById: Retorna a projeção UserProfileView (apenas as colunas de perfil e a versão), sem carregar a entidade.
+ * - findPasswordById: Retorna apenas o hash da senha do usuário (uma coluna, sem carregar a entidade).
+ * - updatePasswordIfUnchanged: Atualiza o hash da senha somente se o hash atual ainda for o informado (atualização condicional),
+ *   retornando a quantidade de linhas alteradas.
+ * - updateEnabledIfChanged: Ativa/desativa a conta em um único UPDATE condicional (WHERE IS_ENABLED <> :enabled); 0 linhas
+ *   alteradas indica que o usuário não existe ou já estava no estado pedido.
+ * - unlockIfLocked: Remove o bloqueio da conta em um único UPDATE condicional (WHERE IS_ACCOUNT_LOCKED = true).
+ * - lockIfNotLocked: Bloqueia a conta até lockedUntil em um único UPDATE condicional, se ela não estiver bloqueada (ou se o
+ *   bloqueio anterior já expirou); :now é o relógio da aplicação, o mesmo de lockedUntil e de User.isAccountNonLocked.
+ * - updateProfile (UserRepositoryCustom): UPDATE apenas das colunas de perfil informadas, opcionalmente condicional à versão
+ *   lida pelo cliente (If-Match).
+ *
+ * OBS. Os UPDATEs em lote (JPQL) não passam pela auditoria nem pelo @Version do JPA: LAST_MODIFIED_DATE e VERSION são
+ * atualizados na própria instrução, para que um save concorrente da entidade (com a versão anterior) falhe em vez de
+ * sobrescrever a alteração.
 */
\ No newline at end of file
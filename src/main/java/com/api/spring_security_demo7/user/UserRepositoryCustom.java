@@ -0,0 +1,24 @@
+package com.api.spring_security_demo7.user;
+
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Atualiza somente os atributos informados do usuário, em um único UPDATE (sem carregar a entidade).
+     *
+     * @param id              ID do usuário.
+     * @param changes         Atributos da entidade {@link User} (ex: "firstName") e seus novos valores.
+     * @param expectedVersion Versão que o cliente leu ({@code User.version}); a atualização só é aplicada se a versão
+     *                        ainda for essa. {@code null} aplica a atualização sobre qualquer versão.
+     * @return Quantidade de linhas encontradas (0 se o usuário não existir ou se a versão for outra).
+     */
+    int updateProfile(String id, Map<String, Object> changes, Long expectedVersion);
+
+}
+
+/**
+ * Atenção!
+ * Fragmento do {@link UserRepository} para atualizações cujas colunas só são conhecidas em tempo de execução
+ * (ex: atualização parcial do perfil), implementado com a Criteria API em {@code UserRepositoryCustomImpl}.
+*/
@@ -1,13 +1,20 @@
 package com.api.spring_security_demo7.user;
 
+import java.time.LocalDateTime;
+
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import com.api.spring_security_demo7.user.request.ChangePasswordRequest;
 import com.api.spring_security_demo7.user.request.ProfileUpdateRequest;
+import com.api.spring_security_demo7.user.response.ProfileResponse;
 
 public interface UserService extends UserDetailsService{
 
-    void updateProfileInfo(ProfileUpdateRequest profileUpdateRequest, String userId);
+    ProfileResponse getProfile(String userId);
+
+    String findCachedProfileETag(String userId);
+
+    void updateProfileInfo(ProfileUpdateRequest profileUpdateRequest, String userId, Long expectedVersion);
 
     void changedPassword(ChangePasswordRequest changePasswordRequest, String userId);
 
@@ -16,6 +23,10 @@ public interface UserService extends UserDetailsService{
     void reactivatedAccount(String userId);
 
     void deletedAccount(String userId);
+
+    void lockAccount(String email, LocalDateTime lockedUntil);
+
+    void unlockAccount(String userId);
     
 }
 
@@ -26,9 +37,14 @@ public interface UserService extends UserDetailsService{
  * Este serviço de usuário define várias operações relacionadas à gestão do perfil e da conta do usuário. 
  * 
  * Métodos:
- * - updateProfileInfo: Atualiza as informações do perfil do usuário com base nos dados fornecidos no ProfileUpdateRequest.
+ * - getProfile: Retorna o perfil do usuário a partir de uma projeção (sem a entidade e sem as roles), guardando o seu ETag em cache.
+ * - findCachedProfileETag: Retorna o ETag do perfil em cache, sem acesso ao banco (usado na resposta 304 do GET /me).
+ * - updateProfileInfo: Atualiza as informações do perfil do usuário com base nos dados fornecidos no ProfileUpdateRequest,
+ *   opcionalmente somente se o usuário ainda estiver na versão lida pelo cliente (expectedVersion).
  * - changedPassword: Altera a senha do usuário com base nos dados fornecidos no ChangePasswordRequest.
  * - deactivatedAccount: Desativa a conta do usuário com o ID fornecido.
  * - reactivatedAccount: Reativa a conta do usuário com o ID fornecido.
  * - deletedAccount: Exclui a conta do usuário com o ID fornecido.
+ * - lockAccount: Bloqueia a conta do usuário com o email fornecido até o instante informado (ex: após falhas consecutivas de login).
+ * - unlockAccount: Remove o bloqueio da conta antes da expiração (administradores).
 */
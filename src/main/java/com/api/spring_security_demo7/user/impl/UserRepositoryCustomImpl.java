@@ -0,0 +1,65 @@
+package com.api.spring_security_demo7.user.impl;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.api.spring_security_demo7.user.User;
+import com.api.spring_security_demo7.user.UserRepositoryCustom;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Monta {@code UPDATE USERS SET <colunas informadas>, LAST_MODIFIED_DATE = LOCALTIMESTAMP, VERSION = VERSION + 1 WHERE ID = ?
+     * [AND VERSION = ?]}. Sem alterações, apenas verifica se o usuário existe (na versão esperada).
+     */
+    @Override
+    @Transactional
+    public int updateProfile(final String id, final Map<String, Object> changes, final Long expectedVersion) {
+        final CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        if (changes.isEmpty()) {
+            final CriteriaQuery<Long> count = builder.createQuery(Long.class);
+            final Root<User> user = count.from(User.class);
+            count.select(builder.count(user)).where(matches(builder, user, id, expectedVersion));
+            return this.entityManager.createQuery(count).getSingleResult().intValue();
+        }
+        final CriteriaUpdate<User> update = builder.createCriteriaUpdate(User.class);
+        final Root<User> user = update.from(User.class);
+        changes.forEach(update::set);
+        // UPDATE em lote não passa pela auditoria do JPA; LOCAL DATETIME usa o relógio do banco, como as demais consultas
+        update.set(user.<LocalDateTime>get("lastModifiedDate"), builder.localDateTime());
+        update.set(user.<Long>get("version"), builder.sum(user.<Long>get("version"), 1L));  // nem pelo @Version
+        update.where(matches(builder, user, id, expectedVersion));
+        return this.entityManager.createQuery(update).executeUpdate();
+    }
+
+
+    private static Predicate matches(final CriteriaBuilder builder, final Root<User> user, final String id,
+            final Long expectedVersion) {
+        final Predicate byId = builder.equal(user.get("id"), id);
+        return expectedVersion == null ? byId : builder.and(byId, builder.equal(user.get("version"), expectedVersion));
+    }
+
+}
+
+/**
+ * Atenção!
+ * Implementação do {@link UserRepositoryCustom}, localizada pelo Spring Data pelo sufixo "Impl". Apenas as colunas
+ * alteradas entram no SET, sem o SELECT prévio do usuário (com as roles) e sem regravar todas as colunas como o
+ * {@code save} da entidade.
+ *
+ * OBS. Com a versão esperada (header If-Match do PATCH /me), a atualização só é aplicada se ninguém gravou o usuário
+ * desde a leitura do cliente; caso contrário nenhuma linha é alterada e o serviço responde 409.
+*/
@@ -1,21 +1,34 @@
 package com.api.spring_security_demo7.user.impl;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import com.api.spring_security_demo7.audit.AuditEventType;
+import com.api.spring_security_demo7.audit.AuditLog;
 import com.api.spring_security_demo7.exception.BusinessException;
 import com.api.spring_security_demo7.exception.ErrorCode;
+import com.api.spring_security_demo7.user.ProfileETagCache;
 import com.api.spring_security_demo7.user.User;
+import com.api.spring_security_demo7.user.UserAccountChangedEvent;
+import com.api.spring_security_demo7.user.UserDetailsCache;
+import com.api.spring_security_demo7.user.UserKeys;
 import com.api.spring_security_demo7.user.UserMapper;
 import com.api.spring_security_demo7.user.UserRepository;
 import com.api.spring_security_demo7.user.UserService;
 import com.api.spring_security_demo7.user.request.ChangePasswordRequest;
 import com.api.spring_security_demo7.user.request.ProfileUpdateRequest;
+import com.api.spring_security_demo7.user.response.ProfileResponse;
 
 import static com.api.spring_security_demo7.exception.ErrorCode.CHANGE_PASSWORD_MISMATCH;
+import static com.api.spring_security_demo7.exception.ErrorCode.CONCURRENT_MODIFICATION;
 import static com.api.spring_security_demo7.exception.ErrorCode.INVALID_CURRENT_PASSWORD;
 import static com.api.spring_security_demo7.exception.ErrorCode.USER_NOT_FOUND;
 
@@ -25,45 +38,118 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String ROLE_STORAGE_JOIN_TABLE = "join-table";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;;
     private final UserMapper userMapper;
+    private final UserDetailsCache userDetailsCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProfileETagCache profileETagCache;
+    private final AuditLog auditLog;
+
+    @Value("${app.security.roles.storage:bitmask}")
+    private String roleStorage;  // bitmask (USERS.ROLE_MASK) ou join-table (USERS_ROLES)
 
     /**
      * Carrega os detalhes do usuário com base no email fornecido.
+     * O resultado é servido pelo {@link UserDetailsCache}; o banco só é consultado em caso de miss
+     * (a consulta roda em uma transação somente leitura declarada no {@link UserRepository}). Logo após uma alteração da
+     * conta, o cache recarrega o usuário do primário, que já tem a alteração mesmo que as réplicas ainda não a tenham.
      * @param userEmail O email do usuário a ser carregado.
      * @return Os detalhes do usuário.
      * @throws UsernameNotFoundException Se o usuário com o email fornecido não for encontrado
     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(final String userEmail) throws UsernameNotFoundException {
-        return this.userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + userEmail));
+        return this.userDetailsCache.get(userEmail,
+                email -> findPrincipal(email).orElseThrow(() -> userNotFound(email)),
+                email -> this.userRepository.findCurrentWithRolesByEmailNormalized(UserKeys.email(email))
+                        .orElseThrow(() -> userNotFound(email)));
+    }
+
+
+    private static UsernameNotFoundException userNotFound(final String email) {
+        return new UsernameNotFoundException("User not found with username: " + email);
     }
 
 
     /**
-     * Atualiza as informações de perfil do usuário.
-     * @param profileUpdateRequest Objeto contendo as novas informações de perfil.
-     * @param userId O ID do usuário cujo perfil será atualizado.
+     * Busca o usuário com os dados necessários para montar as authorities.
+     * No modo {@code bitmask} é uma única leitura de {@code USERS} pelo índice único de EMAIL_NORMALIZED (authorities via ROLE_MASK);
+     * usuários ainda sem ROLE_MASK, ou o modo {@code join-table}, carregam as roles pelo JOIN em USERS_ROLES.
+     * @param email O email do usuário.
+     * @return O usuário, se existir.
+    */
+    private Optional<User> findPrincipal(final String email) {
+        final String emailNormalized = UserKeys.email(email);
+        if (ROLE_STORAGE_JOIN_TABLE.equals(this.roleStorage)) {
+            return this.userRepository.findWithRolesByEmailNormalized(emailNormalized);
+        }
+        final Optional<User> user = this.userRepository.findByEmailNormalized(emailNormalized);
+        if (user.isPresent() && user.get().getRoleMask() == null) {
+            return this.userRepository.findWithRolesByEmailNormalized(emailNormalized);
+        }
+        return user;
+    }
+
+
+    /**
+     * Retorna o perfil do usuário, lido por uma projeção apenas com as colunas de perfil e a versão.
+     * O ETag da versão lida fica em cache ({@link ProfileETagCache}) até a próxima alteração da conta.
+     * @param userId O ID do usuário.
+     * @return O perfil do usuário.
      * @throws BusinessException Se o usuário com o ID fornecido não for encontrado.
     */
     @Override
-    public void updateProfileInfo(final ProfileUpdateRequest profileUpdateRequest, final String userId) {
-        final User savedUser = this.userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));
+    public ProfileResponse getProfile(final String userId) {
+        return this.profileETagCache.load(userId, () -> this.userRepository.findProfileById(userId)
+                .map(this.userMapper::toProfileResponse)
+                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND)), ProfileResponse::getVersion);
+    }
 
-        this.userMapper.mergeUserInfo(savedUser, profileUpdateRequest);
-        this.userRepository.save(savedUser);
+
+    /**
+     * Retorna o ETag do perfil do usuário mantido em cache, sem acesso ao banco.
+     * @param userId O ID do usuário.
+     * @return O ETag, ou {@code null} se não estiver em cache.
+    */
+    @Override
+    public String findCachedProfileETag(final String userId) {
+        return this.profileETagCache.get(userId);
+    }
+
+
+    /**
+     * Atualiza as informações de perfil do usuário em um único UPDATE, apenas das colunas informadas.
+     * Com a versão esperada, o UPDATE é condicional a ela: uma alteração concorrente desde a leitura do cliente não é sobrescrita.
+     * @param profileUpdateRequest Objeto contendo as novas informações de perfil.
+     * @param userId O ID do usuário cujo perfil será atualizado.
+     * @param expectedVersion A versão do usuário lida pelo cliente (header If-Match), ou {@code null} para qualquer versão.
+     * @throws BusinessException Se o usuário com o ID fornecido não for encontrado ou se a versão não for mais a esperada.
+    */
+    @Override
+    public void updateProfileInfo(final ProfileUpdateRequest profileUpdateRequest, final String userId, final Long expectedVersion) {
+        final Map<String, Object> changes = this.userMapper.toProfileChanges(profileUpdateRequest);
+        if (this.userRepository.updateProfile(userId, changes, expectedVersion) == 0) {
+            if (expectedVersion != null && this.userRepository.existsById(userId)) {
+                // o usuário foi alterado por outra requisição desde a leitura, talvez em outra instância: o ETag local não vale mais
+                this.profileETagCache.invalidate(userId);
+                throw new BusinessException(CONCURRENT_MODIFICATION);
+            }
+            throw new BusinessException(USER_NOT_FOUND);
+        }
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId));
     }
 
 
     /**
      * Altera a senha do usuário.
+     * Lê apenas o hash atual e grava o novo com um UPDATE condicional a esse hash: uma troca concorrente não é sobrescrita.
      * @param changePasswordRequest Objeto contendo a senha atual, nova senha e confirmação da nova senha.
      * @param userId O ID do usuário cuja senha será alterada.
-     * @throws BusinessException Se as senhas não coincidirem, se a senha atual estiver incorreta ou se o usuário com o ID fornecido não for encontrado.
+     * @throws BusinessException Se as senhas não coincidirem, se a senha atual estiver incorreta, se o usuário com o ID fornecido não for encontrado
+     *                           ou se a senha for alterada por outra requisição durante a troca (CONCURRENT_MODIFICATION).
     */
     @Override
     public void changedPassword(final ChangePasswordRequest changePasswordRequest, final String userId) {
@@ -71,55 +157,60 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException(CHANGE_PASSWORD_MISMATCH, "New password and confirm new password do not match");  // lança exceção se as senhas nao coincidirem 
         }
 
-        final User savedUser = this.userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));  // busca o usuario pelo ID, se nao encontrar lança exceção
+        final String currentHash = this.userRepository.findPasswordById(userId)
+                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));  // busca apenas o hash da senha pelo ID, se nao encontrar lança exceção
 
-        if (!this.passwordEncoder.matches(changePasswordRequest.getCurrentPassword(), savedUser.getPassword())) {
+        if (!this.passwordEncoder.matches(changePasswordRequest.getCurrentPassword(), currentHash)) {
             throw new BusinessException(INVALID_CURRENT_PASSWORD, "Current password is incorrect"); // lança exceção se a senha atual estiver incorreta
         }
 
         final String encoded = this.passwordEncoder.encode(changePasswordRequest.getNewPassword()); // codifica a nova senha 
-        savedUser.setPassword(encoded); // atualiza a senha do usuario com a nova senha codificada
-        this.userRepository.save(savedUser); // salva as alterações no repositório
+        if (this.userRepository.updatePasswordIfUnchanged(userId, currentHash, encoded) == 0) {
+            throw new BusinessException(CONCURRENT_MODIFICATION); // o hash foi alterado desde a leitura (outra troca ou o rehash do login): 409, a senha informada conferia
+        }
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId)); // invalida os dados do usuário mantidos em cache
+        this.auditLog.record(AuditEventType.PASSWORD_CHANGED, userId, null, null); // registra a troca de senha no log de auditoria
     }
 
 
     /**
-     * Desativa a conta do usuário.
+     * Desativa a conta do usuário com um único UPDATE condicional ({@code WHERE IS_ENABLED = true}).
      * @param userId O ID do usuário cuja conta será desativada.
      * @throws BusinessException Se o usuário com o ID fornecido não for encontrado ou se a conta já estiver desativada.
     */
     @Override
     public void deactivatedAccount(final String userId) {
-        final User user = this.userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));  // busca o usuario pelo ID, se nao encontrar lança exceção
-
-        if (!user.isEnabled()) {
-            throw new BusinessException(ErrorCode.ACCOUNT_ALREADY_DEACTIVATED); // lança exceção se a conta ja estiver desativada. "!user.isEnabled()" verifica se a conta está ativa.
-        }
-
-        user.setEnabled(false); // desativa a conta do usuario
-        this.userRepository.save(user); // salva as alterações no repositório
+        updateEnabled(userId, false);
     }
 
 
 
     /*
-     * Reativa a conta do usuário.
+     * Reativa a conta do usuário com um único UPDATE condicional ({@code WHERE IS_ENABLED = false}).
      * @param userId O ID do usuário cuja conta será reativada.
      * @throws BusinessException Se o usuário com o ID fornecido não for encontrado ou se a conta já estiver reativada.
     */
     @Override
     public void reactivatedAccount(final String userId) {
-        final User user = this.userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException(USER_NOT_FOUND));  // busca o usuario pelo ID, se nao encontrar lança exceção
+        updateEnabled(userId, true);
+    }
 
-        if (user.isEnabled()) {
-            throw new BusinessException(ErrorCode.ACCOUNT_ALREADY_DEACTIVATED); // lança exceção se a conta ja estiver reativada. "user.isEnabled()" verifica se a conta está ativa.
-        }
 
-        user.setEnabled(true); // reativa a conta do usuario
-        this.userRepository.save(user); // salva as alterações no repositório
+    /**
+     * Altera o estado da conta. Nenhuma linha alterada significa que a conta já estava no estado pedido ou que o usuário não
+     * existe; só nesse caso é feita a consulta de existência para escolher o erro.
+     * @param userId O ID do usuário.
+     * @param enabled O novo estado da conta.
+    */
+    private void updateEnabled(final String userId, final boolean enabled) {
+        if (this.userRepository.updateEnabledIfChanged(userId, enabled) == 0) {
+            if (!this.userRepository.existsById(userId)) {
+                throw new BusinessException(USER_NOT_FOUND);
+            }
+            throw new BusinessException(ErrorCode.ACCOUNT_ALREADY_DEACTIVATED); // a conta ja estava no estado pedido
+        }
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId)); // invalida os dados do usuário mantidos em cache
+        this.auditLog.record(enabled ? AuditEventType.ACCOUNT_REACTIVATED : AuditEventType.ACCOUNT_DEACTIVATED, userId, null, null);
     }
 
     @Override
@@ -127,6 +218,47 @@ public class UserServiceImpl implements UserService {
         // este método precisa do restante das entidades
         // a lógica é apenas agendar um perfil para exclusão
         // e então uma tarefa agendada pegará os perfis e excluirá tudo
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId)); // a conta não deve continuar autenticando a partir do cache
+    }
+
+
+    /**
+     * Bloqueia a conta do usuário, impedindo novos logins até {@code lockedUntil} (ou até o desbloqueio por um administrador).
+     * Um único UPDATE condicional no primário ({@code WHERE IS_ACCOUNT_LOCKED = false OR LOCKED_UNTIL <= agora}), sem leitura
+     * prévia: não há versão lida de uma réplica atrasada para conflitar. Emails sem conta cadastrada e contas já bloqueadas
+     * são ignorados (um bloqueio expirado pode ser renovado).
+     * @param email O email da conta a ser bloqueada.
+     * @param lockedUntil Fim do bloqueio.
+    */
+    @Override
+    public void lockAccount(final String email, final LocalDateTime lockedUntil) {
+        final String emailNormalized = UserKeys.email(email);
+        if (this.userRepository.lockIfNotLocked(emailNormalized, lockedUntil, LocalDateTime.now()) == 0) {
+            return; // conta inexistente ou ja bloqueada
+        }
+        this.userRepository.findIdByEmailNormalized(emailNormalized).ifPresent(userId -> {
+            this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId)); // invalida os dados do usuário mantidos em cache
+            this.auditLog.record(AuditEventType.ACCOUNT_LOCKED, userId, email, null);
+        });
+    }
+
+
+    /**
+     * Remove o bloqueio da conta com um único UPDATE condicional ({@code WHERE IS_ACCOUNT_LOCKED = true}).
+     * Desbloquear uma conta que não está bloqueada não altera nada.
+     * @param userId O ID do usuário cuja conta será desbloqueada.
+     * @throws BusinessException Se o usuário com o ID fornecido não for encontrado.
+    */
+    @Override
+    public void unlockAccount(final String userId) {
+        if (this.userRepository.unlockIfLocked(userId) == 0) {
+            if (!this.userRepository.existsById(userId)) {
+                throw new BusinessException(USER_NOT_FOUND);
+            }
+            return; // a conta nao estava bloqueada
+        }
+        this.eventPublisher.publishEvent(new UserAccountChangedEvent(userId)); // invalida os dados do usuário mantidos em cache
+        this.auditLog.record(AuditEventType.ACCOUNT_UNLOCKED, userId, null, null);
     }
 
 }
@@ -135,12 +267,14 @@ public class UserServiceImpl implements UserService {
  * Atenção!
  * Esta classe é a implementação do serviço de usuário, responsável por gerenciar operações relacionadas aos usuários.
  * Ela implementa a interface UserService e fornece funcionalidades como carregar detalhes do usuário, atualizar informações de perfil, 
- * alterar senha, desativar e reativar contas.
+ * alterar senha, desativar, reativar, bloquear (temporariamente) e desbloquear contas.
  * A classe utiliza um UserRepository para interagir com o banco de dados, um PasswordEncoder para manipulação segura de senhas,
  * e um UserMapper para mapear dados entre diferentes representações.
  * Cada método é projetado para lidar com casos específicos, lançando exceções de negócio quando necessário para garantir a integridade dos dados e a segurança.
  * A anotação @Service indica que esta classe é um componente de serviço gerenciado pelo Spring, e @RequiredArgsConstructor é usada para injeção automática de dependências.
- * A anotação @Transactional é usada para gerenciar transações de banco de dados, garantindo que as operações sejam executadas de forma atômica.
+ * Os detalhes de autenticação são servidos pelo UserDetailsCache e o ETag do perfil pelo ProfileETagCache; cada alteração de conta
+ * publica um UserAccountChangedEvent para invalidá-los.
+ * Trocas de senha, desativações, reativações e bloqueios são registrados no log de auditoria (AuditLog), sem escrita síncrona no banco.
  * Esta implementação é crucial para a gestão de usuários em uma aplicação, especialmente em contextos que envolvem autenticação e autorização.
  * 
 */
@@ -0,0 +1,37 @@
+package com.api.spring_security_demo7.user.response;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProfileResponse {
+
+    private String id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phoneNumber;
+    private LocalDate dateOfBirth;
+    private String profilePictureUrl;
+    private boolean emailVerified;
+    private boolean phoneVerified;
+    private LocalDateTime createdDate;
+    private LocalDateTime lastModifiedDate;
+    private Long version;  // Mesmo valor do ETag; enviado no If-Match do PATCH /me
+
+}
+
+/**
+ * Este DTO response é usado para retornar o perfil do usuário autenticado (GET /api/v1/users/me).
+ * Ele contém os dados de perfil e de verificação da conta, sem a senha e sem as roles.
+*/
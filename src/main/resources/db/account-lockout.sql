@@ -0,0 +1,7 @@
+-- Bloqueio temporário da conta após falhas consecutivas de login. MySQL 8.
+-- O ddl-auto=update cria a mesma coluna; este script é para ambientes em que o schema é aplicado manualmente.
+--
+-- LOCKED_UNTIL NULL com IS_ACCOUNT_LOCKED = TRUE significa bloqueio até o desbloqueio por um administrador. Os bloqueios
+-- gravados antes desta coluna vieram todos das falhas de login, que agora expiram: eles passam a expirar imediatamente.
+ALTER TABLE USERS ADD COLUMN LOCKED_UNTIL DATETIME(6) NULL, ALGORITHM = INSTANT;
+UPDATE USERS SET LOCKED_UNTIL = NOW(6), VERSION = VERSION + 1 WHERE IS_ACCOUNT_LOCKED = TRUE AND LOCKED_UNTIL IS NULL;
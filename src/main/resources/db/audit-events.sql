@@ -0,0 +1,14 @@
+-- Tabela do log de auditoria (somente inserção), gravada em lote pelo AuditLog. MySQL 8.
+-- O ddl-auto=update cria a mesma tabela; este script é para ambientes em que o schema é aplicado manualmente.
+--
+-- O índice (OCCURRED_AT, ID) atende à paginação por keyset de GET /api/v1/audit/events (mais recentes primeiro).
+CREATE TABLE IF NOT EXISTS AUDIT_EVENTS (
+    ID          BINARY(16)   NOT NULL,
+    OCCURRED_AT DATETIME(6)  NOT NULL,
+    EVENT_TYPE  VARCHAR(32)  NOT NULL,
+    USER_ID     BINARY(16)   NULL,
+    EMAIL       VARCHAR(255) NULL,
+    CLIENT_IP   VARCHAR(45)  NULL,
+    PRIMARY KEY (ID),
+    INDEX IDX_AUDIT_EVENTS_OCCURRED_AT (OCCURRED_AT, ID)
+) ENGINE = InnoDB;
@@ -0,0 +1,18 @@
+-- Chaves de assinatura dos JWTs compartilhadas entre as instâncias (KeyRing). MySQL 8.
+-- O ddl-auto=update cria a mesma tabela; este script é para ambientes em que o schema é aplicado manualmente.
+--
+-- REPLACES_KID único: cada chave tem uma única sucessora, mesmo que várias instâncias gerem a próxima chave ao mesmo tempo.
+-- PRIVATE_KEY contém a chave privada criptografada (AES-256-GCM, "v1:" + Base64) com a KEK de
+-- app.security.jwt.key-encryption-key, que não é gravada no banco. Linhas antigas, em Base64 puro, são regravadas
+-- criptografadas pela aplicação na primeira leitura.
+CREATE TABLE IF NOT EXISTS JWT_SIGNING_KEYS (
+    KID          VARCHAR(22)  NOT NULL,
+    ALGORITHM    VARCHAR(16)  NOT NULL,
+    PUBLIC_KEY   TEXT         NOT NULL,
+    PRIVATE_KEY  TEXT         NOT NULL,
+    ACTIVATES_AT DATETIME(6)  NOT NULL,
+    REPLACES_KID VARCHAR(22)  NULL,
+    CREATED_AT   DATETIME(6)  NOT NULL,
+    PRIMARY KEY (KID),
+    CONSTRAINT UK_JWT_SIGNING_KEYS_REPLACES_KID UNIQUE (REPLACES_KID)
+) ENGINE = InnoDB;
@@ -0,0 +1,31 @@
+-- Colunas normalizadas de busca de USERS (EMAIL_NORMALIZED e PHONE_NORMALIZED), com os índices únicos no lugar dos de EMAIL e
+-- PHONE_NUMBER. MySQL 8. Executar antes de subir a versão que busca por EMAIL_NORMALIZED: usuários sem a coluna preenchida
+-- não seriam encontrados no login.
+--
+-- O cálculo é o mesmo de UserKeys: email sem espaços nas pontas e em minúsculas; telefone em E.164 ("+" e apenas dígitos).
+
+-- 1. Novas colunas, preenchidas a partir dos valores atuais
+ALTER TABLE USERS ADD COLUMN EMAIL_NORMALIZED VARCHAR(255) NULL, ADD COLUMN PHONE_NORMALIZED VARCHAR(16) NULL;
+
+UPDATE USERS
+SET EMAIL_NORMALIZED = LOWER(TRIM(EMAIL)),
+    PHONE_NORMALIZED = CONCAT('+', REGEXP_REPLACE(PHONE_NUMBER, '[^0-9]', ''))
+WHERE EMAIL_NORMALIZED IS NULL OR PHONE_NORMALIZED IS NULL;
+
+-- 2. Remove os índices únicos antigos de EMAIL e PHONE_NUMBER, qualquer que seja o nome: UK_USERS_EMAIL e
+--    UK_USERS_PHONE_NUMBER, ou os nomes gerados pelo Hibernate (UK + hash) quando o schema veio do ddl-auto com unique = true.
+SET @drop_indexes = (
+    SELECT GROUP_CONCAT(DISTINCT CONCAT('DROP INDEX `', INDEX_NAME, '`') SEPARATOR ', ')
+    FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'USERS' AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'
+      AND COLUMN_NAME IN ('EMAIL', 'PHONE_NUMBER'));
+SET @drop_sql = IF(@drop_indexes IS NULL, 'DO 0', CONCAT('ALTER TABLE USERS ', @drop_indexes));
+PREPARE drop_stmt FROM @drop_sql;
+EXECUTE drop_stmt;
+DEALLOCATE PREPARE drop_stmt;
+
+-- 3. Cria os novos índices únicos. Falha se houver duplicados que só diferem na formatação: devem ser resolvidos antes
+--    (SELECT EMAIL_NORMALIZED, COUNT(*) FROM USERS GROUP BY EMAIL_NORMALIZED HAVING COUNT(*) > 1).
+ALTER TABLE USERS
+    ADD CONSTRAINT UK_USERS_EMAIL_NORMALIZED UNIQUE (EMAIL_NORMALIZED),
+    ADD CONSTRAINT UK_USERS_PHONE_NORMALIZED UNIQUE (PHONE_NORMALIZED);
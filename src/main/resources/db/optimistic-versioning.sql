@@ -0,0 +1,6 @@
+-- Coluna VERSION (controle de concorrência otimista, @Version) em USERS e ROLES. MySQL 8.
+-- O ddl-auto=update cria as mesmas colunas; este script é para ambientes em que o schema é aplicado manualmente.
+--
+-- As linhas existentes começam na versão 0 (DEFAULT). ALGORITHM=INSTANT evita a cópia da tabela.
+ALTER TABLE USERS ADD COLUMN VERSION BIGINT NOT NULL DEFAULT 0, ALGORITHM = INSTANT;
+ALTER TABLE ROLES ADD COLUMN VERSION BIGINT NOT NULL DEFAULT 0, ALGORITHM = INSTANT;
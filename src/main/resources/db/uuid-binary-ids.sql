@@ -0,0 +1,46 @@
+-- Migração das chaves primárias de USERS e ROLES (e das chaves estrangeiras de USERS_ROLES) de VARCHAR(255) para BINARY(16).
+-- MySQL 8. Executar com a aplicação parada, antes de subir a versão com UuidV7Id/UuidBinaryType:
+-- o spring.jpa.hibernate.ddl-auto=update não altera o tipo de colunas existentes.
+--
+-- Os IDs existentes (UUIDv4) são mantidos: UUID_TO_BIN(ID) grava os mesmos 16 bytes que UuidV7.toBytes(ID), então os
+-- claims "userId" dos tokens já emitidos continuam válidos. Apenas os novos IDs são ordenados pelo tempo.
+-- OBS. UUID_TO_BIN sem o argumento swap_flag: a ordem dos bytes já é a ordem de tempo para UUIDv7.
+
+-- 1. Novas colunas binárias preenchidas a partir dos IDs atuais
+ALTER TABLE USERS ADD COLUMN ID_BIN BINARY(16) NULL;
+ALTER TABLE ROLES ADD COLUMN ID_BIN BINARY(16) NULL;
+ALTER TABLE USERS_ROLES ADD COLUMN USERS_ID_BIN BINARY(16) NULL, ADD COLUMN ROLES_ID_BIN BINARY(16) NULL;
+
+UPDATE USERS SET ID_BIN = UUID_TO_BIN(ID);
+UPDATE ROLES SET ID_BIN = UUID_TO_BIN(ID);
+UPDATE USERS_ROLES SET USERS_ID_BIN = UUID_TO_BIN(USERS_ID), ROLES_ID_BIN = UUID_TO_BIN(ROLES_ID);
+
+-- 2. Remove as chaves estrangeiras de USERS_ROLES (nomes gerados pelo Hibernate)
+SET @drop_foreign_keys = (
+    SELECT CONCAT('ALTER TABLE USERS_ROLES ', GROUP_CONCAT('DROP FOREIGN KEY ', CONSTRAINT_NAME SEPARATOR ', '))
+    FROM information_schema.TABLE_CONSTRAINTS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'USERS_ROLES' AND CONSTRAINT_TYPE = 'FOREIGN KEY');
+SET @drop_foreign_keys = COALESCE(@drop_foreign_keys, 'DO 0');
+PREPARE statement FROM @drop_foreign_keys;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- 3. Troca as colunas: o índice clusterizado é reconstruído com chaves de 16 bytes
+ALTER TABLE USERS_ROLES DROP COLUMN USERS_ID, DROP COLUMN ROLES_ID;
+ALTER TABLE USERS_ROLES
+    RENAME COLUMN USERS_ID_BIN TO USERS_ID,
+    RENAME COLUMN ROLES_ID_BIN TO ROLES_ID;
+ALTER TABLE USERS_ROLES MODIFY USERS_ID BINARY(16) NOT NULL, MODIFY ROLES_ID BINARY(16) NOT NULL;
+
+ALTER TABLE USERS DROP PRIMARY KEY, DROP COLUMN ID;
+ALTER TABLE USERS RENAME COLUMN ID_BIN TO ID;
+ALTER TABLE USERS MODIFY ID BINARY(16) NOT NULL, ADD PRIMARY KEY (ID);
+
+ALTER TABLE ROLES DROP PRIMARY KEY, DROP COLUMN ID;
+ALTER TABLE ROLES RENAME COLUMN ID_BIN TO ID;
+ALTER TABLE ROLES MODIFY ID BINARY(16) NOT NULL, ADD PRIMARY KEY (ID);
+
+-- 4. Recria as chaves estrangeiras
+ALTER TABLE USERS_ROLES
+    ADD CONSTRAINT FK_USERS_ROLES_USERS FOREIGN KEY (USERS_ID) REFERENCES USERS (ID),
+    ADD CONSTRAINT FK_USERS_ROLES_ROLES FOREIGN KEY (ROLES_ID) REFERENCES ROLES (ID);
@@ -0,0 +1,63 @@
+package com.api.spring_security_demo7.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditLogTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void createTable() {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:audit-log-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.meterRegistry = new SimpleMeterRegistry();
+        // CHECK apenas para provocar a rejeição de uma linha específica do lote
+        this.jdbcTemplate.execute("""
+                CREATE TABLE AUDIT_EVENTS (
+                    ID BINARY(16) NOT NULL PRIMARY KEY,
+                    OCCURRED_AT TIMESTAMP(6) NOT NULL,
+                    EVENT_TYPE VARCHAR(32) NOT NULL,
+                    USER_ID BINARY(16) NULL,
+                    EMAIL VARCHAR(255) NULL CHECK (EMAIL <> 'rejected@example.com'),
+                    CLIENT_IP VARCHAR(45) NULL)
+                """);
+    }
+
+    @Test
+    void oversizedFieldsAreTruncatedToTheColumnLength() {
+        final AuditLog auditLog = new AuditLog(this.jdbcTemplate, this.meterRegistry, 16, 500, 50, "drop");
+        auditLog.record(AuditEventType.LOGIN_FAILED, null, "a".repeat(400) + "@example.com", "1".repeat(100));
+        auditLog.shutdown();
+
+        final List<String> emails = this.jdbcTemplate.queryForList("SELECT EMAIL FROM AUDIT_EVENTS", String.class);
+        assertThat(emails).singleElement().satisfies(email -> assertThat(email).hasSize(255));
+        assertThat(this.jdbcTemplate.queryForObject("SELECT LENGTH(CLIENT_IP) FROM AUDIT_EVENTS", Integer.class)).isEqualTo(45);
+        assertThat(this.meterRegistry.get("audit.events.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void rejectedRowDoesNotDiscardTheRestOfTheBatch() {
+        final AuditLog auditLog = new AuditLog(this.jdbcTemplate, this.meterRegistry, 16, 500, 60_000, "drop");
+        auditLog.record(AuditEventType.LOGIN_FAILED, null, "first@example.com", "10.0.0.1");
+        auditLog.record(AuditEventType.LOGIN_FAILED, null, "rejected@example.com", "10.0.0.1");
+        auditLog.record(AuditEventType.LOGIN_THROTTLED, null, "third@example.com", "10.0.0.1");
+        auditLog.shutdown();
+
+        assertThat(this.jdbcTemplate.queryForList("SELECT EMAIL FROM AUDIT_EVENTS ORDER BY ID", String.class))
+                .containsExactlyInAnyOrder("first@example.com", "third@example.com");
+        assertThat(this.meterRegistry.get("audit.events.written").counter().count()).isEqualTo(2);
+        assertThat(this.meterRegistry.get("audit.events.failed").counter().count()).isEqualTo(1);
+    }
+
+}
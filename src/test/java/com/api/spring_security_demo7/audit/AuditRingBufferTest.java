@@ -0,0 +1,79 @@
+package com.api.spring_security_demo7.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class AuditRingBufferTest {
+
+    @Test
+    void fullBufferRejectsUntilTheConsumerDrains() {
+        final AuditRingBuffer buffer = new AuditRingBuffer(5);
+        assertThat(buffer.capacity()).isEqualTo(8);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(i, AuditEventType.LOGIN_FAILED, null, "user@example.com", "10.0.0.1")).isTrue();
+        }
+        assertThat(buffer.offer(8, AuditEventType.LOGIN_FAILED, null, "user@example.com", "10.0.0.1")).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+
+        final List<Long> drained = new ArrayList<>();
+        assertThat(buffer.drain((occurredAt, type, userId, email, clientIp) -> drained.add(occurredAt), 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0L, 1L, 2L);
+        assertThat(buffer.offer(8, AuditEventType.LOGIN_FAILED, null, "user@example.com", "10.0.0.1")).isTrue();
+        assertThat(buffer.size()).isEqualTo(6);
+    }
+
+    @Test
+    void concurrentProducersDeliverEveryEventOnceAndInOrder() throws Exception {
+        final int producers = 8;
+        final int eventsPerProducer = 10_000;
+        final AuditRingBuffer buffer = new AuditRingBuffer(1024);  // Bem menor que o total: os produtores dão várias voltas
+        final ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                final String userId = String.valueOf(producer);
+                futures.add(executor.submit(() -> {
+                    for (long sequence = 0; sequence < eventsPerProducer; sequence++) {
+                        while (!buffer.offer(sequence, AuditEventType.LOGIN_SUCCEEDED, userId, null, null)) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+
+            // Último valor recebido de cada produtor: cada um publica 0, 1, 2, ... e deve ser lido nessa ordem, sem perdas
+            final long[] next = new long[producers];
+            final boolean[] ordered = { true };
+            int received = 0;
+            while (received < producers * eventsPerProducer) {
+                final int drained = buffer.drain((occurredAt, type, userId, email, clientIp) -> {
+                    final int producer = Integer.parseInt(userId);
+                    ordered[0] &= occurredAt == next[producer];
+                    next[producer] = occurredAt + 1;
+                }, 256);
+                if (drained == 0) {
+                    Thread.yield();
+                }
+                received += drained;
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+
+            assertThat(ordered[0]).isTrue();
+            assertThat(next).containsOnly(eventsPerProducer);
+            assertThat(buffer.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.api.spring_security_demo7.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.api.spring_security_demo7.validation.EmailDomainValidator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailDomainValidatorBenchmark {
+
+    private EmailDomainValidator validator;
+
+    @Setup
+    public void setUp() {
+        this.validator = new EmailDomainValidator(List.of("mailinator", "yopmail", "10minutemail", "guerrillamail", "tempmail"));
+    }
+
+    @Benchmark
+    public boolean allowedDomain() {
+        return this.validator.isValid("daniel@gmail.com", null);
+    }
+
+    @Benchmark
+    public boolean blockedDomain() {
+        return this.validator.isValid("someone@Mailinator.com", null);
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.api.spring_security_demo7.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.api.spring_security_demo7.common.UuidV7;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class IdStrategyBenchmark {
+
+    private static final int BATCH = 1000;
+
+    // uuid4-char36: GenerationType.UUID anterior (String aleatória); uuid7-binary16: UuidV7 em BINARY(16)
+    @Param({"uuid4-char36", "uuid7-binary16"})
+    private String strategy;
+
+    // Linhas já existentes antes da medição (ex: -p rows=10000000 para a tabela de 10M)
+    @Param({"1000000"})
+    private int rows;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        this.directory = Files.createTempDirectory("id-strategy");
+        // Banco em arquivo: DISK_SPACE_USED mede as páginas realmente ocupadas pela tabela e pelo índice da chave primária
+        this.connection = DriverManager.getConnection("jdbc:h2:file:" + this.directory.resolve("ids") + ";MODE=MySQL");
+        this.connection.setAutoCommit(false);
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE IDS (ID " + (binary() ? "BINARY(16)" : "VARCHAR(36)")
+                    + " NOT NULL PRIMARY KEY, EMAIL VARCHAR(255) NOT NULL)");
+        }
+        this.insert = this.connection.prepareStatement("INSERT INTO IDS (ID, EMAIL) VALUES (?, ?)");
+        for (int i = 0; i < this.rows; i += BATCH) {
+            insertBatch();
+        }
+        printTableSize();  // Mesma quantidade de linhas nas duas estratégias (antes das inserções medidas)
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        this.connection.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * INSERT de um lote de usuários (throughput em linhas por segundo) sobre a tabela já populada.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] insert() throws SQLException {
+        return insertBatch();
+    }
+
+    private void printTableSize() throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CHECKPOINT SYNC");
+            try (ResultSet result = statement.executeQuery("SELECT COUNT(*), DISK_SPACE_USED('IDS') FROM IDS")) {
+                result.next();
+                System.out.printf("%n%s: %d rows, %.1f MB (%.1f bytes/row)%n", this.strategy, result.getLong(1),
+                        result.getLong(2) / 1048576.0, (double) result.getLong(2) / result.getLong(1));
+            }
+        }
+    }
+
+    private int[] insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH; i++) {
+            if (binary()) {
+                this.insert.setBytes(1, UuidV7.toBytes(UuidV7.randomUuid()));
+            } else {
+                this.insert.setString(1, UUID.randomUUID().toString());
+            }
+            this.insert.setString(2, "user@example.com");
+            this.insert.addBatch();
+        }
+        final int[] counts = this.insert.executeBatch();
+        this.connection.commit();
+        return counts;
+    }
+
+    private boolean binary() {
+        return "uuid7-binary16".equals(this.strategy);
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.api.spring_security_demo7.benchmark;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.security.JwtService;
+import com.api.spring_security_demo7.security.SigningAlgorithm;
+import com.api.spring_security_demo7.security.ValidatedToken;
+import com.api.spring_security_demo7.user.User;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"RS256", "ES256", "ED25519"})
+    private SigningAlgorithm algorithm;
+
+    private JwtService jwtService;
+    private User user;
+    private String accessToken;
+    private String refreshToken;
+    private String familyId;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.jwtService = new JwtService(this.algorithm, this.algorithm.generateKeyPair(), 900_000L, 604_800_000L);
+        this.user = User.builder()
+                .id("3f1c2a9e-8d4b-4c1e-9a7f-2b6d5e8c1a00")
+                .email("daniel@gmail.com")
+                .enabled(true)
+                .roles(List.of(Role.builder().name("ROLE_USER").build()))
+                .build();
+        this.accessToken = this.jwtService.generateAccessToken(this.user);
+        this.familyId = UUID.randomUUID().toString();
+        this.refreshToken = this.jwtService.generateRefreshToken(this.user.getUsername(), this.familyId,
+                UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return this.jwtService.generateAccessToken(this.user);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return this.jwtService.generateRefreshToken(this.user.getUsername(), this.familyId,
+                UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public ValidatedToken validateToken() {
+        return this.jwtService.validateToken(this.accessToken);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return this.jwtService.extractUsername(this.accessToken);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return this.jwtService.isTokenValid(this.accessToken, this.user.getUsername());
+    }
+
+    // Mesmo fluxo de AuthenticationServiceImpl.refreshToken (sem a carga do usuário): valida o Refresh Token e emite um novo Access Token
+    @Benchmark
+    public String refreshAccessToken() {
+        this.jwtService.validateRefreshToken(this.refreshToken);
+        return this.jwtService.generateAccessToken(this.user);
+    }
+
+}
+
+/**
+ * Benchmark do caminho de tokens do {@link JwtService} para cada {@link SigningAlgorithm}.
+ * Os métodos {@code generate*} medem a assinatura e os métodos de leitura medem a verificação,
+ * permitindo comparar ops/s de assinatura e verificação entre RS256, ES256 e Ed25519.
+*/
@@ -0,0 +1,123 @@
+package com.api.spring_security_demo7.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.api.spring_security_demo7.common.OptimisticRetry;
+import com.api.spring_security_demo7.common.UuidV7;
+import com.api.spring_security_demo7.role.AuthoritySet;
+import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.role.RoleRegistry;
+import com.api.spring_security_demo7.role.RoleRepository;
+import com.api.spring_security_demo7.user.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PrincipalLoadBenchmark {
+
+    // Para a tabela de 10M usuários: -p users=10000000 (H2 em memória precisa de ~8 GB de heap: -jvmArgs -Xmx8g)
+    @Param({"100000"})
+    private int users;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        this.sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Role.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:principal-load;MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .buildSessionFactory();
+
+        final Role userRole = this.sessionFactory.fromTransaction(session -> {
+            final Role role = new Role();
+            role.setName("ROLE_USER");
+            role.setBit(0);
+            role.setCreatedBy("APP");
+            role.setCreatedDate(LocalDateTime.now());
+            session.persist(role);
+            session.flush();
+
+            // Carga direta em SQL: a mesma linha de usuário nos dois formatos (ROLE_MASK e USERS_ROLES)
+            session.createNativeMutationQuery("""
+                    INSERT INTO USERS (ID, FIRST_NAME, LAST_NAME, EMAIL, PHONE_NUMBER, PASSWORD, IS_ENABLED, IS_ACCOUNT_LOCKED,
+                        CREDENTIALS_EXPIRED, IS_EMAIL_VERIFIED, IS_PHONE_VERIFIED, CREATED_DATE, ROLE_MASK, EMAIL_NORMALIZED, PHONE_NORMALIZED)
+                    SELECT HEXTORAW(LPAD(CAST(X AS VARCHAR), 32, '0')), 'Bench', 'User', 'user' || X || '@example.com', CAST(11900000000 + X AS VARCHAR),
+                        'hash', TRUE, FALSE, FALSE, FALSE, FALSE, CURRENT_TIMESTAMP, 1,
+                        'user' || X || '@example.com', '+' || CAST(11900000000 + X AS VARCHAR)
+                    FROM SYSTEM_RANGE(1, :users)
+                    """).setParameter("users", this.users).executeUpdate();
+            session.createNativeMutationQuery("INSERT INTO USERS_ROLES (USERS_ID, ROLES_ID) SELECT HEXTORAW(LPAD(CAST(X AS VARCHAR), 32, '0')), :roleId FROM SYSTEM_RANGE(1, :users)")
+                    .setParameter("roleId", UuidV7.toBytes(role.getId()))
+                    .setParameter("users", this.users)
+                    .executeUpdate();
+            return role;
+        });
+
+        // Registro de roles com o ROLE_BIT da role criada acima (sem Spring)
+        final RoleRepository roleRepository = (RoleRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { RoleRepository.class },
+                (proxy, method, args) -> "findAll".equals(method.getName()) ? List.of(userRole) : null);
+        new RoleRegistry(roleRepository, new OptimisticRetry(1, 0, new SimpleMeterRegistry())).reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.sessionFactory.close();
+    }
+
+    /**
+     * Mapeamento anterior (roles EAGER): usuário + JOIN em USERS_ROLES e ROLES.
+     */
+    @Benchmark
+    public AuthoritySet joinTable() {
+        return this.sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("from User u left join fetch u.roles where u.emailNormalized = :email", User.class)
+                .setParameter("email", randomEmail())
+                .getSingleResult()
+                .getAuthorities());
+    }
+
+    /**
+     * ROLE_MASK: uma única linha de USERS pelo índice único de EMAIL_NORMALIZED.
+     */
+    @Benchmark
+    public AuthoritySet bitmask() {
+        return this.sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("from User u where u.emailNormalized = :email", User.class)
+                .setParameter("email", randomEmail())
+                .getSingleResult()
+                .getAuthorities());
+    }
+
+    private String randomEmail() {
+        return "user" + (ThreadLocalRandom.current().nextInt(this.users) + 1) + "@example.com";
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.api.spring_security_demo7.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.user.User;
+import com.api.spring_security_demo7.user.UserKeys;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    // Hash fixo: o benchmark mede o acesso ao banco, não o BCrypt (ver PasswordEncoderBenchmark)
+    private static final String PASSWORD_HASH = "{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1CqOvvQ4Kbb5S5F8XQb0N2a";
+
+    // Quantidade de usuários que já possuem ROLE_USER antes da medição
+    @Param({"1000"})
+    private int existingUsers;
+
+    // Contador do registro em execução na thread, incrementado a cada statement preparado pelo Hibernate
+    private static final ThreadLocal<Statements> CURRENT = new ThreadLocal<>();
+
+    private SessionFactory sessionFactory;
+    private String userRoleId;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        this.sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Role.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:registration;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.LOG_SESSION_METRICS, "false")
+                .setStatementInspector(sql -> {
+                    final Statements counters = CURRENT.get();
+                    if (counters != null) {
+                        counters.statements++;
+                    }
+                    return sql;
+                })
+                .buildSessionFactory();
+
+        this.userRoleId = this.sessionFactory.fromTransaction(session -> {
+            final Role role = new Role();
+            role.setName("ROLE_USER");
+            role.setCreatedBy("APP");
+            role.setCreatedDate(LocalDateTime.now());
+            session.persist(role);
+            for (int i = 0; i < this.existingUsers; i++) {
+                session.persist(newUser(List.of(role)));
+            }
+            return role.getId();
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.sessionFactory.close();
+    }
+
+    /**
+     * Contador de statements por registro, reportado pelo JMH ao lado do throughput (métrica {@code statements}):
+     * statements/s dividido por ops/s = statements por registro.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Statements {
+        public long statements;
+    }
+
+    /**
+     * Simulação do fluxo anterior do registro (o código antigo não existe mais na árvore): as mesmas consultas que
+     * existsByEmailIgnoreCase, existsByPhoneNumber e findByName("ROLE_USER") geravam, o INSERT do usuário e a atualização
+     * de Role.users seguida de roleRepository.save, executados diretamente na Session, sem Spring Data.
+     */
+    @Benchmark
+    public String legacyRegistration(final Statements counters) {
+        return measure(counters, () -> this.sessionFactory.fromTransaction(session -> {
+            final User user = newUser(new ArrayList<>());
+            final boolean emailExists = session
+                    .createSelectionQuery("select count(u) > 0 from User u where lower(u.email) = lower(:email)", Boolean.class)
+                    .setParameter("email", user.getEmail())
+                    .getSingleResult();
+            final boolean phoneExists = session
+                    .createSelectionQuery("select count(u) > 0 from User u where u.phoneNumber = :phoneNumber", Boolean.class)
+                    .setParameter("phoneNumber", user.getPhoneNumber())
+                    .getSingleResult();
+            if (emailExists || phoneExists) {
+                throw new IllegalStateException("Duplicate user");
+            }
+            final Role role = session.createSelectionQuery("from Role r where r.name = :name", Role.class)
+                    .setParameter("name", "ROLE_USER")
+                    .getSingleResult();
+            user.getRoles().add(role);
+            session.persist(user);
+
+            final List<User> users = new ArrayList<>();
+            users.add(user);
+            role.setUsers(users);
+            session.merge(role);
+            return user.getId();
+        }));
+    }
+
+    /**
+     * Fluxo atual do registro, com as mesmas operações de AuthenticationServiceImpl.register executadas diretamente na
+     * Session (sem o contexto Spring): referência à role sem SELECT e INSERTs em USERS e USERS_ROLES, com a unicidade
+     * garantida pelas constraints.
+     */
+    @Benchmark
+    public String constraintRegistration(final Statements counters) {
+        return measure(counters, () -> this.sessionFactory.fromTransaction(session -> {
+            final List<Role> roles = new ArrayList<>();
+            roles.add(session.getReference(Role.class, this.userRoleId));
+            final User user = newUser(roles);
+            session.persist(user);
+            session.flush();
+            return user.getId();
+        }));
+    }
+
+    private static String measure(final Statements counters, final Supplier<String> registration) {
+        CURRENT.set(counters);
+        try {
+            return registration.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    private User newUser(final List<Role> roles) {
+        final long n = this.sequence.incrementAndGet();
+        final String email = "user" + n + "@example.com";
+        final String phoneNumber = String.valueOf(11_900_000_000L + n);
+        return User.builder()
+                .firstName("Bench")
+                .lastName("User")
+                .email(email)
+                .emailNormalized(UserKeys.email(email))
+                .phoneNumber(phoneNumber)
+                .phoneNormalized(UserKeys.phone(phoneNumber))
+                .password(PASSWORD_HASH)
+                .enabled(true)
+                .createdDate(LocalDateTime.now())
+                .roles(roles)
+                .build();
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.api.spring_security_demo7.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong replicaLag = new AtomicLong();
+    private ReplicaRoutingDataSource replicas;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        // Dois bancos H2 embarcados no papel de primário e réplica, cada um identificado pelo conteúdo de SERVER
+        final DataSource primary = embedded("primary");
+        final DataSource replica = embedded("replica");
+
+        this.replicas = new ReplicaRoutingDataSource(primary, List.of(replica), connection -> {
+            if (this.replicaLag.get() == Long.MAX_VALUE) {
+                throw new SQLException("Connection refused");
+            }
+            return this.replicaLag.get();
+        }, 5, new SimpleMeterRegistry());
+
+        final LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(this.replicas);
+
+        final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        this.replicas.checkHealth();
+
+        assertThat(serverIn(this.readOnly)).isEqualTo("replica");
+        assertThat(serverIn(this.readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStayOnThePrimaryUntilTheFirstHealthCheck() {
+        assertThat(serverIn(this.readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        this.replicaLag.set(30);
+        this.replicas.checkHealth();
+        assertThat(serverIn(this.readOnly)).isEqualTo("primary");
+
+        this.replicaLag.set(1);
+        this.replicas.checkHealth();
+        assertThat(serverIn(this.readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        this.replicas.checkHealth();
+        this.replicaLag.set(Long.MAX_VALUE);
+        this.replicas.checkHealth();
+
+        assertThat(serverIn(this.readOnly)).isEqualTo("primary");
+    }
+
+    private String serverIn(final TransactionTemplate transaction) {
+        return transaction.execute(status -> this.jdbcTemplate.queryForObject("SELECT NAME FROM SERVER", String.class));
+    }
+
+    private static DataSource embedded(final String name) {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE SERVER (NAME VARCHAR(16)); INSERT INTO SERVER VALUES ('" + name + "')");
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.api.spring_security_demo7.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@SpringJUnitConfig(ReplicaRoutingJpaTest.Config.class)
+class ReplicaRoutingJpaTest {
+
+    @Autowired
+    private ServerRepository serverRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicas;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyRepositoryCallsGoToTheReplica() {
+        this.replicas.checkHealth();
+
+        // SimpleJpaRepository.findAll é @Transactional(readOnly = true)
+        assertThat(this.serverRepository.findAll()).extracting(Server::getName).containsExactly("replica");
+    }
+
+    @Test
+    void readWriteTransactionsStayOnThePrimary() {
+        this.replicas.checkHealth();
+
+        final List<Server> servers = new TransactionTemplate(this.transactionManager)
+                .execute(status -> this.serverRepository.findAll());
+        assertThat(servers).extracting(Server::getName).containsExactly("primary");
+    }
+
+    @Test
+    void readOnlyTransactionAfterAWriteInTheSameThreadStillGoesToTheReplica() {
+        this.replicas.checkHealth();
+
+        new TransactionTemplate(this.transactionManager).executeWithoutResult(status -> this.serverRepository.findAll());
+        assertThat(this.serverRepository.findAll()).extracting(Server::getName).containsExactly("replica");
+    }
+
+    @Test
+    void readOnlyMethodRedeclaredAsReadWriteGoesToThePrimary() {
+        this.replicas.checkHealth();
+
+        // Como RevokedTokenRepository.existsById: redeclarado com @Transactional para não ler uma réplica atrasada
+        assertThat(this.serverRepository.existsById("primary")).isTrue();
+        assertThat(this.serverRepository.existsById("replica")).isFalse();
+        assertThat(this.serverRepository.findByName("replica")).isNotNull();
+    }
+
+    interface ServerRepository extends JpaRepository<Server, String> {
+
+        @Override
+        @Transactional
+        boolean existsById(String name);
+
+        @Transactional(readOnly = true)
+        Server findByName(String name);
+    }
+
+    @Entity
+    @Table(name = "SERVER")
+    static class Server {
+
+        @Id
+        @Column(name = "NAME")
+        private String name;
+
+        String getName() {
+            return this.name;
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(considerNestedRepositories = true, basePackageClasses = ReplicaRoutingJpaTest.class,
+            includeFilters = @org.springframework.context.annotation.ComponentScan.Filter(
+                    type = org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE, classes = ServerRepository.class))
+    static class Config {
+
+        @Bean
+        DataSource primaryDataSource() {
+            return embedded("primary");
+        }
+
+        @Bean
+        ReplicaRoutingDataSource replicaDataSource(final DataSource primaryDataSource) {
+            return new ReplicaRoutingDataSource(primaryDataSource, List.of(embedded("replica")), connection -> 0L, 5,
+                    new SimpleMeterRegistry());
+        }
+
+        @Bean
+        DataSource dataSource(final DataSource primaryDataSource, final ReplicaRoutingDataSource replicaDataSource) {
+            return new DataSourceConfig().dataSource(primaryDataSource, replicaDataSource);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(final DataSource dataSource) {
+            final LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new DataSourceConfig().jpaVendorAdapter(new JpaProperties()));
+            factory.setManagedTypes(PersistenceManagedTypes.of(Server.class.getName()));
+            factory.setJpaPropertyMap(Map.of(
+                    AvailableSettings.DIALECT, H2Dialect.class.getName(),
+                    // Mesmo modo configurado por DataSourceConfig.releaseConnectionAfterTransaction
+                    AvailableSettings.CONNECTION_HANDLING, PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION));
+            return factory;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(final EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        private static DataSource embedded(final String name) {
+            final org.h2.jdbcx.JdbcDataSource dataSource = new org.h2.jdbcx.JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:jpa-" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+            new JdbcTemplate(dataSource).execute("CREATE TABLE SERVER (NAME VARCHAR(16) PRIMARY KEY); INSERT INTO SERVER VALUES ('" + name + "')");
+            return dataSource;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.api.spring_security_demo7.role;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class AuthoritySetTest {
+
+    private static final GrantedAuthority USER = new SimpleGrantedAuthority("ROLE_USER");
+    private static final GrantedAuthority ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+    private static final GrantedAuthority AUDITOR = new SimpleGrantedAuthority("ROLE_AUDITOR");  // Fora do registro
+
+    @BeforeAll
+    static void loadRegistry() {
+        TestRoles.load();
+    }
+
+    @Test
+    void sameRolesShareTheInternedInstance() {
+        final AuthoritySet byNames = AuthoritySet.of(List.of("ROLE_ADMIN", "ROLE_USER"));
+        final AuthoritySet byRoles = AuthoritySet.ofRoles(List.of(
+                Role.builder().name("ROLE_USER").build(), Role.builder().name("ROLE_ADMIN").build()));
+
+        assertThat(byRoles).isSameAs(byNames).isSameAs(AuthoritySet.ofMask(0b11));
+        assertThat(byNames.mask()).isEqualTo(0b11);
+        assertThat(byNames).containsExactly(USER, ADMIN);  // Ordem dos índices, não a de chegada
+        assertThat(AuthoritySet.of(List.of())).isSameAs(AuthoritySet.EMPTY);
+        assertThat(AuthoritySet.ofMask(0L)).isEmpty();
+    }
+
+    @Test
+    void equalsAndHashCodeFollowTheSetContract() {
+        final AuthoritySet interned = AuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN"));
+        final Set<GrantedAuthority> plain = Set.of(ADMIN, USER);
+
+        assertThat(interned).isEqualTo(plain).hasSameHashCodeAs(plain);
+        assertThat(plain).isEqualTo(interned);
+        assertThat(interned).isNotEqualTo(Set.of(USER)).isNotEqualTo(AuthoritySet.of(List.of("ROLE_USER")));
+        assertThat(AuthoritySet.EMPTY).isEqualTo(Set.of()).hasSameHashCodeAs(Set.of());
+    }
+
+    @Test
+    void unknownRoleProducesAnUninternedSetEqualToTheSameAuthorities() {
+        final AuthoritySet first = AuthoritySet.of(List.of("ROLE_USER", "ROLE_AUDITOR"));
+        final AuthoritySet second = AuthoritySet.of(List.of("ROLE_AUDITOR", "ROLE_USER"));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+        assertThat(first).isEqualTo(Set.of(USER, AUDITOR)).hasSameHashCodeAs(Set.of(USER, AUDITOR));
+        assertThat(first.mask()).isEqualTo(0b01);  // Apenas a role do registro entra no bitset
+        assertThat(first.hasAuthority("ROLE_USER")).isTrue();
+        assertThat(first.hasAuthority("ROLE_AUDITOR")).isTrue();  // Busca linear
+        assertThat(first.hasAuthority("ROLE_ADMIN")).isFalse();
+    }
+
+    @Test
+    void maskBitsOutsideTheRegistryAreIgnored() {
+        final AuthoritySet set = AuthoritySet.ofMask(0b101);  // Bit 2 não pertence a nenhuma role
+
+        assertThat(set).containsExactly(USER);
+        assertThat(set.mask()).isEqualTo(0b001);
+        assertThat(set).isEqualTo(AuthoritySet.ofMask(0b001)).hasSameHashCodeAs(AuthoritySet.ofMask(0b001));
+    }
+
+    @Test
+    void hasAuthorityAndContainsUseTheFullAuthorityName() {
+        final AuthoritySet set = AuthoritySet.of(List.of("ROLE_ADMIN"));
+
+        assertThat(set.hasAuthority("ROLE_ADMIN")).isTrue();
+        assertThat(set.hasAuthority("ADMIN")).isFalse();
+        assertThat(set.hasAuthority("ROLE_USER")).isFalse();
+        assertThat(set.contains(ADMIN)).isTrue();
+        assertThat(set.contains(new SimpleGrantedAuthority("ROLE_USER"))).isFalse();
+        assertThat(set.contains("ROLE_ADMIN")).isFalse();  // Não é um GrantedAuthority
+    }
+
+    @Test
+    void deserializationReturnsTheInternedInstance() throws Exception {
+        final AuthoritySet interned = AuthoritySet.of(List.of("ROLE_USER"));
+        final AuthoritySet uninterned = AuthoritySet.of(List.of("ROLE_USER", "ROLE_AUDITOR"));
+
+        assertThat(roundTrip(interned)).isSameAs(interned);
+        assertThat(roundTrip(uninterned)).isNotSameAs(uninterned).isEqualTo(uninterned);
+    }
+
+    private static Object roundTrip(final Object value) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+}
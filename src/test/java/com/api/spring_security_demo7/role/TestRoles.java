@@ -0,0 +1,28 @@
+package com.api.spring_security_demo7.role;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import com.api.spring_security_demo7.common.OptimisticRetry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Carrega o {@link RoleRegistry} sem banco, com as roles e os bits da aplicação: ROLE_USER = 0, ROLE_ADMIN = 1.
+ */
+public final class TestRoles {
+
+    private TestRoles() {
+    }
+
+    public static void load() {
+        final List<Role> roles = List.of(
+                Role.builder().id("0190b3c4-0000-7000-8000-000000000001").name("ROLE_USER").bit(0).build(),
+                Role.builder().id("0190b3c4-0000-7000-8000-000000000002").name("ROLE_ADMIN").bit(1).build());
+        final RoleRepository roleRepository = (RoleRepository) Proxy.newProxyInstance(TestRoles.class.getClassLoader(),
+                new Class<?>[] { RoleRepository.class },
+                (proxy, method, args) -> "findAll".equals(method.getName()) ? roles : null);
+        new RoleRegistry(roleRepository, new OptimisticRetry(1, 0, new SimpleMeterRegistry())).reload();
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.api.spring_security_demo7.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.security.access.expression.DenyAllPermissionEvaluator;
+import org.springframework.security.access.expression.SecurityExpressionOperations;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import com.api.spring_security_demo7.role.AuthoritySet;
+import com.api.spring_security_demo7.role.TestRoles;
+import com.api.spring_security_demo7.user.User;
+
+class AuthoritySetExpressionRootTest {
+
+    @BeforeAll
+    static void loadRegistry() {
+        TestRoles.load();
+    }
+
+    static Stream<Arguments> authentications() {
+        final User user = User.builder().id("0190b3c4-5d6e-7f80-9a1b-2c3d4e5f6a7b").email("ana@example.com").build();
+        return Stream.of(
+                Arguments.of("user (interned)", new PrincipalAuthenticationToken(user, AuthoritySet.of(List.of("ROLE_USER")))),
+                Arguments.of("admin (interned)",
+                        new PrincipalAuthenticationToken(user, AuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN")))),
+                Arguments.of("auditor (uninterned)",
+                        new PrincipalAuthenticationToken(user, AuthoritySet.of(List.of("ROLE_USER", "ROLE_AUDITOR")))),
+                Arguments.of("no roles", new PrincipalAuthenticationToken(user, AuthoritySet.EMPTY)),
+                Arguments.of("plain collection", UsernamePasswordAuthenticationToken.authenticated(user, null,
+                        AuthorityUtils.createAuthorityList("ROLE_ADMIN", "SCOPE_read"))),
+                Arguments.of("anonymous", new AnonymousAuthenticationToken("key", "anonymousUser",
+                        AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"))));
+    }
+
+    static List<Predicate<SecurityExpressionOperations>> expressions() {
+        return List.of(
+                root -> root.hasRole("USER"),
+                root -> root.hasRole("ROLE_USER"),
+                root -> root.hasRole("ADMIN"),
+                root -> root.hasRole("AUDITOR"),
+                root -> root.hasRole("ANONYMOUS"),
+                root -> root.hasAnyRole("ADMIN", "AUDITOR"),
+                root -> root.hasAnyRole("GUEST", "ROLE_USER"),
+                root -> root.hasAnyRole(),
+                root -> root.hasAuthority("ROLE_ADMIN"),
+                root -> root.hasAuthority("ADMIN"),  // hasAuthority não aplica o prefixo
+                root -> root.hasAuthority("SCOPE_read"),
+                root -> root.hasAnyAuthority("ROLE_GUEST", "ROLE_USER"),
+                root -> root.hasAnyAuthority(),
+                SecurityExpressionOperations::isAnonymous,
+                SecurityExpressionOperations::isAuthenticated,
+                SecurityExpressionOperations::isFullyAuthenticated,
+                SecurityExpressionOperations::isRememberMe,
+                SecurityExpressionOperations::permitAll,
+                SecurityExpressionOperations::denyAll);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("authentications")
+    void matchesSecurityExpressionRoot(final String description, final Authentication authentication) {
+        final SecurityExpressionOperations expected = springRoot(authentication, "ROLE_");
+        final SecurityExpressionOperations actual = root(authentication, "ROLE_");
+
+        final List<Predicate<SecurityExpressionOperations>> expressions = expressions();
+        for (int i = 0; i < expressions.size(); i++) {
+            assertThat(expressions.get(i).test(actual))
+                    .as("expression %d for %s", i, description)
+                    .isEqualTo(expressions.get(i).test(expected));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("authentications")
+    void matchesSecurityExpressionRootWithoutRolePrefix(final String description, final Authentication authentication) {
+        final SecurityExpressionOperations expected = springRoot(authentication, "");
+        final SecurityExpressionOperations actual = root(authentication, "");
+
+        for (final String role : List.of("USER", "ROLE_USER", "ROLE_ADMIN", "ADMIN")) {
+            assertThat(actual.hasRole(role)).as("hasRole('%s') for %s", role, description)
+                    .isEqualTo(expected.hasRole(role));
+        }
+    }
+
+    @Test
+    void nullAuthenticationIsDeniedInsteadOfFailing() {
+        final AuthoritySetExpressionRoot root = root(null, "ROLE_");
+
+        assertThat(root.hasRole("USER")).isFalse();
+        assertThat(root.hasAnyAuthority("ROLE_USER")).isFalse();
+        assertThat(root.isAuthenticated()).isFalse();
+        assertThat(root.isAnonymous()).isFalse();
+        // O SecurityExpressionRoot do Spring exige um Authentication
+        assertThatIllegalArgumentException().isThrownBy(() -> springRoot(null, "ROLE_").hasRole("USER"));
+    }
+
+    @Test
+    void authenticationIsResolvedOnlyWhenUsed() {
+        final int[] resolved = { 0 };
+        final AuthoritySetExpressionRoot root = new AuthoritySetExpressionRoot(() -> {
+            resolved[0]++;
+            return null;
+        }, new AuthenticationTrustResolverImpl(), new DenyAllPermissionEvaluator(), "ROLE_");
+
+        assertThat(root.permitAll()).isTrue();
+        assertThat(root.denyAll()).isFalse();
+        assertThat(resolved[0]).isZero();
+        root.hasRole("USER");
+        assertThat(resolved[0]).isEqualTo(1);
+    }
+
+    private static AuthoritySetExpressionRoot root(final Authentication authentication, final String rolePrefix) {
+        return new AuthoritySetExpressionRoot(() -> authentication, new AuthenticationTrustResolverImpl(),
+                new DenyAllPermissionEvaluator(), rolePrefix);
+    }
+
+    private static SecurityExpressionRoot springRoot(final Authentication authentication, final String rolePrefix) {
+        final SecurityExpressionRoot root = new SecurityExpressionRoot(() -> authentication) {
+        };
+        root.setTrustResolver(new AuthenticationTrustResolverImpl());  // Como o DefaultMethodSecurityExpressionHandler
+        root.setDefaultRolePrefix(rolePrefix);
+        return root;
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.api.spring_security_demo7.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.api.spring_security_demo7.role.AuthoritySet;
+import com.api.spring_security_demo7.role.TestRoles;
+import com.api.spring_security_demo7.user.User;
+
+class AuthoritySetMethodSecurityExpressionHandlerTest {
+
+    private static final String USER_ID = "0190b3c4-5d6e-7f80-9a1b-2c3d4e5f6a7b";
+
+    private final AuthoritySetMethodSecurityExpressionHandler handler = new AuthoritySetMethodSecurityExpressionHandler();
+
+    @BeforeAll
+    static void loadRegistry() {
+        TestRoles.load();
+    }
+
+    @Test
+    void evaluatesRoleExpressionsWithTheAuthoritySetRoot() throws Exception {
+        final Authentication admin = token("ROLE_USER", "ROLE_ADMIN");
+        final Authentication user = token("ROLE_USER");
+
+        assertThat(evaluate("hasRole('ADMIN')", () -> admin)).isTrue();
+        assertThat(evaluate("hasRole('ADMIN')", () -> user)).isFalse();
+        assertThat(evaluate("hasAnyRole('ADMIN', 'USER') and isAuthenticated()", () -> user)).isTrue();
+        assertThat(evaluate("hasAuthority('ROLE_USER') and !isAnonymous()", () -> user)).isTrue();
+        assertThat(evaluate("hasRole('USER')", () -> new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")))).isFalse();
+    }
+
+    @Test
+    void exposesMethodArgumentsPrincipalAndTarget() throws Exception {
+        final Authentication admin = token("ROLE_ADMIN");
+
+        assertThat(evaluate("#userId == principal.id and hasRole('ADMIN')", () -> admin)).isTrue();
+        assertThat(evaluate("this != null", () -> admin)).isTrue();
+    }
+
+    @Test
+    void authenticationIsResolvedOnlyWhenTheExpressionUsesIt() throws Exception {
+        final int[] resolved = { 0 };
+        final Supplier<Authentication> authentication = () -> {
+            resolved[0]++;
+            return token("ROLE_USER");
+        };
+
+        assertThat(evaluate("permitAll()", authentication)).isTrue();
+        assertThat(resolved[0]).isZero();
+        assertThat(evaluate("hasRole('USER')", authentication)).isTrue();
+        assertThat(resolved[0]).isEqualTo(1);
+    }
+
+    private boolean evaluate(final String expression, final Supplier<Authentication> authentication) throws Exception {
+        final Target target = new Target();
+        final SimpleMethodInvocation invocation = new SimpleMethodInvocation(target,
+                Target.class.getMethod("unlock", String.class), USER_ID);
+        final EvaluationContext context = this.handler.createEvaluationContext(authentication, invocation);
+        return ExpressionUtils.evaluateAsBoolean(this.handler.getExpressionParser().parseExpression(expression), context);
+    }
+
+    private static PrincipalAuthenticationToken token(final String... roles) {
+        return new PrincipalAuthenticationToken(User.builder().id(USER_ID).email("ana@example.com").build(),
+                AuthoritySet.of(List.of(roles)));
+    }
+
+    public static class Target {
+
+        public void unlock(final String userId) {
+        }
+    }
+
+}
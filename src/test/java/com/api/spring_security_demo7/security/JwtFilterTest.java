@@ -0,0 +1,82 @@
+package com.api.spring_security_demo7.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import com.api.spring_security_demo7.role.TestRoles;
+import com.api.spring_security_demo7.token.TokenRevocationList;
+import com.api.spring_security_demo7.user.User;
+
+import io.jsonwebtoken.Jwts;
+
+class JwtFilterTest {
+
+    private final VerifiedTokenCache verifiedTokenCache = mock(VerifiedTokenCache.class);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final JwtFilter filter = new JwtFilter(this.verifiedTokenCache, mock(TokenRevocationList.class),
+            this.userDetailsService, null);
+
+    @BeforeAll
+    static void roles() {
+        TestRoles.load();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessTokenAuthenticatesTheRequest() throws Exception {
+        when(this.verifiedTokenCache.validate("access")).thenReturn(token(JwtService.ACCESS_TOKEN));
+        when(this.userDetailsService.loadUserByUsername("ana@example.com")).thenReturn(User.builder()
+                .id("0190b3c4-5d6e-7f80-9a1b-2c3d4e5f6a7b")
+                .email("ana@example.com")
+                .enabled(true)
+                .roleMask(1L)
+                .build());
+
+        this.filter.doFilter(request("access"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+    }
+
+    @Test
+    void refreshTokenIsNotABearerCredential() throws Exception {
+        when(this.verifiedTokenCache.validate("refresh")).thenReturn(token(JwtService.REFRESH_TOKEN));
+
+        this.filter.doFilter(request("refresh"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(this.userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    private static MockHttpServletRequest request(final String jwt) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.setServletPath("/api/v1/users/me");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        return request;
+    }
+
+    private static ValidatedToken token(final String tokenType) {
+        return new ValidatedToken("jti-1", "ana@example.com", tokenType, new Date(),
+                new Date(System.currentTimeMillis() + 60_000), Jwts.claims().build());
+    }
+
+}
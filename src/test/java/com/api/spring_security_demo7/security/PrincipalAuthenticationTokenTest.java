@@ -0,0 +1,50 @@
+package com.api.spring_security_demo7.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.api.spring_security_demo7.role.AuthoritySet;
+import com.api.spring_security_demo7.role.TestRoles;
+import com.api.spring_security_demo7.user.User;
+
+class PrincipalAuthenticationTokenTest {
+
+    @BeforeAll
+    static void loadRegistry() {
+        TestRoles.load();
+    }
+
+    @Test
+    void referencesTheAuthoritySetWithoutCopying() {
+        final User user = User.builder().id("0190b3c4-5d6e-7f80-9a1b-2c3d4e5f6a7b").email("ana@example.com").build();
+        final AuthoritySet authorities = AuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        final PrincipalAuthenticationToken token = new PrincipalAuthenticationToken(user, authorities);
+
+        assertThat(token.getAuthorities()).isSameAs(authorities);
+        assertThat(token.isAuthenticated()).isTrue();
+        assertThat(token.getPrincipal()).isSameAs(user);
+        assertThat(token.getName()).isEqualTo("ana@example.com");
+        assertThat(token.getCredentials()).isNull();
+    }
+
+    @Test
+    void exposesTheSameAuthoritiesAsTheStandardToken() {
+        final User user = User.builder().id("0190b3c4-5d6e-7f80-9a1b-2c3d4e5f6a7b").email("ana@example.com").build();
+        final AuthoritySet authorities = AuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN"));
+
+        final PrincipalAuthenticationToken token = new PrincipalAuthenticationToken(user, authorities);
+        final UsernamePasswordAuthenticationToken standard = UsernamePasswordAuthenticationToken.authenticated(user, null,
+                authorities);
+
+        assertThat(token.getAuthorities()).containsExactlyElementsOf(standard.getAuthorities());
+        assertThat(token.getAuthorities()).isEqualTo(Set.copyOf(standard.getAuthorities()));
+    }
+
+}
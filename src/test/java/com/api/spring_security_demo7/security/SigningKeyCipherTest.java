@@ -0,0 +1,48 @@
+package com.api.spring_security_demo7.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.security.KeyPair;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SigningKeyCipherTest {
+
+    private static final String KEK = "O8vWmXd6lgflKWgC+XsrvAfuNW/kXnl2/s8G0hRJo14=";
+    private static final String OTHER_KEK = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=";
+
+    private final SigningKeyCipher cipher = new SigningKeyCipher(KEK);
+
+    @Test
+    void privateKeyIsStoredEncryptedAndRestored() throws Exception {
+        final KeyPair keyPair = SigningAlgorithm.ES256.generateKeyPair();
+        final byte[] encoded = keyPair.getPrivate().getEncoded();
+
+        final String stored = this.cipher.encrypt("kid-1", encoded);
+
+        assertThat(SigningKeyCipher.isEncrypted(stored)).isTrue();
+        assertThat(stored).doesNotContain(Base64.getEncoder().encodeToString(encoded));
+        assertThat(this.cipher.encrypt("kid-1", encoded)).isNotEqualTo(stored);  // IV aleatório
+        assertThat(KeyUtils.parsePrivateKey(this.cipher.decrypt("kid-1", stored), "EC")).isEqualTo(keyPair.getPrivate());
+    }
+
+    @Test
+    void storedKeyIsBoundToItsKidAndKek() {
+        final String stored = this.cipher.encrypt("kid-1", new byte[] { 1, 2, 3 });
+
+        assertThatThrownBy(() -> this.cipher.decrypt("kid-2", stored)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new SigningKeyCipher(OTHER_KEK).decrypt("kid-1", stored))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> this.cipher.decrypt("kid-1", "AQID")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void kekMustBeAnAes256Key() {
+        assertThatThrownBy(() -> new SigningKeyCipher("")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new SigningKeyCipher("c2hvcnQ=")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new SigningKeyCipher("not base64!")).isInstanceOf(IllegalStateException.class);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.api.spring_security_demo7.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProfileETagCacheTest {
+
+    private final ProfileETagCache cache = new ProfileETagCache(new SimpleMeterRegistry(), true, 100, 60_000);
+
+    @Test
+    void ifNoneMatch() {
+        final String eTag = ProfileETagCache.eTag(3);
+
+        assertThat(eTag).isEqualTo("\"3\"");
+        assertThat(ProfileETagCache.matches("\"3\"", eTag)).isTrue();
+        assertThat(ProfileETagCache.matches("W/\"3\"", eTag)).isTrue();
+        assertThat(ProfileETagCache.matches("\"1\", \"3\"", eTag)).isTrue();
+        assertThat(ProfileETagCache.matches("*", eTag)).isTrue();
+        assertThat(ProfileETagCache.matches("\"2\"", eTag)).isFalse();
+        assertThat(ProfileETagCache.matches(null, eTag)).isFalse();
+        assertThat(ProfileETagCache.matches("\"3\"", null)).isFalse();
+    }
+
+    @Test
+    void loadedETagIsServedUntilTheAccountChanges() {
+        this.cache.load("user-1", () -> 3L, Long::longValue);
+        assertThat(this.cache.get("user-1")).isEqualTo("\"3\"");
+
+        this.cache.onUserAccountChanged(new UserAccountChangedEvent("user-1"));
+        assertThat(this.cache.get("user-1")).isNull();
+
+        this.cache.load("user-1", () -> 4L, Long::longValue);
+        assertThat(this.cache.get("user-1")).isEqualTo("\"4\"");
+    }
+
+    @Test
+    void changeDuringTheLoadDiscardsTheLoadedETag() {
+        // A leitura vê a versão 3 e, antes de guardar o ETag, a conta é alterada (versão 4)
+        this.cache.load("user-1", () -> {
+            this.cache.onUserAccountChanged(new UserAccountChangedEvent("user-1"));
+            return 3L;
+        }, Long::longValue);
+
+        assertThat(this.cache.get("user-1")).isNull();
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.api.spring_security_demo7.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.api.spring_security_demo7.common.OptimisticRetry;
+import com.api.spring_security_demo7.config.JpaConfig;
+import com.api.spring_security_demo7.role.RoleRegistry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "app.persistence.optimistic-retry.max-attempts=5",
+    "app.persistence.optimistic-retry.backoff=1"
+})
+@Import({ JpaConfig.class, OptimisticRetry.class, RoleRegistry.class, UserConcurrencyTest.Beans.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)  // Cada operação em sua própria transação, como nas requisições
+class UserConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    private ExecutorService executor;
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        this.executor = Executors.newFixedThreadPool(THREADS);
+        this.userId = this.userRepository.saveAndFlush(User.builder()
+                .firstName("Daniel")
+                .lastName("Silva")
+                .email("daniel@example.com")
+                .emailNormalized("daniel@example.com")
+                .phoneNumber("+5511999999999")
+                .phoneNormalized("+5511999999999")
+                .password("hash-0")
+                .dateOfBirth(LocalDate.of(2000, 1, 1))
+                .enabled(true)
+                .roleMask(0L)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+        this.userRepository.deleteAll();
+    }
+
+    @Test
+    void everyTargetedUpdateIncrementsTheVersion() throws Exception {
+        final long initial = version();
+
+        // Perfil, senha e estado da conta alterados ao mesmo tempo no mesmo usuário
+        final List<Integer> updated = hammer(THREADS, thread -> {
+            int rows = 0;
+            for (int i = 0; i < 30; i++) {
+                rows += switch (i % 3) {
+                    case 0 -> this.userRepository.updateProfile(this.userId, Map.of("firstName", "Thread " + thread), null);
+                    case 1 -> this.userRepository.updateEnabledIfChanged(this.userId, i % 2 == 0);
+                    default -> {
+                        final String current = this.userRepository.findPasswordById(this.userId).orElseThrow();
+                        yield this.userRepository.updatePasswordIfUnchanged(this.userId, current, "hash-" + thread + "-" + i);
+                    }
+                };
+            }
+            return rows;
+        });
+
+        final int rows = updated.stream().mapToInt(Integer::intValue).sum();
+        assertThat(rows).isGreaterThanOrEqualTo(THREADS * 10);  // Ao menos todos os UPDATEs de perfil (incondicionais)
+        assertThat(version()).isEqualTo(initial + rows);
+    }
+
+    @Test
+    void onlyOneWriterWinsForTheSameExpectedVersion() throws Exception {
+        final int rounds = 20;
+        final long initial = version();
+        final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+        // Em cada rodada todas as threads leem a mesma versão e tentam gravar com If-Match nessa versão
+        final List<Integer> wins = hammer(THREADS, thread -> {
+            int won = 0;
+            for (int round = 0; round < rounds; round++) {
+                barrier.await();
+                final long expected = version();
+                barrier.await();
+                won += this.userRepository.updateProfile(this.userId, Map.of("lastName", "Thread " + thread), expected);
+            }
+            return won;
+        });
+
+        assertThat(wins.stream().mapToInt(Integer::intValue).sum()).isEqualTo(rounds);
+        assertThat(version()).isEqualTo(initial + rounds);
+    }
+
+    @Test
+    void concurrentEntityMergesAreNeverLost() throws Exception {
+        final int increments = 10;
+        final AtomicInteger conflicts = new AtomicInteger();
+        final LocalDate initial = user().getDateOfBirth();
+
+        // Leitura, alteração e save da entidade: sem @Version o último save sobrescreveria os demais
+        final List<Integer> applied = hammer(THREADS, thread -> {
+            int done = 0;
+            for (int i = 0; i < increments; i++) {
+                try {
+                    this.optimisticRetry.run(() -> {
+                        final User user = user();
+                        user.setDateOfBirth(user.getDateOfBirth().plusDays(1));
+                        this.userRepository.save(user);
+                    });
+                    done++;
+                } catch (final OptimisticLockingFailureException e) {
+                    conflicts.incrementAndGet();  // Tentativas esgotadas: seria o 409 CONCURRENT_MODIFICATION
+                }
+            }
+            return done;
+        });
+
+        final int done = applied.stream().mapToInt(Integer::intValue).sum();
+        assertThat(done + conflicts.get()).isEqualTo(THREADS * increments);
+        assertThat(done).isGreaterThan(0);
+        assertThat(user().getDateOfBirth()).isEqualTo(initial.plusDays(done));
+    }
+
+    @Test
+    void staleEntityIsRejected() {
+        final User first = user();
+        final User second = user();
+
+        first.setFirstName("First");
+        this.userRepository.save(first);
+
+        second.setFirstName("Second");
+        assertThatThrownBy(() -> this.userRepository.save(second))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(user().getFirstName()).isEqualTo("First");
+    }
+
+    private User user() {
+        return this.userRepository.findById(this.userId).orElseThrow();
+    }
+
+    private long version() {
+        return user().getVersion();
+    }
+
+    /**
+     * Executa a tarefa em {@code threads} threads ao mesmo tempo e devolve o resultado de cada uma.
+     */
+    private <T> List<T> hammer(final int threads, final ThreadTask<T> task) throws Exception {
+        final List<Future<T>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final int index = thread;
+            futures.add(this.executor.submit((Callable<T>) () -> task.run(index)));
+        }
+        final List<T> results = new ArrayList<>();
+        for (final Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask<T> {
+        T run(int thread) throws Exception;
+    }
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return Optional::empty;
+        }
+    }
+
+}
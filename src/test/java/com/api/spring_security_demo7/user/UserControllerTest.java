@@ -0,0 +1,78 @@
+package com.api.spring_security_demo7.user;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.api.spring_security_demo7.user.response.ProfileResponse;
+
+class UserControllerTest {
+
+    private static final String USER_ID = "0190b3c4-5d6e-7f80-9a1b-2c3d4e5f6a7b";
+
+    private final UserService userService = mock(UserService.class);
+    private final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            User.builder().id(USER_ID).email("ana@example.com").build(), null);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders.standaloneSetup(new UserController(this.userService)).build();
+        when(this.userService.getProfile(USER_ID))
+                .thenReturn(ProfileResponse.builder().id(USER_ID).email("ana@example.com").version(3L).build());
+    }
+
+    @Test
+    void profileIsReturnedWithETagAndCacheControl() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/me").principal(this.authentication))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(jsonPath("$.email").value("ana@example.com"))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void cachedETagAnswers304WithoutReadingTheProfile() throws Exception {
+        when(this.userService.findCachedProfileETag(USER_ID)).thenReturn("\"3\"");
+
+        this.mockMvc.perform(get("/api/v1/users/me").principal(this.authentication).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(""));
+        verify(this.userService, never()).getProfile(USER_ID);
+    }
+
+    @Test
+    void currentETagNotInCacheStillAnswers304() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/me").principal(this.authentication).header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void staleETagAnswers200WithTheCurrentVersion() throws Exception {
+        when(this.userService.findCachedProfileETag(USER_ID)).thenReturn("\"3\"");
+
+        this.mockMvc.perform(get("/api/v1/users/me").principal(this.authentication).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.api.spring_security_demo7.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.api.spring_security_demo7.role.TestRoles;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserDetailsCacheTest {
+
+    private final UserDetailsCache cache = new UserDetailsCache(new UserMapper(null), new SimpleMeterRegistry(), true, 100, 60_000, 0);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeAll
+    static void roles() {
+        TestRoles.load();
+    }
+
+    @Test
+    void loadedUserIsServedUntilTheAccountChanges() {
+        assertThat(this.cache.get("User@Example.com", loader(true), loader(true)).isEnabled()).isTrue();
+        assertThat(this.cache.get("user@example.com", loader(false), loader(false)).isEnabled()).isTrue();
+        assertThat(this.loads).hasValue(1);
+
+        this.cache.onUserAccountChanged(new UserAccountChangedEvent("user-1"));
+
+        assertThat(this.cache.get("user@example.com", loader(false), loader(false)).isEnabled()).isFalse();
+        assertThat(this.loads).hasValue(2);
+    }
+
+    @Test
+    void changeDuringTheLoadDiscardsTheLoadedUser() {
+        // A leitura vê a conta ativa e, antes de guardá-la, a conta é desativada
+        final AtomicBoolean enabled = new AtomicBoolean(true);
+        final Function<String, User> racingLoader = email -> {
+            final User loaded = loader(enabled.get()).apply(email);
+            if (enabled.getAndSet(false)) {
+                this.cache.onUserAccountChanged(new UserAccountChangedEvent("user-1"));
+            }
+            return loaded;
+        };
+        final User user = this.cache.get("user@example.com", racingLoader, racingLoader);
+
+        assertThat(user.isEnabled()).isFalse();  // Lido de novo, sem o snapshot antigo
+        assertThat(this.cache.get("user@example.com", loader(true), loader(true)).isEnabled()).isTrue();
+        assertThat(this.loads).hasValue(3);
+    }
+
+    @Test
+    void changedUserIsReloadedFromThePrimary() {
+        final UserDetailsCache cache = new UserDetailsCache(new UserMapper(null), new SimpleMeterRegistry(), true, 100,
+                60_000, 60_000);
+        assertThat(cache.get("user@example.com", loader(true), loader(true)).isEnabled()).isTrue();
+
+        // A conta é desativada no primário; a réplica ainda devolve a conta ativa
+        cache.onUserAccountChanged(new UserAccountChangedEvent("user-1"));
+
+        assertThat(cache.get("user@example.com", loader(true), loader(false)).isEnabled()).isFalse();
+        assertThat(cache.get("user@example.com", loader(true), loader(true)).isEnabled()).isFalse();  // Em cache
+        assertThat(this.loads).hasValue(3);
+    }
+
+    private Function<String, User> loader(final boolean enabled) {
+        return email -> {
+            this.loads.incrementAndGet();
+            return User.builder()
+                    .id("user-1")
+                    .email(email)
+                    .password("{noop}secret")
+                    .enabled(enabled)
+                    .roleMask(1L)
+                    .build();
+        };
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.api.spring_security_demo7.user;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.api.spring_security_demo7.role.Role;
+
+class UserLookupPlanTest {
+
+    private static final List<String> statements = new ArrayList<>();
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Role.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:user-lookup-plan;MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setStatementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .buildSessionFactory();
+
+        // Índice único que existia em EMAIL antes das colunas normalizadas
+        sessionFactory.inTransaction(session -> session
+                .createNativeMutationQuery("CREATE UNIQUE INDEX UK_USERS_EMAIL ON USERS (EMAIL)")
+                .executeUpdate());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void ignoreCaseLookupScansTheTable() {
+        // SQL gerado pelo antigo findByEmailIgnoreCase (Spring Data: upper(email) = upper(?))
+        final String plan = explain("from User u where upper(u.email) = upper(:email)", "Daniel@Example.com");
+
+        assertThat(plan).contains("tableScan").doesNotContain("UK_USERS_EMAIL");
+    }
+
+    @Test
+    void normalizedLookupUsesTheUniqueIndex() {
+        final String plan = explain("from User u where u.emailNormalized = :email", UserKeys.email(" Daniel@Example.com "));
+
+        assertThat(plan).contains(User.EMAIL_CONSTRAINT).doesNotContain("tableScan");
+    }
+
+    @Test
+    void normalizedKeys() {
+        assertThat(UserKeys.email(" Daniel@Example.COM ")).isEqualTo("daniel@example.com");
+        assertThat(UserKeys.phone("+55 (11) 99999-9999")).isEqualTo("+5511999999999");
+        assertThat(UserKeys.phone("5511999999999")).isEqualTo("+5511999999999");
+    }
+
+    /**
+     * Executa a consulta JPQL, captura o SQL gerado pelo Hibernate e devolve o EXPLAIN do H2 para esse SQL.
+     */
+    private static String explain(final String query, final String email) {
+        return sessionFactory.fromTransaction(session -> {
+            statements.clear();
+            session.createSelectionQuery(query, User.class).setParameter("email", email).getResultList();
+            final String sql = statements.get(statements.size() - 1);
+
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    statement.setString(1, email);
+                    try (ResultSet result = statement.executeQuery()) {
+                        result.next();
+                        return result.getString(1);
+                    }
+                }
+            });
+        });
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.api.spring_security_demo7.user.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.api.spring_security_demo7.audit.AuditLog;
+import com.api.spring_security_demo7.common.OptimisticRetry;
+import com.api.spring_security_demo7.config.JpaConfig;
+import com.api.spring_security_demo7.exception.BusinessException;
+import com.api.spring_security_demo7.exception.ErrorCode;
+import com.api.spring_security_demo7.role.Role;
+import com.api.spring_security_demo7.role.RoleRegistry;
+import com.api.spring_security_demo7.role.RoleRepository;
+import com.api.spring_security_demo7.user.ProfileETagCache;
+import com.api.spring_security_demo7.user.User;
+import com.api.spring_security_demo7.user.UserDetailsCache;
+import com.api.spring_security_demo7.user.UserMapper;
+import com.api.spring_security_demo7.user.UserRepository;
+import com.api.spring_security_demo7.user.request.ChangePasswordRequest;
+import com.api.spring_security_demo7.user.request.ProfileUpdateRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+@Import({ JpaConfig.class, OptimisticRetry.class, RoleRegistry.class, UserServiceImplTest.Beans.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)  // Cada operação em sua própria transação, como nas requisições
+class UserServiceImplTest {
+
+    private static final String MISSING_USER_ID = UUID.randomUUID().toString();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Object> events = new ArrayList<>();
+    private final HookedPasswordEncoder passwordEncoder = new HookedPasswordEncoder();
+    private UserServiceImpl userService;
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        this.userService = userService(false);
+        this.userId = this.userRepository.saveAndFlush(User.builder()
+                .firstName("Daniel")
+                .lastName("Silva")
+                .email("daniel@example.com")
+                .emailNormalized("daniel@example.com")
+                .phoneNumber("+5511999999999")
+                .phoneNormalized("+5511999999999")
+                .password("hash-0")
+                .dateOfBirth(LocalDate.of(2000, 1, 1))
+                .enabled(true)
+                .roleMask(0L)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.jdbcTemplate.update("DELETE FROM USERS_ROLES");
+        this.userRepository.deleteAll();
+        this.roleRepository.deleteAll();
+    }
+
+    @Test
+    void deactivatingTwiceIsNotReportedAsAMissingUser() {
+        this.userService.deactivatedAccount(this.userId);
+        assertThat(user().isEnabled()).isFalse();
+        assertThat(this.events).extracting("userId").containsExactly(this.userId);
+
+        assertError(() -> this.userService.deactivatedAccount(this.userId), ErrorCode.ACCOUNT_ALREADY_DEACTIVATED);
+        assertError(() -> this.userService.deactivatedAccount(MISSING_USER_ID), ErrorCode.USER_NOT_FOUND);
+        assertThat(this.events).hasSize(1);
+    }
+
+    @Test
+    void passwordChangedByAnotherRequestIsNotOverwritten() {
+        // A senha atual confere e, antes do UPDATE, outra requisição troca a senha
+        this.passwordEncoder.onMatch = () -> this.userRepository.updatePasswordIfUnchanged(this.userId, "hash-0", "hash-other");
+
+        assertError(() -> this.userService.changedPassword(passwordChange("0", "1"), this.userId),
+                ErrorCode.CONCURRENT_MODIFICATION);
+        assertThat(this.userRepository.findPasswordById(this.userId)).contains("hash-other");
+        assertThat(this.events).isEmpty();
+    }
+
+    @Test
+    void passwordChangeIncrementsTheVersion() {
+        final long version = user().getVersion();
+
+        this.userService.changedPassword(passwordChange("0", "1"), this.userId);
+
+        final User user = user();
+        assertThat(user.getPassword()).isEqualTo("hash-1");
+        assertThat(user.getVersion()).isEqualTo(version + 1);
+        assertThat(this.events).extracting("userId").containsExactly(this.userId);
+    }
+
+    @Test
+    void emptyProfilePatchOnlyChecksTheUser() {
+        final User before = user();
+        final ProfileUpdateRequest empty = new ProfileUpdateRequest();
+
+        this.userService.updateProfileInfo(empty, this.userId, null);
+        this.userService.updateProfileInfo(empty, this.userId, before.getVersion());
+
+        final User after = user();
+        assertThat(after.getVersion()).isEqualTo(before.getVersion());
+        assertThat(after.getLastModifiedDate()).isEqualTo(before.getLastModifiedDate());
+        assertError(() -> this.userService.updateProfileInfo(empty, this.userId, before.getVersion() + 1),
+                ErrorCode.CONCURRENT_MODIFICATION);
+        assertError(() -> this.userService.updateProfileInfo(empty, MISSING_USER_ID, null), ErrorCode.USER_NOT_FOUND);
+    }
+
+    @Test
+    void profilePatchSetsTheModificationDate() {
+        final User before = user();
+
+        this.userService.updateProfileInfo(ProfileUpdateRequest.builder().firstName("Dani").build(), this.userId,
+                before.getVersion());
+
+        final User after = user();
+        assertThat(after.getFirstName()).isEqualTo("Dani");
+        assertThat(after.getLastName()).isEqualTo("Silva");
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(after.getLastModifiedDate()).isNotNull();
+    }
+
+    @Test
+    void lockIsASingleConditionalUpdate() {
+        final long version = user().getVersion();
+        final LocalDateTime lockedUntil = LocalDateTime.now().plusMinutes(15).truncatedTo(ChronoUnit.SECONDS);
+
+        this.userService.lockAccount(" Daniel@Example.com", lockedUntil);
+        this.userService.lockAccount("daniel@example.com", lockedUntil.plusMinutes(15));  // Já bloqueada: ignorado
+        this.userService.lockAccount("nobody@example.com", lockedUntil);
+
+        User user = user();
+        assertThat(user.isAccountNonLocked()).isFalse();
+        assertThat(user.getLockedUntil()).isEqualTo(lockedUntil);
+        assertThat(user.getVersion()).isEqualTo(version + 1);
+        assertThat(this.events).extracting("userId").containsExactly(this.userId);
+
+        // Bloqueio expirado: é renovado
+        this.jdbcTemplate.update("UPDATE USERS SET LOCKED_UNTIL = ?", LocalDateTime.now().minusMinutes(1));
+        this.userService.lockAccount("daniel@example.com", lockedUntil.plusMinutes(15));
+        user = user();
+        assertThat(user.getLockedUntil()).isEqualTo(lockedUntil.plusMinutes(15));
+        assertThat(this.events).hasSize(2);
+    }
+
+    @Test
+    void principalOfAUserWithoutRoleMaskCarriesTheJoinTableRoles() {
+        // Usuário gravado antes do ROLE_MASK: as authorities vêm de USERS_ROLES, lidas na carga, não no uso do principal
+        this.roleRepository.saveAndFlush(Role.builder().name("ROLE_ADMIN").bit(1).build());
+        this.roleRegistry.reload();
+        final String adminId = this.userRepository.saveAndFlush(User.builder()
+                .firstName("Ana")
+                .lastName("Souza")
+                .email("Ana@Example.com")
+                .emailNormalized("ana@example.com")
+                .phoneNumber("+5511988888888")
+                .phoneNormalized("+5511988888888")
+                .password("hash-0")
+                .enabled(true)
+                .build()).getId();
+        this.jdbcTemplate.update("INSERT INTO USERS_ROLES (USERS_ID, ROLES_ID) SELECT u.ID, r.ID FROM USERS u, ROLES r"
+                + " WHERE u.EMAIL_NORMALIZED = 'ana@example.com'");
+        this.jdbcTemplate.update("UPDATE USERS SET ROLE_MASK = NULL");
+
+        for (final boolean cacheEnabled : new boolean[] { false, true }) {
+            final UserServiceImpl service = userService(cacheEnabled);
+            final UserDetails principal = service.loadUserByUsername("ana@example.com");
+            final UserDetails cached = service.loadUserByUsername("ANA@example.com");
+
+            assertThat(((User) principal).getId()).isEqualTo(adminId);
+            assertThat(principal.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+            assertThat(cached.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        }
+        assertThat(userService(true).loadUserByUsername("daniel@example.com").getAuthorities()).isEmpty();
+
+        // Sem as roles e sem o bitmask não há como montar as authorities fora da transação
+        final User withoutRoles = this.userRepository.findByEmailNormalized("ana@example.com").orElseThrow();
+        assertThatThrownBy(withoutRoles::getAuthorities).isInstanceOf(IllegalStateException.class);
+    }
+
+    private UserServiceImpl userService(final boolean cacheEnabled) {
+        final UserMapper userMapper = new UserMapper(this.passwordEncoder);
+        return new UserServiceImpl(this.userRepository, this.passwordEncoder, userMapper,
+                new UserDetailsCache(userMapper, this.meterRegistry, cacheEnabled, 100, 60_000, 10_000), this.events::add,
+                new ProfileETagCache(this.meterRegistry, false, 0, 0), mock(AuditLog.class));
+    }
+
+    private User user() {
+        return this.userRepository.findById(this.userId).orElseThrow();
+    }
+
+    private static ChangePasswordRequest passwordChange(final String current, final String next) {
+        return new ChangePasswordRequest(current, next, next);
+    }
+
+    private static void assertError(final Runnable action, final ErrorCode errorCode) {
+        assertThatThrownBy(action::run)
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode()).isEqualTo(errorCode));
+    }
+
+    /**
+     * Codifica a senha {@code x} como {@code hash-x} e permite simular uma requisição concorrente durante a verificação.
+     */
+    private static final class HookedPasswordEncoder implements PasswordEncoder {
+
+        private Runnable onMatch = () -> { };
+
+        @Override
+        public String encode(final CharSequence rawPassword) {
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+            final boolean matches = encode(rawPassword).equals(encodedPassword);
+            this.onMatch.run();
+            return matches;
+        }
+    }
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        AuditorAware<String> auditorAware() {
+            return Optional::empty;
+        }
+    }
+
+}